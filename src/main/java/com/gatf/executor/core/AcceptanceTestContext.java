@@ -24,11 +24,16 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Logger;
 
 import javax.ws.rs.core.HttpHeaders;
@@ -51,9 +56,12 @@ import com.gatf.executor.dataprovider.GatfTestDataProvider;
 import com.gatf.executor.dataprovider.GatfTestDataSource;
 import com.gatf.executor.dataprovider.GatfTestDataSourceHook;
 import com.gatf.executor.dataprovider.InlineValueTestDataProvider;
+import com.gatf.executor.dataprovider.LiveProviderCache;
 import com.gatf.executor.dataprovider.MongoDBTestDataSource;
+import com.gatf.executor.dataprovider.ProviderTable;
 import com.gatf.executor.dataprovider.RandomValueTestDataProvider;
 import com.gatf.executor.dataprovider.SQLDatabaseTestDataSource;
+import com.gatf.executor.dataprovider.StreamingProviderData;
 import com.gatf.executor.dataprovider.TestDataHook;
 import com.gatf.executor.dataprovider.TestDataProvider;
 import com.gatf.executor.dataprovider.TestDataSource;
@@ -64,6 +72,7 @@ import com.gatf.executor.executor.SingleTestCaseExecutor;
 import com.gatf.executor.finder.TestCaseFinder;
 import com.gatf.executor.finder.XMLTestCaseFinder;
 import com.gatf.executor.report.TestCaseReport;
+import com.gatf.executor.validator.SOAPRequestTemplate;
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.io.xml.DomDriver;
 
@@ -108,7 +117,7 @@ public class AcceptanceTestContext {
 	
 	private final Map<String, String> soapEndpoints = new HashMap<String, String>();
 	
-	private final Map<String, Document> soapMessages = new HashMap<String, Document>();
+	private final Map<String, SOAPRequestTemplate> soapRequestTemplates = new HashMap<String, SOAPRequestTemplate>();
 	
 	private final Map<String, String> soapStrMessages = new HashMap<String, String>();
 	
@@ -138,7 +147,7 @@ public class AcceptanceTestContext {
 	
 	public void newProvider(String name) {
 	    if(!providerTestDataMap.containsKey(name)) {
-	        providerTestDataMap.put(name, new ArrayList<Map<String,String>>());
+	        providerTestDataMap.put(name, new ProviderTable());
 	    }
 	}
 	
@@ -155,6 +164,10 @@ public class AcceptanceTestContext {
 	private final PerformanceTestCaseExecutor performanceTestCaseExecutor = new PerformanceTestCaseExecutor();
 	
 	private final Map<String, GatfTestDataProvider> liveProviders = new HashMap<String, GatfTestDataProvider>();
+	
+	private final Map<String, LiveProviderCache> liveProviderCaches = new HashMap<String, LiveProviderCache>();
+	
+	private ExecutorService performanceCompletionPool = null;
 
 	public SingleTestCaseExecutor getSingleTestCaseExecutor() {
 		return singleTestCaseExecutor;
@@ -189,7 +202,7 @@ public class AcceptanceTestContext {
 				DocumentBuilder db = dbf.newDocumentBuilder();
 				for (Map.Entry<String, String> soapMsg : dContext.getSoapMessages().entrySet()) {
 					Document soapMessage = db.parse(new ByteArrayInputStream(soapMsg.getValue().getBytes()));
-					this.soapMessages.put(soapMsg.getKey(), soapMessage);
+					this.soapRequestTemplates.put(soapMsg.getKey(), new SOAPRequestTemplate(soapMessage));
 				}
 			}
 		} catch (Exception e) {
@@ -249,8 +262,8 @@ public class AcceptanceTestContext {
 		return soapEndpoints;
 	}
 
-	public Map<String, Document> getSoapMessages() {
-		return soapMessages;
+	public Map<String, SOAPRequestTemplate> getSoapRequestTemplates() {
+		return soapRequestTemplates;
 	}
 
 	public Map<String, String> getSoapActions() {
@@ -584,7 +597,7 @@ public class AcceptanceTestContext {
 								soapStrMessages.put(wsdlLocParts[0]+operation.getOperationName(), request);
 							}
 							
-							soapMessages.put(wsdlLocParts[0]+operation.getOperationName(), soapMessage);
+							soapRequestTemplates.put(wsdlLocParts[0]+operation.getOperationName(), new SOAPRequestTemplate(soapMessage));
 							if(operation.getSoapAction()!=null) {
 								soapActions.put(wsdlLocParts[0]+operation.getOperationName(), operation.getSoapAction());
 							}
@@ -599,7 +612,32 @@ public class AcceptanceTestContext {
 		}
 	}
 
+	/**
+	 * @return the pool running the request completions of all the performance test cases, it is created on 
+	 * first use and shut down with the context
+	 */
+	public synchronized ExecutorService getPerformanceCompletionPool() {
+		if(performanceCompletionPool==null || performanceCompletionPool.isShutdown()) {
+			performanceCompletionPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()*2, 
+					new ThreadFactory() {
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "gatf-perf-completion");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return performanceCompletionPool;
+	}
+	
 	public void shutdown() {
+		synchronized (this) {
+			if(performanceCompletionPool!=null) {
+				performanceCompletionPool.shutdown();
+				performanceCompletionPool = null;
+			}
+		}
+		
 		for (GatfTestDataSourceHook dataSourceHook : dataSourceHooksMap.values()) {
 			TestDataSource dataSource = dataSourceMap.get(dataSourceHook.getDataSourceName());
 			
@@ -620,11 +658,14 @@ public class AcceptanceTestContext {
 			}
 		}
 		
-		for (GatfTestDataSourceHook dataSourceHook : dataSourceHooksMap.values()) {
-			TestDataSource dataSource = dataSourceMap.get(dataSourceHook.getDataSourceName());
-			
-			Assert.assertNotNull("No DataSource found", dataSource);
-			
+		for (TestDataSource dataSource : dataSourceMap.values()) {
+			logger.info(String.format("DataSource %s pool [active=%d, idle=%d, waiting=%d, checkoutTimeouts=%d]", 
+					dataSource.getDataSourceName(), dataSource.getActiveCount(), dataSource.getIdleCount(), 
+					dataSource.getWaitingCount(), dataSource.getCheckoutTimeouts()));
+			dataSource.destroy();
+		}
+		
+		for (TestDataSource dataSource : dataSourceMapForProfiling.values()) {
 			dataSource.destroy();
 		}
 	}
@@ -689,6 +730,8 @@ public class AcceptanceTestContext {
 			{
 				testDataSource.setPoolSize(dataSource.getPoolSize());
 			}
+			testDataSource.setNewResourceCheckoutTimeMs(dataSource.getNewResourceCheckoutTimeMs());
+			testDataSource.setMaxIdleTimeMs(dataSource.getMaxIdleTimeMs());
 			
 			if(forProfiling)
 			{
@@ -824,10 +867,17 @@ public class AcceptanceTestContext {
 			if(provider.isLive()) {
 				liveProviders.put(provider.getProviderName(), provider);
 				logger.info("Provider " + provider.getProviderName() + " is a Live one...");
+				if(provider.isLiveCacheEnabled()) {
+					int maxSize = provider.getLiveCacheMaxSize()!=null && provider.getLiveCacheMaxSize()>0?
+							provider.getLiveCacheMaxSize():100;
+					liveProviderCaches.put(provider.getProviderName(), new LiveProviderCache(provider.getLiveCacheTtlMs(), maxSize));
+					logger.info("Provider " + provider.getProviderName() + " results will be cached for " 
+							+ provider.getLiveCacheTtlMs() + "ms...");
+				}
 				continue;
 			}
 			
-			List<Map<String, String>> testData = getProviderData(provider, null);
+			List<Map<String, String>> testData = toProviderTable(getProviderData(provider, null));
 			if(gatfExecutorConfig.isSeleniumExecutor() && gatfExecutorConfig.getConcurrentUserSimulationNum()>1) {
 			    for (int i = 0; i < gatfExecutorConfig.getConcurrentUserSimulationNum(); i++)
                 {
@@ -841,7 +891,7 @@ public class AcceptanceTestContext {
 	                    tp.getArgs()[0] = tp.getArgs()[0] + i;
 	                    try {
 	                        logger.info("Concurrent simulation scenario #"+(i+1)+" fetching provider with filePath "+tp.getArgs()[0]);
-	                        List<Map<String, String>> testDataT = getProviderData(tp, null);
+	                        List<Map<String, String>> testDataT = toProviderTable(getProviderData(tp, null));
 	                        if(testDataT==null) {
 	                            testDataT = testData;
 	                        }
@@ -860,6 +910,17 @@ public class AcceptanceTestContext {
 		}
 	}
 	
+	/**
+	 * Static provider data is held for the whole run, so it is stored in a columnar form
+	 */
+	private List<Map<String, String>> toProviderTable(List<Map<String, String>> testData)
+	{
+		if(testData==null || testData instanceof ProviderTable || testData instanceof StreamingProviderData) {
+			return testData;
+		}
+		return new ProviderTable(testData);
+	}
+	
 	public List<Map<String, String>> getLiveProviderData(String provName, TestCase testCase)
 	{
 		GatfTestDataProvider provider = liveProviders.get(provName);
@@ -879,13 +940,19 @@ public class AcceptanceTestContext {
 		}
 	}
 	
+	/**
+	 * @return the result caches of the live providers which have caching enabled, keyed by provider name
+	 */
+	public Map<String, LiveProviderCache> getLiveProviderCaches() {
+		return liveProviderCaches;
+	}
+	
 	@SuppressWarnings("rawtypes")
 	private List<Map<String, String>> getProviderData(GatfTestDataProvider provider, TestCase testCase) {
 		
 		TestDataSource dataSource = dataSourceMap.get(provider.getDataSourceName());
 		
 		TestDataProvider testDataProvider = null;
-		List<Map<String, String>> testData = null;
 		if(provider.getProviderClass()!=null) {
 			if(FileTestDataProvider.class.getCanonicalName().equals(provider.getProviderClass().trim())) {
 				testDataProvider = new FileTestDataProvider();
@@ -931,8 +998,21 @@ public class AcceptanceTestContext {
 			}
 		}
 		
-		testData = testDataProvider.provide(provider, this);
-		return testData;
+		final LiveProviderCache cache = liveProviderCaches.get(provider.getProviderName());
+		if(provider.isLive() && cache!=null)
+		{
+			final TestDataProvider cachedProvider = testDataProvider;
+			final GatfTestDataProvider renderedProvider = provider;
+			String key = provider.getQueryStr()!=null?provider.getQueryStr():"";
+			return cache.get(key, new Callable<List<Map<String, String>>>() {
+				public List<Map<String, String>> call() throws Exception {
+					List<Map<String, String>> testData = cachedProvider.provide(renderedProvider, AcceptanceTestContext.this);
+					return testData!=null?Collections.unmodifiableList(testData):null;
+				}
+			});
+		}
+		
+		return testDataProvider.provide(provider, this);
 	}
 
 	public DistributedAcceptanceContext getDistributedContext(String node)
@@ -108,6 +108,16 @@ public class GatfExecutorConfig implements Serializable, GatfPluginConfig {
 	
 	private Integer loadTestingReportSamples;
 	
+	private Integer loadTestingArrivalRate;
+	
+	private String loadTestingRampProfile;
+	
+	private boolean loadTestingStreamingReports;
+	
+	private Float loadTestingReportSamplingRate;
+	
+	private String userSimulationEngine;
+	
 	private boolean debugEnabled;
 	
 	private String[] ignoreFiles;
@@ -116,6 +126,8 @@ public class GatfExecutorConfig implements Serializable, GatfPluginConfig {
 	
 	private boolean isOrderByFileName;
 	
+	private boolean testCaseCacheEnabled;
+	
 	private boolean isServerLogsApiAuthEnabled;
 	
 	private String serverLogsApiAuthExtractAuth;
@@ -466,6 +478,18 @@ public class GatfExecutorConfig implements Serializable, GatfPluginConfig {
 		this.isOrderByFileName = isOrderByFileName;
 	}
 
+	/**
+	 * @return whether the parsed and validated test cases are cached on disk, unchanged test case 
+	 * files are then loaded from the cache instead of being parsed and validated again
+	 */
+	public boolean isTestCaseCacheEnabled() {
+		return testCaseCacheEnabled;
+	}
+
+	public void setTestCaseCacheEnabled(boolean testCaseCacheEnabled) {
+		this.testCaseCacheEnabled = testCaseCacheEnabled;
+	}
+
 	public boolean isServerLogsApiAuthEnabled() {
 		return isServerLogsApiAuthEnabled;
 	}
@@ -560,7 +584,72 @@ public class GatfExecutorConfig implements Serializable, GatfPluginConfig {
         this.javaHome = javaHome;
     }
 
-    public void validate()
+    /**
+     * @return the target number of requests per second for the open model (constant arrival rate) load test,
+     * when greater than zero the requests are issued on a fixed timetable instead of by concurrent users
+     */
+    public Integer getLoadTestingArrivalRate() {
+		return loadTestingArrivalRate;
+	}
+
+	public void setLoadTestingArrivalRate(Integer loadTestingArrivalRate) {
+		this.loadTestingArrivalRate = loadTestingArrivalRate;
+	}
+
+	/**
+	 * @return the ramp profile for the arrival rate, one of (constant,linear), the linear profile ramps 
+	 * the arrival rate up to the target over the concurrentUserRampUpTime
+	 */
+	public String getLoadTestingRampProfile() {
+		return loadTestingRampProfile;
+	}
+
+	public void setLoadTestingRampProfile(String loadTestingRampProfile) {
+		this.loadTestingRampProfile = loadTestingRampProfile;
+	}
+
+	/**
+	 * @return whether the intermediate load test runs only keep aggregates (counts, error buckets, latency 
+	 * histograms) instead of the full test case reports
+	 */
+	public boolean isLoadTestingStreamingReports() {
+		return loadTestingStreamingReports;
+	}
+
+	public void setLoadTestingStreamingReports(boolean loadTestingStreamingReports) {
+		this.loadTestingStreamingReports = loadTestingStreamingReports;
+	}
+
+	/**
+	 * @return the fraction (0 to 1) of successful reports to retain in the streaming mode, failed reports 
+	 * are always retained
+	 */
+	public Float getLoadTestingReportSamplingRate() {
+		return loadTestingReportSamplingRate;
+	}
+
+	public void setLoadTestingReportSamplingRate(Float loadTestingReportSamplingRate) {
+		this.loadTestingReportSamplingRate = loadTestingReportSamplingRate;
+	}
+
+	/**
+	 * @return the engine which runs the concurrent users, one of (threaded,lightweight), the threaded engine 
+	 * runs every user on its own thread (at most 100 at a time), the lightweight engine runs all users on a 
+	 * few carrier threads and suspends a user while its request is in flight
+	 */
+	public String getUserSimulationEngine() {
+		return userSimulationEngine;
+	}
+
+	public void setUserSimulationEngine(String userSimulationEngine) {
+		this.userSimulationEngine = userSimulationEngine;
+	}
+
+	public boolean isArrivalRateLoadTest() {
+		return loadTestingEnabled && loadTestingArrivalRate!=null && loadTestingArrivalRate>0;
+	}
+
+	public void validate()
 	{
 		Assert.assertTrue("Testcase directory name is blank...", 
 				getTestCaseDir()!=null && !getTestCaseDir().trim().isEmpty());
@@ -606,5 +695,11 @@ public class GatfExecutorConfig implements Serializable, GatfPluginConfig {
 			Assert.assertTrue("Invalid auth soap name", !getSoapAuthExtractAuthParams()[2].isEmpty());
 			Assert.assertTrue("Invalid auth soap name", getSoapAuthExtractAuthParams()[2].equalsIgnoreCase("queryparam"));
 		}
+		
+		if(isArrivalRateLoadTest() && getLoadTestingRampProfile()!=null) {
+			Assert.assertTrue("Invalid load testing ramp profile specified, should be one of (constant,linear)", 
+					getLoadTestingRampProfile().equalsIgnoreCase("constant") ||
+					getLoadTestingRampProfile().equalsIgnoreCase("linear"));
+		}
 	}
 }
@@ -54,22 +54,26 @@ import com.gatf.executor.dataprovider.GatfTestDataConfig;
 import com.gatf.executor.dataprovider.GatfTestDataProvider;
 import com.gatf.executor.dataprovider.GatfTestDataSource;
 import com.gatf.executor.dataprovider.GatfTestDataSourceHook;
+import com.gatf.executor.dataprovider.LiveProviderCache;
 import com.gatf.executor.distributed.DistributedAcceptanceContext;
 import com.gatf.executor.distributed.DistributedGatfTester;
 import com.gatf.executor.distributed.DistributedGatfTester.DistributedConnection;
+import com.gatf.executor.distributed.DistributedStatsPublisher;
 import com.gatf.executor.distributed.DistributedTestContext;
 import com.gatf.executor.distributed.DistributedTestStatus;
+import com.gatf.executor.executor.ArrivalRateLoadExecutor;
+import com.gatf.executor.executor.LightweightUserEngine;
 import com.gatf.executor.executor.TestCaseExecutorUtil;
 import com.gatf.executor.finder.CSVFamilyTestCaseFinder.CSVTestCaseFinder;
 import com.gatf.executor.finder.CSVFamilyTestCaseFinder.XLSTestCaseFinder;
 import com.gatf.executor.finder.CSVFamilyTestCaseFinder.XLSXTestCaseFinder;
 import com.gatf.executor.finder.JSONTestCaseFinder;
+import com.gatf.executor.finder.TestCaseCache;
 import com.gatf.executor.finder.TestCaseFinder;
 import com.gatf.executor.finder.XMLTestCaseFinder;
 import com.gatf.executor.report.LoadTestResource;
 import com.gatf.executor.report.ReportHandler;
 import com.gatf.executor.report.RuntimeReportUtil;
-import com.gatf.executor.report.RuntimeReportUtil.LoadTestEntry;
 import com.gatf.executor.report.TestCaseExecutionLogGenerator;
 import com.gatf.executor.report.TestCaseReport;
 import com.gatf.executor.report.TestCaseReport.TestFailureReason;
@@ -82,6 +86,8 @@ import com.gatf.selenium.SeleniumDriverConfig;
 import com.gatf.selenium.SeleniumTest;
 import com.gatf.selenium.SeleniumTest.SeleniumResult;
 import com.gatf.selenium.SeleniumTest.SeleniumTestResult;
+import com.gatf.selenium.plugins.PluginHttpClient;
+import com.ning.http.client.ListenableFuture;
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.io.xml.DomDriver;
 
@@ -196,9 +202,27 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 	@Parameter(alias = "loadTestingReportSamples", defaultValue = "3")
 	private Integer loadTestingReportSamples;
 	
+	@Parameter(alias = "loadTestingArrivalRate", defaultValue = "0")
+	private Integer loadTestingArrivalRate;
+	
+	@Parameter(alias = "loadTestingRampProfile", defaultValue = "constant")
+	private String loadTestingRampProfile;
+	
+	@Parameter(alias = "loadTestingStreamingReports", defaultValue = "false")
+	private boolean loadTestingStreamingReports;
+	
+	@Parameter(alias = "loadTestingReportSamplingRate", defaultValue = "0")
+	private Float loadTestingReportSamplingRate;
+	
+	@Parameter(alias = "userSimulationEngine", defaultValue = "threaded")
+	private String userSimulationEngine;
+	
 	@Parameter(alias = "debugEnabled", defaultValue = "false")
 	private boolean debugEnabled;
 	
+	@Parameter(alias = "testCaseCacheEnabled", defaultValue = "false")
+	private boolean testCaseCacheEnabled;
+	
 	@Parameter(alias = "distributedLoadTests", defaultValue = "false")
 	private boolean distributedLoadTests;
 	
@@ -255,6 +279,8 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 	
 	private TestCase authTestCase;
 	
+	private TestCaseCache testCaseCache;
+	
 	public void setProject(MavenProject project) {
 		this.project = project;
 	}
@@ -375,6 +401,30 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 		this.loadTestingReportSamples = loadTestingReportSamples;
 	}
 
+	public void setLoadTestingArrivalRate(Integer loadTestingArrivalRate) {
+		this.loadTestingArrivalRate = loadTestingArrivalRate;
+	}
+
+	public void setLoadTestingRampProfile(String loadTestingRampProfile) {
+		this.loadTestingRampProfile = loadTestingRampProfile;
+	}
+
+	public void setLoadTestingStreamingReports(boolean loadTestingStreamingReports) {
+		this.loadTestingStreamingReports = loadTestingStreamingReports;
+	}
+
+	public void setLoadTestingReportSamplingRate(Float loadTestingReportSamplingRate) {
+		this.loadTestingReportSamplingRate = loadTestingReportSamplingRate;
+	}
+
+	public void setUserSimulationEngine(String userSimulationEngine) {
+		this.userSimulationEngine = userSimulationEngine;
+	}
+
+	public void setTestCaseCacheEnabled(boolean testCaseCacheEnabled) {
+		this.testCaseCacheEnabled = testCaseCacheEnabled;
+	}
+
 	public void setStartTime(Long startTime) {
 		this.startTime = startTime;
 	}
@@ -430,24 +480,36 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 		List<TestCase> allTestCases = new ArrayList<TestCase>();
 		File testCaseDirectory = context.getResourceFile(context.getGatfExecutorConfig().getTestCaseDir());
 		
+		testCaseCache = null;
+		if(context.getGatfExecutorConfig().isTestCaseCacheEnabled())
+		{
+			testCaseCache = TestCaseCache.load(getTestCaseCacheFile(context.getGatfExecutorConfig()), 
+					testCaseDirectory, getTestCaseCacheFingerprint(context));
+		}
+		
 		TestCaseFinder finder = new XMLTestCaseFinder();
 		finder.setTargetFileNames(targetFileNames);
+		finder.setTestCaseCache(testCaseCache);
 		allTestCases.addAll(finder.findTestCases(testCaseDirectory, context, true, relativeFileNames));
 		
 		finder = new JSONTestCaseFinder();
 		finder.setTargetFileNames(targetFileNames);
+		finder.setTestCaseCache(testCaseCache);
 		allTestCases.addAll(finder.findTestCases(testCaseDirectory, context, true, relativeFileNames));
 		
 		finder = new CSVTestCaseFinder();
 		finder.setTargetFileNames(targetFileNames);
+		finder.setTestCaseCache(testCaseCache);
 		allTestCases.addAll(finder.findTestCases(testCaseDirectory, context, true, relativeFileNames));
 		
 		finder = new XLSTestCaseFinder();
 		finder.setTargetFileNames(targetFileNames);
+		finder.setTestCaseCache(testCaseCache);
 		allTestCases.addAll(finder.findTestCases(testCaseDirectory, context, true, relativeFileNames));
 		
 		finder = new XLSXTestCaseFinder();
 		finder.setTargetFileNames(targetFileNames);
+		finder.setTestCaseCache(testCaseCache);
 		allTestCases.addAll(finder.findTestCases(testCaseDirectory, context, true, relativeFileNames));
 		
 		sortAndOrderTestCases(allTestCases, context.getGatfExecutorConfig());
@@ -455,6 +517,55 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 		return allTestCases;
 	}
 	
+	//The out directory is cleaned up on every run, so the cache file lives right beside it
+	private File getTestCaseCacheFile(GatfExecutorConfig config)
+	{
+		File basePath = null;
+		if(config.getOutFilesBasePath()!=null)
+			basePath = new File(config.getOutFilesBasePath());
+		else
+		{
+			URL url = Thread.currentThread().getContextClassLoader().getResource(".");
+			basePath = new File(url.getPath());
+		}
+		String outDir = config.getOutFilesDir()!=null?config.getOutFilesDir():"out";
+		File resource = new File(basePath, outDir);
+		return new File(resource.getParentFile(), resource.getName() + ".testcases.cache");
+	}
+	
+	//Validation depends on the base url and the default headers, the cache is invalid when either of them changes
+	private String getTestCaseCacheFingerprint(AcceptanceTestContext context)
+	{
+		Package pkg = TestCase.class.getPackage();
+		return context.getGatfExecutorConfig().getBaseUrl() + "|" + context.getHttpHeaders() + "|" 
+				+ (pkg!=null?pkg.getImplementationVersion():null);
+	}
+	
+	//Caches the test cases of all the files whose test cases were validated completely
+	private void saveTestCaseCache(List<TestCase> foundTestCases)
+	{
+		if(testCaseCache==null)
+			return;
+		
+		Map<String, List<TestCase>> fileTestCases = new LinkedHashMap<String, List<TestCase>>();
+		Set<String> incomplete = new HashSet<String>();
+		for (TestCase testCase : foundTestCases) {
+			if(testCase.getSourcefileName()==null)
+				continue;
+			if(!testCase.isValidated())
+				incomplete.add(testCase.getSourcefileName());
+			if(!fileTestCases.containsKey(testCase.getSourcefileName()))
+				fileTestCases.put(testCase.getSourcefileName(), new ArrayList<TestCase>());
+			fileTestCases.get(testCase.getSourcefileName()).add(testCase);
+		}
+		for (Map.Entry<String, List<TestCase>> entry : fileTestCases.entrySet()) {
+			if(!incomplete.contains(entry.getKey()))
+				testCaseCache.put(entry.getKey(), entry.getValue());
+		}
+		testCaseCache.save();
+		getLog().info("Testcase cache hits = " + testCaseCache.getHits() + ", misses = " + testCaseCache.getMisses());
+	}
+	
 	public List<TestCase> copyTestCases(List<TestCase> testCases, Integer runNumber, String baseUrl)
 	{
 		List<TestCase> allTestCases = new ArrayList<TestCase>();
@@ -499,7 +610,13 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 		configuration.setLoadTestingTime(loadTestingTime);
 		configuration.setConcurrentUserRampUpTime(concurrentUserRampUpTime);
 		configuration.setLoadTestingReportSamples(loadTestingReportSamples);
+		configuration.setLoadTestingArrivalRate(loadTestingArrivalRate);
+		configuration.setLoadTestingRampProfile(loadTestingRampProfile);
+		configuration.setLoadTestingStreamingReports(loadTestingStreamingReports);
+		configuration.setLoadTestingReportSamplingRate(loadTestingReportSamplingRate);
+		configuration.setUserSimulationEngine(userSimulationEngine);
 		configuration.setDebugEnabled(debugEnabled);
+		configuration.setTestCaseCacheEnabled(testCaseCacheEnabled);
 		configuration.setGatfTestDataConfig(gatfTestDataConfig);
 		configuration.setTestCaseHooksPaths(testCaseHooksPath);
 		configuration.setDistributedLoadTests(distributedLoadTests);
@@ -580,6 +697,18 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 					if(configuration.getConcurrentUserRampUpTime()==null)
 						configuration.setConcurrentUserRampUpTime(concurrentUserRampUpTime);
 					
+					if(configuration.getLoadTestingArrivalRate()==null)
+						configuration.setLoadTestingArrivalRate(loadTestingArrivalRate);
+					
+					if(configuration.getLoadTestingRampProfile()==null)
+						configuration.setLoadTestingRampProfile(loadTestingRampProfile);
+					
+					if(configuration.getLoadTestingReportSamplingRate()==null)
+						configuration.setLoadTestingReportSamplingRate(loadTestingReportSamplingRate);
+					
+					if(configuration.getUserSimulationEngine()==null)
+						configuration.setUserSimulationEngine(userSimulationEngine);
+					
 					if(configuration.isEnabled()==null)
 						configuration.setEnabled(true);
 					
@@ -606,6 +735,8 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 	    
 	    distributedGatfTester = new DistributedGatfTester();
 	    
+	    PluginHttpClient.acquire();
+	    
         for (SeleniumDriverConfig selConf : configuration.getSeleniumDriverConfigs())
         {
             if(selConf!=null && selConf.getDriverName()!=null) {
@@ -787,6 +918,7 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
         
         ReportHandler.doSeleniumSummaryTestReport(summLstMap, context); 
         
+        PluginHttpClient.release();
         context.shutdown();
         return summLstMap;
 	}
@@ -919,6 +1051,7 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 		
 		Set<String> relativeFileNames = new HashSet<String>();
 		List<TestCase> allTestCases = getAllTestCases(context, relativeFileNames, files);
+		List<TestCase> foundTestCases = allTestCases;
 		
 		List<TestCase> tempTestCases = new ArrayList<TestCase>(allTestCases);
 		Map<String, Set<String>> relTsts = new HashMap<String, Set<String>>();
@@ -976,6 +1109,7 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 			loadTestingReportSamplesNum = 3;
 		
 		validateTestCases(allTestCases, testCaseExecutorUtil);
+		saveTestCaseCache(foundTestCases);
 		
 		List<FutureTask<DistributedTestStatus>> distTasks = null;
 		long reportSampleTimeMs = 0;
@@ -1012,7 +1146,8 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 						DistributedConnection conn = distConnections.get(i);
 						if(conn!=null) {
 							FutureTask<DistributedTestStatus> task = distributedGatfTester
-									.distributeTests(allTestCases, conn, true, i+1, dnumruns, context, relativeFileNames);
+									.distributeTests(allTestCases, conn, true, i+1, dnumruns, context, relativeFileNames, 
+											reportSampleTimeMs);
 							if(task!=null) {
 								distTasks.add(task);
 							}
@@ -1050,8 +1185,16 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 			context.getWorkflowContextHandler().initializeSuiteContext(numberOfRuns);
 		}
 		
+		ArrivalRateLoadExecutor arrivalRateExecutor = null;
+		if(isLoadTestingEnabled && configuration.isArrivalRateLoadTest())
+		{
+			arrivalRateExecutor = createArrivalRateExecutor(allTestCases, relativeFileNames, 
+					testCaseExecutorUtil, numberOfRuns);
+		}
+		
 		ExecutorService threadPool = null;
-		if(numberOfRuns>1) {
+		LightweightUserEngine userEngine = arrivalRateExecutor==null?createUserEngine(numberOfRuns):null;
+		if(numberOfRuns>1 && userEngine==null && arrivalRateExecutor==null) {
 			int threadNum = 100;
 			if(numberOfRuns<100)
 				threadNum = numberOfRuns;
@@ -1059,7 +1202,7 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 			threadPool = Executors.newFixedThreadPool(threadNum);
 		}
 		
-		ExecutorService reportingThreadPool = Executors.newFixedThreadPool(30);
+		ExecutorService reportingThreadPool = Executors.newFixedThreadPool(getReportingThreadCount());
 		
 		startTime = System.currentTimeMillis();
 		
@@ -1113,7 +1256,7 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 						dorep = true;
 					}
 				}
-				if(done) {
+				if(done || (arrivalRateExecutor!=null && arrivalRateExecutor.isFinished())) {
 					break;
 				}
 			} else {
@@ -1121,11 +1264,45 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 				done = true;
 			}
 			
-			if(numberOfRuns>1)
+			if(isLoadTestingEnabled && !dorep && configuration.isLoadTestingStreamingReports()) {
+				reportHandler.enableStreamingAggregates(configuration.getLoadTestingReportSamplingRate());
+			}
+			
+			if(arrivalRateExecutor!=null)
+			{
+				//The timetable keeps running on its own thread, the window only decides which report handler 
+				//the completed requests land in
+				long currentTime = System.currentTimeMillis();
+				String fileurl = currentTime+".html";
+				arrivalRateExecutor.setUserSteps(newUserSteps(testCaseExecutorUtil, false, dorep, reportHandler));
+				if(!arrivalRateExecutor.isStarted()) {
+					arrivalRateExecutor.start(allTestCases);
+				}
+				arrivalRateExecutor.awaitOffset((currentTime - startTime) + reportSampleTimeMs);
+				if(arrivalRateExecutor.isFinished()) {
+					arrivalRateExecutor.awaitCompletion();
+				}
+				
+				if(numberOfRuns>1) {
+					doAsyncConcReporting(false, reportHandler, suiteStartTime, fileurl, true, testPercentiles, 
+							runPercentiles, dorep, loadTestRunNum, loadTestResources, numberOfRuns, loadStats, 
+							reportingThreadPool, numberOfRuns, (System.currentTimeMillis() - suiteStartTime));
+				} else {
+					doAsyncReporting(false, reportHandler, suiteStartTime, fileurl, true, testPercentiles, 
+							runPercentiles, dorep, loadTestRunNum, loadTestResources, numberOfRuns, loadStats, 
+							reportingThreadPool, (System.currentTimeMillis() - suiteStartTime));
+				}
+				
+				if(dorep) {
+					loadTestRunNum ++;
+					loadTstReportsCount ++;
+				}
+			}
+			else if(numberOfRuns>1)
 			{
 				List<Future> userSimulations = doConcurrentRunExecution(compareEnabledOnlySingleTestCaseExec, 
 						numberOfRuns, allTestCases, baseUrlList, testCaseExecutorUtil, concurrentUserRampUpTimeMs,
-						threadPool, dorep, reportHandler);
+						threadPool, userEngine, dorep, reportHandler);
 				
 				concurrentUserRampUpTimeMs = 0;
 
@@ -1167,7 +1344,8 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 				}
 			}
 			
-			if(isLoadTestingEnabled) {
+			//The open model requests run in their own contexts seeded from the primed context, which is kept
+			if(isLoadTestingEnabled && arrivalRateExecutor==null) {
 				if(distTasks!=null && distTasks.size()>0) {
 					initSuiteContextForDistributedTests(context, numberOfRuns);
 				} else {
@@ -1188,9 +1366,18 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 			}
 		}
 		
-		if(numberOfRuns>1) {
+		if(threadPool!=null) {
 			threadPool.shutdown();
 		}
+		if(userEngine!=null) {
+			userEngine.shutdown();
+		}
+		if(arrivalRateExecutor!=null) {
+			arrivalRateExecutor.shutdown();
+			getLog().info("Issued requests = " + arrivalRateExecutor.getIssuedCount() + ", completed = " 
+					+ arrivalRateExecutor.getCompletedCount() + ", max schedule lag = " 
+					+ arrivalRateExecutor.getMaxScheduleLagMicros() + "us");
+		}
 		
 		loadStats.setTotalUserSuiteRuns(numberOfRuns);
 		
@@ -1223,6 +1410,8 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 						getLog().info(stats.getSuiteStats().show());
 						nodes.add(stats.getNode());
 						nodesurls.add(stats.getIdentifier() + "-index.html");
+						ReportHandler.doFinalLoadTestReport(stats.getIdentifier() + "-", stats.getSuiteStats(), context, 
+								null, null, new ArrayList<LoadTestResource>());
 						finalDistStats.updateStats(stats.getSuiteStats(), false);
 						
 						testPercentiles.mergePercentileTimes(stats.getTestPercentileTimes());
@@ -1233,12 +1422,24 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 				}
 			}
 			
+			for (DistributedConnection conn : distConnections) {
+				distributedGatfTester.closeConnection(conn);
+			}
+			
 			ReportHandler.doFinalLoadTestReport(null, finalDistStats, context, nodes, nodesurls, loadTestResources);
 			loadStats = finalDistStats;
 		}
 		
 		ReportHandler.doTAReporting(null, context, isLoadTestingEnabled, testPercentiles, runPercentiles);
 		
+		getLog().info("Template cache hits = " + context.getWorkflowContextHandler().getTemplateCacheHits() 
+				+ ", misses = " + context.getWorkflowContextHandler().getTemplateCacheMisses());
+		
+		for (Map.Entry<String, LiveProviderCache> entry : context.getLiveProviderCaches().entrySet()) {
+			getLog().info("Live provider " + entry.getKey() + " cache hits = " + entry.getValue().getHits() 
+					+ ", misses = " + entry.getValue().getMisses());
+		}
+		
 		if(loadStats!=null) {
 			getLog().info(loadStats.show());
 			if(loadStats.getFailedTestCount()>0) {
@@ -1249,6 +1450,40 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 		testCaseExecutorUtil.shutdown();
 	}
 	
+	/**
+	 * Open model load test, the suite is run once to initialize the workflow context (auth tokens, 
+	 * extracted variables) and then the test cases are issued in a round robin manner at the configured 
+	 * arrival rate for the load testing time, when the simulated users are split across distributed nodes 
+	 * every node issues its share of the arrival rate
+	 */
+	private ArrivalRateLoadExecutor createArrivalRateExecutor(List<TestCase> allTestCases, Set<String> relativeFileNames,
+			TestCaseExecutorUtil testCaseExecutorUtil, int numberOfRuns)
+	{
+		GatfExecutorConfig configuration = context.getGatfExecutorConfig();
+		
+		int arrivalRate = configuration.getLoadTestingArrivalRate();
+		int totalUsers = configuration.getConcurrentUserSimulationNum()!=null?configuration.getConcurrentUserSimulationNum():1;
+		if(totalUsers>1 && numberOfRuns<totalUsers) {
+			arrivalRate = Math.max(1, Math.round((float)arrivalRate*numberOfRuns/totalUsers));
+		}
+		
+		long rampUpTime = configuration.getConcurrentUserRampUpTime()!=null?configuration.getConcurrentUserRampUpTime():0;
+		ArrivalRateLoadExecutor executor = new ArrivalRateLoadExecutor(testCaseExecutorUtil, arrivalRate, 
+				configuration.getLoadTestingTime(), rampUpTime, configuration.getLoadTestingRampProfile(), numberOfRuns);
+		
+		context.getWorkflowContextHandler().initializeSuiteContext(numberOfRuns + executor.getContextSlots());
+		
+		ReportHandler primingReportHandler = new ReportHandler(null, null);
+		for (String relativeFileName : relativeFileNames) {
+			primingReportHandler.initializeResultsHolders(1, relativeFileName);
+		}
+		executeTestCases(copyTestCases(allTestCases, 0, null), testCaseExecutorUtil, false, false, false, primingReportHandler);
+		
+		getLog().info("Starting open model load test at " + arrivalRate + " requests/sec for " 
+				+ configuration.getLoadTestingTime() + "ms");
+		return executor;
+	}
+	
 	private void doAsyncConcReporting(final boolean compareEnabledOnlySingleTestCaseExec, final ReportHandler reportHandler, 
 			final long suiteStartTime,final String fileurl, final boolean isLoadTestingEnabled, 
 			final TestExecutionPercentile testPercentiles, final TestExecutionPercentile runPercentiles, 
@@ -1376,11 +1611,16 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 	private void validateTestCases(List<TestCase> allTestCases, TestCaseExecutorUtil testCaseExecutorUtil) {
 		for (TestCase testCase : allTestCases) {
 			try {
-				testCase.validate(testCaseExecutorUtil.getContext().getHttpHeaders(), 
-						testCaseExecutorUtil.getContext().getGatfExecutorConfig().getBaseUrl());
+				if(!testCase.isValidated()) {
+					testCase.validate(testCaseExecutorUtil.getContext().getHttpHeaders(), 
+							testCaseExecutorUtil.getContext().getGatfExecutorConfig().getBaseUrl());
+					testCase.setValidated(true);
+				}
 				if(testCase.getRepeatScenarios()!=null) {
 					testCase.setRepeatScenariosOrig(testCase.getRepeatScenarios());
 				}
+				testCaseExecutorUtil.getContext().getWorkflowContextHandler().compileTemplates(testCase);
+				testCaseExecutorUtil.prepareRequest(testCase);
 			} catch (RuntimeException e) {
 				getLog().error("Got exception while running acceptance test " + testCase.getName()+"/"+testCase.getDescription(), e);
 				throw e;
@@ -1388,10 +1628,85 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 		}
 	}
 
+	//Report generation is cpu bound once the templates are cached, more threads than cores only add contention
+	private static int getReportingThreadCount()
+	{
+		return Math.max(2, Runtime.getRuntime().availableProcessors());
+	}
+	
+	private LightweightUserEngine createUserEngine(int numberOfRuns)
+	{
+		if(numberOfRuns>1 && LightweightUserEngine.isLightweight(context.getGatfExecutorConfig().getUserSimulationEngine()))
+		{
+			int carrierThreads = Math.max(4, Runtime.getRuntime().availableProcessors()*2);
+			getLog().info("Simulating " + numberOfRuns + " users on the lightweight engine with " 
+					+ carrierThreads + " carrier threads");
+			return new LightweightUserEngine(carrierThreads);
+		}
+		return null;
+	}
+	
+	//The steps of a user on the lightweight engine, single requests are awaited without holding a thread, 
+	//performance and scenario test cases use their own executors and run to completion on the carrier thread
+	private LightweightUserEngine.UserSteps newUserSteps(final TestCaseExecutorUtil testCaseExecutorUtil, 
+			final boolean onlySingleTestCaseExec, final boolean dorep, final ReportHandler reportHandler)
+	{
+		return new LightweightUserEngine.UserSteps() {
+			public ListenableFuture<TestCaseReport> begin(TestCase testCase, TestCaseReport testCaseReport) {
+				try {
+					if(!isTestCaseExecutable(testCase, testCaseExecutorUtil, reportHandler))
+					{
+						return null;
+					}
+					
+					List<Map<String, String>> sceanrios = resolveRepeatScenarios(testCase, testCaseExecutorUtil.getContext());
+					boolean isPerfTest = testCase.getNumberOfExecutions()!=null && testCase.getNumberOfExecutions()>1;
+					if(isPerfTest || (sceanrios!=null && !sceanrios.isEmpty()))
+					{
+						complete(testCase, runTestCaseExecutor(testCase, sceanrios, isPerfTest, testCaseExecutorUtil), isPerfTest);
+						return null;
+					}
+					
+					ListenableFuture<TestCaseReport> future = testCaseExecutorUtil.getContext().getSingleTestCaseExecutor()
+							.executeAsync(testCase, testCaseExecutorUtil, testCaseReport);
+					if(future==null)
+					{
+						end(testCase, testCaseReport, null);
+					}
+					return future;
+				} catch (Exception e) {
+					getLog().error(e);
+				} catch (Error e) {
+					getLog().error(e);
+				}
+				return null;
+			}
+			
+			public void end(TestCase testCase, TestCaseReport testCaseReport, ListenableFuture<TestCaseReport> future) {
+				complete(testCase, testCaseExecutorUtil.getContext().getSingleTestCaseExecutor()
+						.getReports(future, testCaseReport), false);
+			}
+			
+			private void complete(TestCase testCase, List<TestCaseReport> reports, boolean isPerfTest) {
+				try {
+					boolean success = handleTestCaseReports(testCase, reports, isPerfTest, testCaseExecutorUtil, 
+							false, reportHandler);
+					handleTestCaseCompletion(success, testCase, testCaseExecutorUtil, onlySingleTestCaseExec, 
+							dorep, false, reportHandler);
+				} catch (Exception e) {
+					getLog().error(e);
+				} catch (Error e) {
+					getLog().error(e);
+				}
+			}
+		};
+	}
+	
 	@SuppressWarnings("rawtypes")
 	private List<Future> doConcurrentRunExecution(boolean compareEnabledOnlySingleTestCaseExec, Integer numberOfRuns,
 			List<TestCase> allTestCases, List<String> baseUrlList, final TestCaseExecutorUtil testCaseExecutorUtil,
-			Long concurrentUserRampUpTimeMs, ExecutorService threadPool, boolean dorep, final ReportHandler reportHandler)
+			Long concurrentUserRampUpTimeMs, ExecutorService threadPool, LightweightUserEngine userEngine, 
+			boolean dorep, final ReportHandler reportHandler)
 	{
 		final boolean onlySingleTestCaseExecl = compareEnabledOnlySingleTestCaseExec;
 		
@@ -1409,15 +1724,23 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 			
 			final List<TestCase> simTestCasesCopy = simTestCases;
 			final boolean doRep = dorep;
-			userSimulations.add(
-					threadPool.submit(new Callable<Void>() {
-						public Void call() throws Exception {
-							executeTestCases(simTestCasesCopy, testCaseExecutorUtil, 
-									onlySingleTestCaseExecl, doRep, false, reportHandler);
-							return null;
-						}
-					})
-			);
+			if(userEngine!=null)
+			{
+				userSimulations.add(userEngine.submit(simTestCasesCopy, 
+						newUserSteps(testCaseExecutorUtil, onlySingleTestCaseExecl, doRep, reportHandler)));
+			}
+			else
+			{
+				userSimulations.add(
+						threadPool.submit(new Callable<Void>() {
+							public Void call() throws Exception {
+								executeTestCases(simTestCasesCopy, testCaseExecutorUtil, 
+										onlySingleTestCaseExecl, doRep, false, reportHandler);
+								return null;
+							}
+						})
+				);
+			}
 
 			try {
 				Thread.sleep(concurrentUserRampUpTimeMs);
@@ -1430,19 +1753,46 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 	private boolean handleTestCaseExecution(TestCase testCase, TestCaseExecutorUtil testCaseExecutorUtil, 
 			boolean onlySingleTestCaseExec, boolean dorep, boolean isFetchFailureLogs, ReportHandler reportHandler) throws Exception
 	{
-		boolean success = true;
-		
 		AcceptanceTestContext context = testCaseExecutorUtil.getContext();
 		
+		List<Map<String, String>> sceanrios = resolveRepeatScenarios(testCase, context);
+		
+		boolean isPerfTest = testCase.getNumberOfExecutions()!=null && testCase.getNumberOfExecutions()>1;
+		List<TestCaseReport> reports = runTestCaseExecutor(testCase, sceanrios, isPerfTest, testCaseExecutorUtil);
+		
+		return handleTestCaseReports(testCase, reports, isPerfTest, testCaseExecutorUtil, isFetchFailureLogs, reportHandler);
+	}
+	
+	private List<TestCaseReport> runTestCaseExecutor(TestCase testCase, List<Map<String, String>> sceanrios, 
+			boolean isPerfTest, TestCaseExecutorUtil testCaseExecutorUtil)
+	{
+		AcceptanceTestContext context = testCaseExecutorUtil.getContext();
+		if(isPerfTest)
+		{
+			return context.getPerformanceTestCaseExecutor().execute(testCase, testCaseExecutorUtil);
+		}
+		else if(sceanrios==null || sceanrios.isEmpty())
+		{
+			return context.getSingleTestCaseExecutor().execute(testCase, testCaseExecutorUtil);
+		}
+		else
+		{
+			return context.getScenarioTestCaseExecutor().execute(testCase, testCaseExecutorUtil);
+		}
+	}
+	
+	private List<Map<String, String>> resolveRepeatScenarios(TestCase testCase, AcceptanceTestContext context)
+	{
 		List<Map<String, String>> sceanrios = testCase.getRepeatScenariosOrig();
 		if(testCase.getRepeatScenarioProviderName()!=null) {
 			//actual repeat scenario map
 			List<Map<String, String>> sceanriosp = 
 					context.getProviderTestDataMap().get(testCase.getRepeatScenarioProviderName());
 			if(sceanriosp!=null) {
-				if(sceanrios!=null) {
+				if(sceanrios!=null && !sceanrios.isEmpty()) {
 					sceanrios.addAll(sceanriosp);
 				} else {
+					//the provider rows are shared and can still be loading, scenarios are read from them lazily
 					sceanrios = sceanriosp;
 				}
 			} 
@@ -1463,22 +1813,15 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 			testCase.setRepeatScenarios(null);
 			testCase.setNumberOfExecutions(1);
 		}
+		return sceanrios;
+	}
+	
+	private boolean handleTestCaseReports(TestCase testCase, List<TestCaseReport> reports, boolean isPerfTest, 
+			TestCaseExecutorUtil testCaseExecutorUtil, boolean isFetchFailureLogs, ReportHandler reportHandler)
+	{
+		boolean success = true;
 		
-		List<TestCaseReport> reports = null;
-		boolean isPerfTest = false;
-		if(testCase.getNumberOfExecutions()!=null && testCase.getNumberOfExecutions()>1)
-		{
-			isPerfTest = true;
-			reports = context.getPerformanceTestCaseExecutor().execute(testCase, testCaseExecutorUtil);
-		}
-		else if(sceanrios==null || sceanrios.isEmpty())
-		{
-			reports = context.getSingleTestCaseExecutor().execute(testCase, testCaseExecutorUtil);
-		}
-		else
-		{
-			reports = context.getScenarioTestCaseExecutor().execute(testCase, testCaseExecutorUtil);
-		}
+		AcceptanceTestContext context = testCaseExecutorUtil.getContext();
 		
 		if(reports!=null) {
 			for (int index=0;index<reports.size();index++) {
@@ -1487,6 +1830,9 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 				if(!testCaseReport.getStatus().equals(TestStatus.Success.status)) {
 					success = false;
 					if(testCase.getRepeatScenarios()!=null && !testCase.getRepeatScenarios().isEmpty()) {
+						if(!(testCase.getRepeatScenarios() instanceof ArrayList)) {
+							testCase.setRepeatScenarios(new ArrayList<Map<String,String>>(testCase.getRepeatScenarios()));
+						}
 						testCase.getRepeatScenarios().remove(0);
 					}
 				}
@@ -1581,81 +1927,100 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 		boolean success = false;
 		try {
 			
-			getLog().info("Running acceptance test for " + testCase.getName()+"/"+testCase.getDescription());
-			if(testCase.isSkipTest())
-			{
-				getLog().info("Skipping acceptance test for " + testCase.getName()+"/"+testCase.getDescription());
-				getLog().info("============================================================\n\n\n");
-				addSkippedTestCase(testCase, null, reportHandler);
-				return success;
-			}
-			
-			if(testCase.getExecuteOnCondition()!=null && !testCaseExecutorUtil.getContext().getWorkflowContextHandler()
-					.velocityValidate(testCase, testCase.getExecuteOnCondition(), null, context))
+			if(!isTestCaseExecutable(testCase, testCaseExecutorUtil, reportHandler))
 			{
-				getLog().info("Execute Condition for Testcase " + testCase.getName() + " returned false."
-							+ " Condition was (" + testCase.getExecuteOnCondition() + ")");
-				getLog().info("============================================================\n\n\n");
-				addSkippedTestCase(testCase, testCase.getExecuteOnCondition(), reportHandler);
 				return success;
 			}
 			
-			if(testCaseExecutorUtil.getContext().getGatfExecutorConfig().isDebugEnabled()
-					&& testCase.isDetailedLog())
-			{
-				getLog().info(testCase.toString());
-			}
-			
 			success = handleTestCaseExecution(testCase, testCaseExecutorUtil, onlySingleTestCaseExec, dorep, 
 					isFetchFailureLogs, reportHandler);
 			
-			if(success)
-			{
-				getLog().info("Successfully ran acceptance test " + testCase.getName()+"/"+testCase.getDescription());
-				getLog().info("============================================================\n\n\n");
-				
-				//Execute all the related tests if the test is a success
-				Map<String, List<TestCase>> relTstcs = testCaseExecutorUtil.getContext().getRelatedTestCases();
-				if(testCase.getRelatedTestName()!=null && relTstcs.containsKey(testCase.getRelatedTestName())) {
-					List<TestCase> relatedTests = relTstcs.get(testCase.getRelatedTestName());
-					if(relatedTests!=null && relatedTests.size()>0) {
-						if(testCase.getRepeatScenarios()!=null && testCase.getRepeatScenarios().size()>0) {
-							for (Map<String, String> scenarioMap : testCase.getRepeatScenarios()) {
-								for (TestCase rTc : relatedTests) {
-									TestCase rTcCopy = new TestCase(rTc);
-									rTcCopy.setBaseUrl(testCase.getBaseUrl());
-									rTcCopy.setSimulationNumber(testCase.getSimulationNumber());
-									if(rTcCopy.getCarriedOverVariables()!=null) {
-										rTcCopy.getCarriedOverVariables().putAll(scenarioMap);
-									} else {
-										rTcCopy.setCarriedOverVariables(scenarioMap);
-									}
-									executeSingleTestCase(rTcCopy, testCaseExecutorUtil, onlySingleTestCaseExec, 
-											dorep, isFetchFailureLogs, reportHandler);
-								}
-							}
-						} else {
+			handleTestCaseCompletion(success, testCase, testCaseExecutorUtil, onlySingleTestCaseExec, dorep, 
+					isFetchFailureLogs, reportHandler);
+		} catch (Exception e) {
+			getLog().error(e);
+		} catch (Error e) {
+			getLog().error(e);
+		}
+		return success;
+	}
+	
+	private boolean isTestCaseExecutable(TestCase testCase, TestCaseExecutorUtil testCaseExecutorUtil, 
+			ReportHandler reportHandler) throws Exception
+	{
+		getLog().info("Running acceptance test for " + testCase.getName()+"/"+testCase.getDescription());
+		if(testCase.isSkipTest())
+		{
+			getLog().info("Skipping acceptance test for " + testCase.getName()+"/"+testCase.getDescription());
+			getLog().info("============================================================\n\n\n");
+			addSkippedTestCase(testCase, null, reportHandler);
+			return false;
+		}
+		
+		if(testCase.getExecuteOnCondition()!=null && !testCaseExecutorUtil.getContext().getWorkflowContextHandler()
+				.velocityValidate(testCase, testCase.getExecuteOnCondition(), null, context))
+		{
+			getLog().info("Execute Condition for Testcase " + testCase.getName() + " returned false."
+						+ " Condition was (" + testCase.getExecuteOnCondition() + ")");
+			getLog().info("============================================================\n\n\n");
+			addSkippedTestCase(testCase, testCase.getExecuteOnCondition(), reportHandler);
+			return false;
+		}
+		
+		if(testCaseExecutorUtil.getContext().getGatfExecutorConfig().isDebugEnabled()
+				&& testCase.isDetailedLog())
+		{
+			getLog().info(testCase.toString());
+		}
+		return true;
+	}
+	
+	private void handleTestCaseCompletion(boolean success, TestCase testCase, TestCaseExecutorUtil testCaseExecutorUtil,
+			boolean onlySingleTestCaseExec, boolean dorep, boolean isFetchFailureLogs, ReportHandler reportHandler)
+	{
+		if(success)
+		{
+			getLog().info("Successfully ran acceptance test " + testCase.getName()+"/"+testCase.getDescription());
+			getLog().info("============================================================\n\n\n");
+			
+			//Execute all the related tests if the test is a success
+			Map<String, List<TestCase>> relTstcs = testCaseExecutorUtil.getContext().getRelatedTestCases();
+			if(testCase.getRelatedTestName()!=null && relTstcs.containsKey(testCase.getRelatedTestName())) {
+				List<TestCase> relatedTests = relTstcs.get(testCase.getRelatedTestName());
+				if(relatedTests!=null && relatedTests.size()>0) {
+					if(testCase.getRepeatScenarios()!=null && testCase.getRepeatScenarios().size()>0) {
+						for (Map<String, String> scenarioMap : testCase.getRepeatScenarios()) {
 							for (TestCase rTc : relatedTests) {
-								rTc.setBaseUrl(testCase.getBaseUrl());
-								rTc.setSimulationNumber(testCase.getSimulationNumber());
-								executeSingleTestCase(rTc, testCaseExecutorUtil, onlySingleTestCaseExec, 
+								TestCase rTcCopy = new TestCase(rTc);
+								rTcCopy.setBaseUrl(testCase.getBaseUrl());
+								rTcCopy.setSimulationNumber(testCase.getSimulationNumber());
+								rTcCopy.setWorkflowContextIndex(testCase.getWorkflowContextIndex());
+								if(rTcCopy.getCarriedOverVariables()!=null) {
+									rTcCopy.getCarriedOverVariables().putAll(scenarioMap);
+								} else {
+									rTcCopy.setCarriedOverVariables(new HashMap<String, String>(scenarioMap));
+								}
+								executeSingleTestCase(rTcCopy, testCaseExecutorUtil, onlySingleTestCaseExec, 
 										dorep, isFetchFailureLogs, reportHandler);
 							}
 						}
+					} else {
+						for (TestCase rTc : relatedTests) {
+							rTc.setBaseUrl(testCase.getBaseUrl());
+							rTc.setSimulationNumber(testCase.getSimulationNumber());
+							rTc.setWorkflowContextIndex(testCase.getWorkflowContextIndex());
+							executeSingleTestCase(rTc, testCaseExecutorUtil, onlySingleTestCaseExec, 
+									dorep, isFetchFailureLogs, reportHandler);
+						}
 					}
 				}
 			}
-			else
-			{
-				getLog().info("Failed while acceptance test " + testCase.getName()+"/"+testCase.getDescription());
-				getLog().info("============================================================\n\n\n");
-			}
-		} catch (Exception e) {
-			getLog().error(e);
-		} catch (Error e) {
-			getLog().error(e);
 		}
-		return success;
+		else
+		{
+			getLog().info("Failed while acceptance test " + testCase.getName()+"/"+testCase.getDescription());
+			getLog().info("============================================================\n\n\n");
+		}
 	}
 	
 	private void executeTestCases(List<TestCase> allTestCases, TestCaseExecutorUtil testCaseExecutorUtil,
@@ -1814,8 +2179,13 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 		}
 	}
 	
+	/**
+	 * Run the load tests shared by the controller on this node, no reports are rendered on the node, 
+	 * every completed report is handed to the publisher which streams the stats to the controller
+	 */
 	@SuppressWarnings("rawtypes")
-	public DistributedTestStatus handleDistributedTests(DistributedAcceptanceContext dContext, DistributedTestContext tContext)
+	public DistributedTestStatus handleDistributedTests(DistributedAcceptanceContext dContext, DistributedTestContext tContext,
+			DistributedStatsPublisher publisher)
 	{
 		context = new AcceptanceTestContext(dContext);
 		context.handleTestDataSourcesAndHooks(context.getGatfExecutorConfig().getGatfTestDataConfig());
@@ -1836,33 +2206,14 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 			concurrentUserRampUpTimeMs = configuration.getConcurrentUserRampUpTime()
 											/configuration.getConcurrentUserSimulationNum();
 		
-		int loadTestingReportSamplesNum = configuration.getLoadTestingReportSamples();
-		if(loadTestingReportSamplesNum<3)
-			loadTestingReportSamplesNum = 3;
-		
 		int numberOfRuns = tContext.getNumberOfRuns();
 		
-		int loadTstReportsCount = 0;
-		
 		TestSuiteStats loadStats = new TestSuiteStats();
 		
 		int loadTestRunNum = 1;
 		
-		long reportSampleTimeMs = configuration.getLoadTestingTime()/(loadTestingReportSamplesNum-1);
-		
-		ExecutorService threadPool = null;
-		if(numberOfRuns>1) {
-			int threadNum = 100;
-			if(numberOfRuns<100)
-				threadNum = numberOfRuns;
-			
-			threadPool = Executors.newFixedThreadPool(threadNum);
-		}
-		
 		String runPrefix = "DRun-"+tContext.getIndex();
 		
-		boolean isLoadTestingEnabled = true;
-		
 		for (TestCase tc : tContext.getSimTestCases()) {
 			tc.setIdentifierPrefix(runPrefix);
 		}
@@ -1873,24 +2224,33 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 			}
 		}
 		
-		ExecutorService reportingThreadPool = Executors.newFixedThreadPool(30);
+		ExecutorService reportingThreadPool = Executors.newFixedThreadPool(getReportingThreadCount());
 		
 		initSuiteContextForDistributedTests(context, numberOfRuns);
 		
-		startTime = System.currentTimeMillis();
-		
-		List<LoadTestResource> loadTestResources = new ArrayList<LoadTestResource>();
-		
-		TestExecutionPercentile testPercentiles = new TestExecutionPercentile();
+		ArrivalRateLoadExecutor arrivalRateExecutor = null;
+		if(configuration.isArrivalRateLoadTest())
+		{
+			arrivalRateExecutor = createArrivalRateExecutor(tContext.getSimTestCases(), tContext.getRelativeFileNames(), 
+					testCaseExecutorUtil, numberOfRuns);
+		}
 		
-		TestExecutionPercentile runPercentiles = new TestExecutionPercentile();
+		ExecutorService threadPool = null;
+		LightweightUserEngine userEngine = arrivalRateExecutor==null?createUserEngine(numberOfRuns):null;
+		if(numberOfRuns>1 && userEngine==null && arrivalRateExecutor==null) {
+			int threadNum = 100;
+			if(numberOfRuns<100)
+				threadNum = numberOfRuns;
+			
+			threadPool = Executors.newFixedThreadPool(threadNum);
+		}
 		
-		if(!isLoadTestingEnabled && context.getGatfExecutorConfig().getRepeatSuiteExecutionNum()>1)
-			isLoadTestingEnabled = true;
+		startTime = System.currentTimeMillis();
 		
 		while(tContext.getSimTestCases().size()>0) 
 		{
 			ReportHandler reportHandler = new ReportHandler(dContext.getNode(), runPrefix);
+			reportHandler.setStatsPublisher(publisher);
 			
 			Integer runNums = context.getGatfExecutorConfig().getConcurrentUserSimulationNum();
 			if(context.getGatfExecutorConfig().getCompareBaseUrlsNum()!=null)
@@ -1908,51 +2268,37 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 						new ConcurrentLinkedQueue<TestCaseReport>());
 			}
 			
-			long suiteStartTime = isLoadTestingEnabled?System.currentTimeMillis():startTime;
-			
-			boolean dorep = false;
+			long suiteStartTime = System.currentTimeMillis();
 			
 			boolean done = false;
-			
-			if(isLoadTestingEnabled) {
-				long currentTime = System.currentTimeMillis();
-				
-				if(context.getGatfExecutorConfig().getRepeatSuiteExecutionNum()>1)
-				{
-					done = context.getGatfExecutorConfig().getRepeatSuiteExecutionNum() == loadTestRunNum-1;
-					dorep = true;
-				}
-				else
-				{
-					done = (currentTime - startTime) > configuration.getLoadTestingTime();
-					
-					long elapsedFraction = (currentTime - startTime);
-					
-					dorep = done || loadTstReportsCount==0;
-	
-					if(!dorep && elapsedFraction>=reportSampleTimeMs*loadTstReportsCount) 
-					{
-						dorep = true;
-					}
-				}
-				if(done) {
-					break;
-				}
-			} else {
-				dorep = true;
-				done = true;
+			if(context.getGatfExecutorConfig().getRepeatSuiteExecutionNum()>1)
+			{
+				done = context.getGatfExecutorConfig().getRepeatSuiteExecutionNum() == loadTestRunNum-1;
+			}
+			else
+			{
+				done = (suiteStartTime - startTime) > configuration.getLoadTestingTime();
 			}
+			if(done || (arrivalRateExecutor!=null && arrivalRateExecutor.isFinished())) {
+				break;
+			}
+			
+			reportHandler.enableStreamingAggregates(configuration.getLoadTestingReportSamplingRate());
 			
-			if(numberOfRuns>1)
+			if(arrivalRateExecutor!=null)
+			{
+				arrivalRateExecutor.setUserSteps(newUserSteps(testCaseExecutorUtil, false, false, reportHandler));
+				arrivalRateExecutor.start(tContext.getSimTestCases());
+				arrivalRateExecutor.awaitCompletion();
+			}
+			else if(numberOfRuns>1)
 			{
 				List<Future> userSimulations = doConcurrentRunExecution(false, 
 						numberOfRuns, tContext.getSimTestCases(), null, testCaseExecutorUtil, concurrentUserRampUpTimeMs,
-						threadPool, dorep, reportHandler);
+						threadPool, userEngine, false, reportHandler);
 				
 				concurrentUserRampUpTimeMs = 0;
 				
-				long currentTime = System.currentTimeMillis();
-				String fileurl = "D"+tContext.getIndex()+ "-" + currentTime+".html";
 				for (Future future : userSimulations) {
 					try {
 						future.get();
@@ -1960,41 +2306,31 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 						e.printStackTrace();
 					}
 				}
-				
-				doAsyncDistributedConcReporting(reportHandler, suiteStartTime, fileurl, 
-						testPercentiles, runPercentiles, dorep, loadTestRunNum, loadTestResources, 
-						numberOfRuns, loadStats, reportingThreadPool, userSimulations.size(), runPrefix, dContext,
-						(System.currentTimeMillis() - suiteStartTime));
-				
-				if(dorep) {
-					loadTestRunNum ++;
-					loadTstReportsCount ++;
-				}
 			}
 			else
 			{
-				executeTestCases(tContext.getSimTestCases(), testCaseExecutorUtil, false, dorep, false, reportHandler);
-				
-				doAsyncDistributedReporting(reportHandler, suiteStartTime, testPercentiles, runPercentiles, dorep, 
-						loadTestRunNum, loadTestResources, loadStats, reportingThreadPool, tContext, runPrefix, dContext,
-						(System.currentTimeMillis() - suiteStartTime));
-				
-				if(dorep) {
-					loadTestRunNum ++;
-					loadTstReportsCount ++;
-				}
+				executeTestCases(tContext.getSimTestCases(), testCaseExecutorUtil, false, false, false, reportHandler);
 			}
 			
-			initSuiteContextForDistributedTests(context, numberOfRuns);
+			doAsyncDistributedReporting(reportHandler, suiteStartTime, loadStats, reportingThreadPool,
+					(System.currentTimeMillis() - suiteStartTime));
 			
-			if(done) {
-				break;
+			loadTestRunNum ++;
+			
+			if(arrivalRateExecutor==null) {
+				initSuiteContextForDistributedTests(context, numberOfRuns);
 			}
 		}
 		
-		if(numberOfRuns>1) {
+		if(threadPool!=null) {
 			threadPool.shutdown();
 		}
+		if(userEngine!=null) {
+			userEngine.shutdown();
+		}
+		if(arrivalRateExecutor!=null) {
+			arrivalRateExecutor.shutdown();
+		}
 		
 		reportingThreadPool.shutdown();
 		while(!reportingThreadPool.isTerminated()) {
@@ -2004,20 +2340,12 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
 			}
 		}
 		
-		if(isLoadTestingEnabled) {
-			loadStats.setExecutionTime(System.currentTimeMillis() - startTime);
-			ReportHandler.doFinalLoadTestReport(runPrefix+"-", loadStats, context, null, null, loadTestResources);
-		}
-		
-		if(loadStats!=null) {
-			getLog().info(loadStats.show());
-		}
+		loadStats.setExecutionTime(System.currentTimeMillis() - startTime);
+		getLog().info(loadStats.show());
 		
 		DistributedTestStatus finalStats = new DistributedTestStatus();
 		finalStats.setNode(dContext.getNode());
 		finalStats.setIdentifier(runPrefix);
-		finalStats.setTestPercentileTimes(testPercentiles.getPercentileTimes());
-		finalStats.setRunPercentileTimes(runPercentiles.getPercentileTimes());
 		finalStats.setSuiteStats(loadStats);
 		return finalStats;
 	}
@@ -2131,94 +2459,21 @@ public class GatfTestCaseExecutorMojo extends AbstractMojo implements GatfPlugin
     }
     
 	
-	private void doAsyncDistributedConcReporting(final ReportHandler reportHandler, final long suiteStartTime, 
-			final String fileurl, final TestExecutionPercentile testPercentiles, final TestExecutionPercentile runPercentiles, 
-			final boolean dorep, final Integer loadTestRunNum, final List<LoadTestResource> loadTestResources, 
-			final int numberOfRuns, final TestSuiteStats loadStats, final ExecutorService reportingThreadPool,
-			final int concrunNos, final String runPrefix, final DistributedAcceptanceContext dContext, final long suiteExecTime)
-	{
-		reportingThreadPool.execute(new Runnable() {
-			public void run() {
-				for (int y=0;y<concrunNos;y++) {
-					try {
-						if(dorep) {
-							reportHandler.doConcurrentRunReporting(context, suiteStartTime, fileurl, (y+1), loadTestRunNum==1,
-									testPercentiles, runPercentiles, runPrefix);
-						}
-					} catch (Exception e) {
-						e.printStackTrace();
-					}
-				}
-				
-				if(dorep) {
-					TestSuiteStats stats = reportHandler.doReportingIndex(context, suiteStartTime, fileurl, numberOfRuns, 
-							runPrefix+"-", true);
-					stats.setExecutionTime(suiteExecTime);
-					synchronized (loadStats) {
-						if(loadStats.getExecutionTime()==0) {
-							loadStats.copy(stats);
-						} else {
-							stats.setGroupStats(null);
-							loadStats.updateStats(stats, false);
-						}
-						RuntimeReportUtil.addLEntry(new LoadTestEntry(dContext.getNode(), null, loadTestRunNum, fileurl, stats));
-					}
-					reportHandler.addToLoadTestResources(null, loadTestRunNum, fileurl, loadTestResources);
-					reportHandler.clearForLoadTests(context);
-				} else {
-					TestSuiteStats stats = reportHandler.doLoadTestReporting(context, suiteStartTime, testPercentiles, 
-							runPercentiles);
-					stats.setExecutionTime(suiteExecTime);
-					synchronized (loadStats) {
-						if(loadStats.getExecutionTime()==0) {
-							loadStats.copy(stats);
-						} else {
-							loadStats.updateStats(stats, false);
-						}
-						RuntimeReportUtil.addLEntry(new LoadTestEntry(dContext.getNode(), null, loadTestRunNum, null, stats));
-					}
-				}
-			}
-		});
-	}
-	
 	private void doAsyncDistributedReporting(final ReportHandler reportHandler, final long suiteStartTime,
-			final TestExecutionPercentile testPercentiles, final TestExecutionPercentile runPercentiles, 
-			final boolean dorep, final Integer loadTestRunNum, final List<LoadTestResource> loadTestResources, 
-			final TestSuiteStats loadStats, final ExecutorService reportingThreadPool,
-			final DistributedTestContext tContext, final String runPrefix, final DistributedAcceptanceContext dContext,
-			final long suiteExecTime)
+			final TestSuiteStats loadStats, final ExecutorService reportingThreadPool, final long suiteExecTime)
 	{
 		reportingThreadPool.execute(new Runnable() {
 			public void run() {
-				if(dorep) {
-					long currentTime = System.currentTimeMillis();
-					String fileurl = "D"+tContext.getIndex()+ "-" + currentTime+".html";
-					TestSuiteStats stats = reportHandler.doReporting(context, suiteStartTime, fileurl, runPrefix+"-", true,
-							testPercentiles, runPercentiles);
-					stats.setExecutionTime(suiteExecTime);
-					reportHandler.addToLoadTestResources(null, loadTestRunNum, fileurl, loadTestResources);
-					synchronized (loadStats) {
-						if(loadStats.getExecutionTime()==0) {
-							loadStats.copy(stats);
-						} else {
-							stats.setGroupStats(null);
-							loadStats.updateStats(stats, false);
-						}
-						RuntimeReportUtil.addLEntry(new LoadTestEntry(dContext.getNode(), null, loadTestRunNum, fileurl, stats));
-					}
-					reportHandler.clearForLoadTests(context);
-				} else {
-					TestSuiteStats stats = reportHandler.doLoadTestReporting(context, suiteStartTime, testPercentiles, 
-							runPercentiles);
-					stats.setExecutionTime(suiteExecTime);
-					synchronized (loadStats) {
-						if(loadStats.getExecutionTime()==0) {
-							loadStats.copy(stats);
-						} else {
-							loadStats.updateStats(stats, false);
-						}
-						RuntimeReportUtil.addLEntry(new LoadTestEntry(dContext.getNode(), null, loadTestRunNum, null, stats));
+				TestExecutionPercentile testPercentiles = new TestExecutionPercentile();
+				TestExecutionPercentile runPercentiles = new TestExecutionPercentile();
+				TestSuiteStats stats = reportHandler.doLoadTestReporting(context, suiteStartTime, testPercentiles, 
+						runPercentiles);
+				stats.setExecutionTime(suiteExecTime);
+				synchronized (loadStats) {
+					if(loadStats.getExecutionTime()==0) {
+						loadStats.copy(stats);
+					} else {
+						loadStats.updateStats(stats, false);
 					}
 				}
 			}
@@ -0,0 +1,138 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.core;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author Sumeet Chhetri
+ * A read through view over the global, suite, scenario and carried over variable scopes, the scopes are 
+ * layered in that order with the later scopes taking precedence, lookups never copy a scope, the first 
+ * write (e.g, a #set in a template) creates a local layer so that the underlying scopes are never modified
+ */
+public class LayeredVariableMap extends AbstractMap<String, String> {
+
+	//Marks a variable removed from this view which still exists in an underlying scope
+	private static final String REMOVED = new String("");
+	
+	private final Map<String, String>[] scopes;
+	
+	private Map<String, String> local;
+	
+	@SafeVarargs
+	public LayeredVariableMap(Map<String, String>... scopes) {
+		this.scopes = scopes;
+	}
+	
+	@Override
+	public String get(Object key) {
+		if(local!=null && local.containsKey(key)) {
+			String value = local.get(key);
+			return value==REMOVED?null:value;
+		}
+		for (int i = scopes.length - 1; i >= 0; i--) {
+			if(scopes[i]!=null) {
+				String value = scopes[i].get(key);
+				if(value!=null || scopes[i].containsKey(key)) {
+					return value;
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if(local!=null && local.containsKey(key)) {
+			return local.get(key)!=REMOVED;
+		}
+		for (int i = scopes.length - 1; i >= 0; i--) {
+			if(scopes[i]!=null && scopes[i].containsKey(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		if(local!=null) {
+			return entrySet().isEmpty();
+		}
+		for (Map<String, String> scope : scopes) {
+			if(scope!=null && !scope.isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String put(String key, String value) {
+		String previous = get(key);
+		getLocal().put(key, value);
+		return previous;
+	}
+
+	@Override
+	public String remove(Object key) {
+		String previous = get(key);
+		if(key instanceof String) {
+			getLocal().put((String)key, REMOVED);
+		}
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		for (String key : keySet()) {
+			getLocal().put(key, REMOVED);
+		}
+	}
+
+	/**
+	 * The merged variables, the returned set is a snapshot and is only meant for iteration
+	 */
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+		Map<String, String> merged = new HashMap<String, String>();
+		for (Map<String, String> scope : scopes) {
+			if(scope!=null) {
+				merged.putAll(scope);
+			}
+		}
+		if(local!=null) {
+			for (Map.Entry<String, String> entry : local.entrySet()) {
+				if(entry.getValue()==REMOVED) {
+					merged.remove(entry.getKey());
+				} else {
+					merged.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		return merged.entrySet();
+	}
+	
+	private Map<String, String> getLocal() {
+		if(local==null) {
+			local = new HashMap<String, String>();
+		}
+		return local;
+	}
+}
@@ -34,6 +34,7 @@ import javax.ws.rs.core.Response.Status;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
+import org.apache.velocity.Template;
 import org.codehaus.jackson.annotate.JsonAutoDetect;
 import org.codehaus.jackson.annotate.JsonAutoDetect.Visibility;
 import org.codehaus.jackson.annotate.JsonIgnore;
@@ -41,6 +42,8 @@ import org.codehaus.jackson.map.annotate.JsonSerialize;
 import org.codehaus.jackson.map.annotate.JsonSerialize.Inclusion;
 import org.junit.Assert;
 
+import com.gatf.executor.dataprovider.StreamingProviderData;
+import com.gatf.executor.executor.PreparedRequest;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
 import com.thoughtworks.xstream.annotations.XStreamOmitField;
@@ -69,6 +72,12 @@ public class TestCase implements Serializable {
 	
 	public static final String[] CDATA_NODES = new String[]{"content","expectedResContent"};
 	
+	public static final String RESPONSE_RETENTION_ALL = "all";
+	
+	public static final String RESPONSE_RETENTION_NONE = "none";
+	
+	public static final String RESPONSE_RETENTION_TRUNCATE = "truncate";
+	
 	private String baseUrl;
 	
 	private String url;
@@ -170,6 +179,11 @@ public class TestCase implements Serializable {
 	@XStreamOmitField
 	private Integer simulationNumber;
 	
+	//The workflow context of an open model request, when set it is used instead of the context of the simulated user
+	@XStreamOmitField
+	@JsonIgnore
+	private Integer workflowContextIndex;
+	
 	@XStreamAsAttribute
 	private Long preWaitMs;
 	
@@ -179,6 +193,13 @@ public class TestCase implements Serializable {
 	@XStreamAsAttribute
 	private Boolean reportResponseContent = true;
 	
+	@XStreamAsAttribute
+	//How much of the response body is kept in the report, one of (all,none,truncate)
+	private String responseRetentionPolicy;
+	
+	@XStreamAsAttribute
+	private Integer responseRetentionMaxKb;
+	
 	private String preExecutionDataSourceHookName;
 	
 	private String postExecutionDataSourceHookName;
@@ -226,6 +247,21 @@ public class TestCase implements Serializable {
 	@JsonIgnore
 	private boolean isExternalApi = false;
 	
+	@XStreamOmitField
+	@JsonIgnore
+	//Parsed velocity templates keyed by their source string, shared by all copies of this testcase
+	private transient Map<String, Template> compiledTemplates;
+	
+	@XStreamOmitField
+	@JsonIgnore
+	//Set for testcases loaded from the testcase cache, which were validated when they were cached
+	private transient boolean validated;
+	
+	@XStreamOmitField
+	@JsonIgnore
+	//The request prebuilt at validation time for testcases without any templated request fields
+	private transient PreparedRequest preparedRequest;
+	
 	public String getBaseUrl() {
 		return baseUrl;
 	}
@@ -513,6 +549,14 @@ public class TestCase implements Serializable {
 		this.simulationNumber = simulationNumber;
 	}
 
+	public Integer getWorkflowContextIndex() {
+		return workflowContextIndex;
+	}
+
+	public void setWorkflowContextIndex(Integer workflowContextIndex) {
+		this.workflowContextIndex = workflowContextIndex;
+	}
+
 	public Long getPreWaitMs() {
 		return preWaitMs;
 	}
@@ -537,6 +581,22 @@ public class TestCase implements Serializable {
 		this.reportResponseContent = reportResponseContent;
 	}
 
+	public String getResponseRetentionPolicy() {
+		return responseRetentionPolicy;
+	}
+
+	public void setResponseRetentionPolicy(String responseRetentionPolicy) {
+		this.responseRetentionPolicy = responseRetentionPolicy;
+	}
+
+	public Integer getResponseRetentionMaxKb() {
+		return responseRetentionMaxKb;
+	}
+
+	public void setResponseRetentionMaxKb(Integer responseRetentionMaxKb) {
+		this.responseRetentionMaxKb = responseRetentionMaxKb;
+	}
+
 	public String getPreExecutionDataSourceHookName() {
 		return preExecutionDataSourceHookName;
 	}
@@ -683,6 +743,30 @@ public class TestCase implements Serializable {
 		this.isExternalApi = isExternalApi;
 	}
 
+	public Map<String, Template> getCompiledTemplates() {
+		return compiledTemplates;
+	}
+
+	public void setCompiledTemplates(Map<String, Template> compiledTemplates) {
+		this.compiledTemplates = compiledTemplates;
+	}
+
+	public boolean isValidated() {
+		return validated;
+	}
+
+	public void setValidated(boolean validated) {
+		this.validated = validated;
+	}
+
+	public PreparedRequest getPreparedRequest() {
+		return preparedRequest;
+	}
+
+	public void setPreparedRequest(PreparedRequest preparedRequest) {
+		this.preparedRequest = preparedRequest;
+	}
+
 	@Override
 	public String toString() {
 		final int maxLen = 10;
@@ -1092,6 +1176,18 @@ public class TestCase implements Serializable {
 		if(getRepeatScenarios()!=null && !getRepeatScenarios().isEmpty()) {
 			Assert.assertNull("Only one of repeatScenarios or repeatScenarioProviderName allowed", getRepeatScenarioProviderName());
 		}
+		
+		if(StringUtils.isNotBlank(getResponseRetentionPolicy())) {
+			if(!getResponseRetentionPolicy().equalsIgnoreCase(RESPONSE_RETENTION_ALL) 
+					&& !getResponseRetentionPolicy().equalsIgnoreCase(RESPONSE_RETENTION_NONE)
+					&& !getResponseRetentionPolicy().equalsIgnoreCase(RESPONSE_RETENTION_TRUNCATE)) {
+				throw new RuntimeException("Invalid response retention policy specified, should be one of (all,none,truncate)");
+			}
+			if(getResponseRetentionPolicy().equalsIgnoreCase(RESPONSE_RETENTION_TRUNCATE) 
+					&& (getResponseRetentionMaxKb()==null || getResponseRetentionMaxKb()<=0)) {
+				throw new RuntimeException("Invalid responseRetentionMaxKb specified for the truncate response retention policy");
+			}
+		}
 	}
 
 	public TestCase(TestCase other) {
@@ -1130,7 +1226,12 @@ public class TestCase implements Serializable {
 		this.sequence = other.sequence;
 		this.multipartContent = other.multipartContent;
 		this.outFileName = other.outFileName;
-		if(other.repeatScenarios!=null)
+		if(other.repeatScenarios instanceof StreamingProviderData)
+		{
+			//still loading, shared as it is read-only
+			this.repeatScenarios = other.repeatScenarios;
+		}
+		else if(other.repeatScenarios!=null)
 		{
 			this.repeatScenarios = new ArrayList<Map<String,String>>(other.repeatScenarios);
 		}
@@ -1148,10 +1249,13 @@ public class TestCase implements Serializable {
 		this.stopOnFirstFailureForPerfTest = other.stopOnFirstFailureForPerfTest;
 		this.failed = other.failed;
 		this.simulationNumber = other.simulationNumber;
+		this.workflowContextIndex = other.workflowContextIndex;
 		this.baseUrl = other.baseUrl;
 		this.preWaitMs = other.preWaitMs;
 		this.postWaitMs = other.postWaitMs;
 		this.reportResponseContent = other.reportResponseContent;
+		this.responseRetentionPolicy = other.responseRetentionPolicy;
+		this.responseRetentionMaxKb = other.responseRetentionMaxKb;
 		this.repeatScenarioProviderName = other.repeatScenarioProviderName;
 		this.preExecutionDataSourceHookName = other.preExecutionDataSourceHookName;
 		this.postExecutionDataSourceHookName = other.postExecutionDataSourceHookName;
@@ -1165,6 +1269,8 @@ public class TestCase implements Serializable {
 		this.currentScenarioVariables = other.currentScenarioVariables;
 		this.isServerApiAuth = other.isServerApiAuth;
 		this.isServerApiTarget = other.isServerApiTarget;
+		this.compiledTemplates = other.compiledTemplates;
+		this.preparedRequest = other.preparedRequest;
 	}
 
 	@Override
@@ -0,0 +1,68 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Sumeet Chhetri
+ * Holds the suite level workflow variables, the scenario variables and the cookies of a single simulated user
+ */
+public class UserWorkflowContext {
+
+	private final int index;
+	
+	private final Map<String, String> suiteVariables = new ConcurrentHashMap<String, String>();
+	
+	private final Map<String, List<Map<String, String>>> scenarioVariables = new ConcurrentHashMap<String, List<Map<String, String>>>();
+	
+	private final Map<String, String> cookies = new ConcurrentHashMap<String, String>();
+	
+	public UserWorkflowContext(int index) {
+		this.index = index;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public Map<String, String> getSuiteVariables() {
+		return suiteVariables;
+	}
+
+	public Map<String, List<Map<String, String>>> getScenarioVariables() {
+		return scenarioVariables;
+	}
+
+	public Map<String, String> getCookies() {
+		return cookies;
+	}
+	
+	/**
+	 * Replace the variables and cookies of this context with those of the other context
+	 * @param other
+	 */
+	public void copy(UserWorkflowContext other) {
+		suiteVariables.clear();
+		suiteVariables.putAll(other.suiteVariables);
+		scenarioVariables.clear();
+		scenarioVariables.putAll(other.scenarioVariables);
+		cookies.clear();
+		cookies.putAll(other.cookies);
+	}
+}
@@ -15,16 +15,20 @@
 */
 package com.gatf.executor.core;
 
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.collections.MapUtils;
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeInstance;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -40,6 +44,13 @@ public class WorkflowContextHandler {
 
 	private final VelocityEngine engine = new VelocityEngine();
 	
+	//Runtime used to parse testcase templates once, rendering then only merges the parsed AST
+	private final RuntimeInstance templateRuntime = new RuntimeInstance();
+	
+	private final AtomicLong templateCacheHits = new AtomicLong();
+	
+	private final AtomicLong templateCacheMisses = new AtomicLong();
+	
 	public enum ResponseType {
 		JSON,
 		XML,
@@ -55,48 +66,112 @@ public class WorkflowContextHandler {
 	public void init() {
 		try {
 			engine.init();
+			templateRuntime.init();
 		} catch (Exception e) {
 		}
 	}
 	
-	private final Map<String, String> globalworkflowContext = new ConcurrentHashMap<String, String>();
+	public long getTemplateCacheHits() {
+		return templateCacheHits.get();
+	}
+	
+	public long getTemplateCacheMisses() {
+		return templateCacheMisses.get();
+	}
+	
+	/**
+	 * Parse all the templated fields of the testcase once, so that every subsequent execution
+	 * (runs/scenarios/copies) only merges the parsed templates against the current context
+	 * @param testCase
+	 */
+	public void compileTemplates(TestCase testCase) {
+		Map<String, Template> templates = new ConcurrentHashMap<String, Template>();
+		compileTemplate(templates, testCase.getUrl());
+		compileTemplate(templates, testCase.getContent());
+		compileTemplate(templates, testCase.getExQueryPart());
+		if(testCase.getHeaders()!=null) {
+			for (String value : testCase.getHeaders().values()) {
+				compileTemplate(templates, value);
+			}
+		}
+		if(testCase.getExpectedNodes()!=null) {
+			for (String nodecase : testCase.getExpectedNodes()) {
+				compileTemplate(templates, nodecase);
+			}
+		}
+		if(testCase.getExecuteOnCondition()!=null) {
+			compileTemplate(templates, getConditionTemplate(testCase.getExecuteOnCondition()));
+		}
+		if(testCase.getLogicalValidations()!=null) {
+			for (String condition : testCase.getLogicalValidations()) {
+				compileTemplate(templates, getConditionTemplate(condition));
+			}
+		}
+		testCase.setCompiledTemplates(templates);
+	}
+	
+	private void compileTemplate(Map<String, Template> templates, String source) {
+		if(!isTemplate(source) || templates.containsKey(source)) {
+			return;
+		}
+		try {
+			Template template = new Template();
+			template.setRuntimeServices(templateRuntime);
+			template.setName("ERROR");
+			template.setData(templateRuntime.parse(new StringReader(source), "ERROR"));
+			template.initDocument();
+			templates.put(source, template);
+		} catch (Exception e) {
+			//Invalid templates are not cached, they get reported by the engine when evaluated
+		}
+	}
 	
-	private final Map<Integer, Map<String, String>> suiteWorkflowContext = new ConcurrentHashMap<Integer, Map<String, String>>();
+	public static boolean isTemplate(String source) {
+		return source!=null && (source.indexOf('$')!=-1 || source.indexOf('#')!=-1);
+	}
 	
-	private final Map<Integer, Map<String, List<Map<String, String>>>> suiteWorkflowScenarioContext = 
-			new ConcurrentHashMap<Integer, Map<String, List<Map<String, String>>>>();
+	private static String getConditionTemplate(String condition) {
+		return "#if(" +  condition + ")true#end";
+	}
 	
-	private final Map<Integer, Map<String, String>> cookies = new ConcurrentHashMap<Integer, Map<String, String>>();
+	private String renderTemplate(TestCase testCase, VelocityContext context, String source) {
+		if(!isTemplate(source)) {
+			return source;
+		}
+		StringWriter writer = new StringWriter();
+		Template template = testCase.getCompiledTemplates()!=null?testCase.getCompiledTemplates().get(source):null;
+		if(template!=null) {
+			templateCacheHits.incrementAndGet();
+			template.merge(context, writer);
+		} else {
+			templateCacheMisses.incrementAndGet();
+			engine.evaluate(context, writer, "ERROR", source);
+		}
+		return writer.toString();
+	}
+	
+	private final Map<String, String> globalworkflowContext = new ConcurrentHashMap<String, String>();
+	
+	//The user contexts indexed by the simulation number offset by 2, -2 holds the external api context, 
+	//-1 the server api context and 0 the context of a single run
+	private volatile UserWorkflowContext[] userContexts = new UserWorkflowContext[0];
+	
+	private static final int INDEX_OFFSET = 2;
 	
 	public void initializeSuiteContext(int numberOfRuns) {
-		
-		suiteWorkflowContext.clear();
-		suiteWorkflowScenarioContext.clear();
-		cookies.clear();
-		
-		//int start = (numberOfRuns>1?1:0);
-		//int end = (numberOfRuns>1?numberOfRuns+1:numberOfRuns);
+		UserWorkflowContext[] contexts = new UserWorkflowContext[numberOfRuns+1+INDEX_OFFSET];
 		for (int i = -2; i < numberOfRuns+1; i++) {
-			suiteWorkflowContext.put(i, new ConcurrentHashMap<String, String>());
-			suiteWorkflowScenarioContext.put(i, new ConcurrentHashMap<String, List<Map<String, String>>>());
-			cookies.put(i, new ConcurrentHashMap<String, String>());
+			contexts[i+INDEX_OFFSET] = new UserWorkflowContext(i);
 		}
-		/*suiteWorkflowContext.put(-1, new ConcurrentHashMap<String, String>());
-		suiteWorkflowScenarioContext.put(-1, new ConcurrentHashMap<String, List<Map<String, String>>>());
-		cookies.put(-1, new ConcurrentHashMap<String, String>());
-		
-		suiteWorkflowContext.put(-2, new ConcurrentHashMap<String, String>());
-		suiteWorkflowScenarioContext.put(-2, new ConcurrentHashMap<String, List<Map<String, String>>>());
-		cookies.put(-2, new ConcurrentHashMap<String, String>());*/
+		userContexts = contexts;
 	}
 	
 	public void initializeSuiteContextWithnum(int index) {
-		suiteWorkflowContext.clear();
-		suiteWorkflowScenarioContext.clear();
-		cookies.clear();
-		suiteWorkflowContext.put(index, new ConcurrentHashMap<String, String>());
-		suiteWorkflowScenarioContext.put(index, new ConcurrentHashMap<String, List<Map<String, String>>>());
-		cookies.put(index, new ConcurrentHashMap<String, String>());
+		UserWorkflowContext[] contexts = new UserWorkflowContext[Math.max(index+1+INDEX_OFFSET, 0)];
+		if(index+INDEX_OFFSET>=0) {
+			contexts[index+INDEX_OFFSET] = new UserWorkflowContext(index);
+		}
+		userContexts = contexts;
 	}
 	
 	void addGlobalVariables(Map<String, String> variableMap) {
@@ -105,116 +180,106 @@ public class WorkflowContextHandler {
 		}
 	}
 	
-	public Map<String, String> getSuiteWorkflowContext(TestCase testCase) {
+	private static int getContextIndex(TestCase testCase) {
 		if(testCase.isServerApiAuth() || testCase.isServerApiTarget()) {
-			return suiteWorkflowContext.get(-1);
+			return -1;
 		} else if(testCase.isExternalApi()) {
-			return suiteWorkflowContext.get(-2);
+			return -2;
+		} else if(testCase.getWorkflowContextIndex()!=null) {
+			return testCase.getWorkflowContextIndex();
 		} else if(testCase.getSimulationNumber()==null) {
-			return suiteWorkflowContext.get(0);
+			return 0;
 		} else {
-			return suiteWorkflowContext.get(testCase.getSimulationNumber());
+			return testCase.getSimulationNumber();
 		}
 	}
 	
-	public Map<String, List<Map<String, String>>> getSuiteWorkflowScnearioContext(TestCase testCase) {
-		if(testCase.isServerApiAuth() || testCase.isServerApiTarget()) {
-			return suiteWorkflowScenarioContext.get(-1);
-		} else if(testCase.isExternalApi()) {
-			return suiteWorkflowScenarioContext.get(-2);
-		} else if(testCase.getSimulationNumber()==null) {
-			return suiteWorkflowScenarioContext.get(0);
-		} else {
-			return suiteWorkflowScenarioContext.get(testCase.getSimulationNumber());
+	/**
+	 * @return the context of the simulated user or null if the suite context was not initialized for it
+	 */
+	public UserWorkflowContext getUserContext(int index) {
+		UserWorkflowContext[] contexts = userContexts;
+		index += INDEX_OFFSET;
+		return index>=0 && index<contexts.length?contexts[index]:null;
+	}
+	
+	public UserWorkflowContext getUserContext(TestCase testCase) {
+		return getUserContext(getContextIndex(testCase));
+	}
+	
+	/**
+	 * Start the context at the given index afresh from a copy of the context at fromIndex
+	 */
+	public void resetUserContext(int index, int fromIndex) {
+		UserWorkflowContext userContext = getUserContext(index);
+		UserWorkflowContext fromContext = getUserContext(fromIndex);
+		if(userContext!=null && fromContext!=null) {
+			userContext.copy(fromContext);
 		}
 	}
 	
+	public Map<String, String> getSuiteWorkflowContext(TestCase testCase) {
+		UserWorkflowContext userContext = getUserContext(testCase);
+		return userContext!=null?userContext.getSuiteVariables():null;
+	}
+	
+	public Map<String, List<Map<String, String>>> getSuiteWorkflowScnearioContext(TestCase testCase) {
+		UserWorkflowContext userContext = getUserContext(testCase);
+		return userContext!=null?userContext.getScenarioVariables():null;
+	}
+	
 	public List<Map<String, String>> getSuiteWorkflowScenarioContextValues(TestCase testCase, String varName) {
-		if(testCase.isServerApiAuth() || testCase.isServerApiTarget()) {
-			return suiteWorkflowScenarioContext.get(-1).get(varName);
-		} else if(testCase.isExternalApi()) {
-			return suiteWorkflowScenarioContext.get(-2).get(varName);
-		} else if(testCase.getSimulationNumber()==null) {
-			return suiteWorkflowScenarioContext.get(0).get(varName);
-		} else {
-			return suiteWorkflowScenarioContext.get(testCase.getSimulationNumber()).get(varName);
-		}
+		return getSuiteWorkflowScnearioContext(testCase).get(varName);
 	}
 	
 	public String getCookie(TestCase testCase, String varName) {
-		if(testCase.isServerApiAuth() || testCase.isServerApiTarget()) {
-			return cookies.get(-1).get(varName);
-		} else if(testCase.isExternalApi()) {
-			return cookies.get(-2).get(varName);
-		} else if(testCase.getSimulationNumber()==null) {
-			return cookies.get(0).get(varName);
-		} else {
-			return cookies.get(testCase.getSimulationNumber()).get(varName);
-		}
+		return getCookies(testCase).get(varName);
 	}
 	
 	public Map<String, String> getCookies(TestCase testCase) {
-		if(testCase.isServerApiAuth() || testCase.isServerApiTarget()) {
-			return cookies.get(-1);
-		} else if(testCase.isExternalApi()) {
-			return cookies.get(-2);
-		} else if(testCase.getSimulationNumber()==null) {
-			return cookies.get(0);
-		} else {
-			return cookies.get(testCase.getSimulationNumber());
-		}
+		UserWorkflowContext userContext = getUserContext(testCase);
+		return userContext!=null?userContext.getCookies():null;
 	}
 	
 	public void storeCookies(TestCase testCase, List<Cookie> cookieLst) {
-		int simNumber = testCase.getSimulationNumber()==null?0:testCase.getSimulationNumber();
-		if(testCase.isServerApiAuth() || testCase.isServerApiTarget()) {
-			simNumber = -1;
-		} else if(testCase.isExternalApi()) {
-			simNumber = -2;
-		} else if(testCase.getSimulationNumber()==null) {
-			simNumber = 0;
-		}
-		if(cookieLst!=null && cookies.get(simNumber)!=null)
+		Map<String, String> cookieMap = getCookies(testCase);
+		if(cookieLst!=null && cookieMap!=null)
 		{
 			for (Cookie cookie : cookieLst) {
 				if(cookie.getValue()!=null)
 				{
-					cookies.get(simNumber).put(cookie.getName(), cookie.getValue());
+					cookieMap.put(cookie.getName(), cookie.getValue());
 				}
 			}
 		}
 	}
 	
+	/**
+	 * @return a layered view over the global, suite, scenario (variableMap) and carried over variables, 
+	 * nothing is copied, writes to the returned map stay local to it
+	 */
 	public Map<String, String> getGlobalSuiteAndTestLevelParameters(TestCase testCase, Map<String, String> variableMap, int index) {
-	    Map<String, String> nmap = new HashMap<String, String>(globalworkflowContext);
 	    if(testCase!=null) {
-	        index = testCase.getSimulationNumber();
-	        if(testCase.isServerApiAuth() || testCase.isServerApiTarget()) {
-	            index = -1;
-	        } else if(testCase.isExternalApi()) {
-	            index = -2;
-	        } else if(testCase.getSimulationNumber()==null) {
-	            index = 0;
-	        }
-	        nmap.putAll(suiteWorkflowContext.get(index));
-	        if(variableMap!=null && !variableMap.isEmpty()) {
-	            nmap.putAll(variableMap);
-	        }
-	        if(testCase.getCarriedOverVariables()!=null && !testCase.getCarriedOverVariables().isEmpty()) {
-	            nmap.putAll(testCase.getCarriedOverVariables());
-	        }
-	    } else {
-	        nmap.putAll(suiteWorkflowContext.get(index));
-	        if(variableMap!=null && !variableMap.isEmpty()) {
-                nmap.putAll(variableMap);
-            }
+	        index = getContextIndex(testCase);
 	    }
-		return nmap;
+	    UserWorkflowContext userContext = getUserContext(index);
+	    Map<String, String> suiteVariables = userContext!=null?userContext.getSuiteVariables():null;
+	    Map<String, String> carriedOverVariables = testCase!=null?testCase.getCarriedOverVariables():null;
+	    return new LayeredVariableMap(globalworkflowContext, suiteVariables, variableMap, carriedOverVariables);
+	}
+	
+	/**
+	 * The layered view only holds string variables, the returned context wraps it as an inner context so that
+	 * non string values (e.g, _DPA_ or a #set of a list) are written to the outer context and never to the view
+	 */
+	static VelocityContext newVelocityContext(Map<String, String> variables) {
+		return new VelocityContext(new VelocityContext(variables));
 	}
 	
 	public void addSuiteLevelParameter(int index, String name, String value) {
-	    if(suiteWorkflowContext.containsKey(index) && value!=null) {
-	        suiteWorkflowContext.get(index).put(name, value);
+	    UserWorkflowContext userContext = getUserContext(index);
+	    if(userContext!=null && value!=null) {
+	        userContext.getSuiteVariables().put(name, value);
 	    }
 	}
 	
@@ -224,7 +289,7 @@ public class WorkflowContextHandler {
 			Map<String, String> nmap = getGlobalSuiteAndTestLevelParameters(testCase, null, -3);
 			if(testCase!=null && !nmap.isEmpty()) {
 				if(template!=null) {
-					VelocityContext context = new VelocityContext(nmap);
+					VelocityContext context = newVelocityContext(nmap);
 					DataProviderAccessor dpa = new DataProviderAccessor(acontext, testCase);
 					context.put("_DPA_", dpa);
 					engine.evaluate(context, writer, "ERROR", template);
@@ -255,7 +320,7 @@ public class WorkflowContextHandler {
 		
 		Map<String, String> nmap = getGlobalSuiteAndTestLevelParameters(testCase, variableMap, -3);
 		
-		VelocityContext context = new VelocityContext(nmap);
+		VelocityContext context = newVelocityContext(nmap);
 		DataProviderAccessor dpa = new DataProviderAccessor(acontext, testCase);
 		context.put("_DPA_", dpa);
 		
@@ -273,35 +338,25 @@ public class WorkflowContextHandler {
 			}
 			if(MapUtils.isNotEmpty(testCase.getHeaders())) {
 			    for (Map.Entry<String, String> entry : testCase.getHeaders().entrySet()) {
-			        StringWriter writer = new StringWriter();
-			        engine.evaluate(context, writer, "ERROR", entry.getValue());
-			        testCase.getHeaders().put(entry.getKey(), writer.toString());
+			        testCase.getHeaders().put(entry.getKey(), renderTemplate(testCase, context, entry.getValue()));
 			    }
 			}
 		}
 		
 		if(testCase!=null && !nmap.isEmpty()) {
 			if(testCase.getUrl()!=null) {
-				StringWriter writer = new StringWriter();
-				engine.evaluate(context, writer, "ERROR", testCase.getUrl());
-				testCase.setAurl(writer.toString());
+				testCase.setAurl(renderTemplate(testCase, context, testCase.getUrl()));
 			}
 			if(testCase.getContent()!=null) {
-				StringWriter writer = new StringWriter();
-				engine.evaluate(context, writer, "ERROR", testCase.getContent());
-				testCase.setAcontent(writer.toString());
+				testCase.setAcontent(renderTemplate(testCase, context, testCase.getContent()));
 			}
 			if(testCase.getExQueryPart()!=null) {
-				StringWriter writer = new StringWriter();
-				engine.evaluate(context, writer, "ERROR", testCase.getExQueryPart());
-				testCase.setAexQueryPart(writer.toString());
+				testCase.setAexQueryPart(renderTemplate(testCase, context, testCase.getExQueryPart()));
 			}
 			if(testCase.getExpectedNodes()!=null && !testCase.getExpectedNodes().isEmpty()) {
 				List<String> expectedNodes = new ArrayList<String>();
 				for (String nodecase : testCase.getExpectedNodes()) {
-					StringWriter writer = new StringWriter();
-					engine.evaluate(context, writer, "ERROR", nodecase);
-					expectedNodes.add(writer.toString());
+					expectedNodes.add(renderTemplate(testCase, context, nodecase));
 				}
 				testCase.setAexpectedNodes(expectedNodes);
 			}
@@ -320,17 +375,16 @@ public class WorkflowContextHandler {
 			if(smap!=null) {
 				nmap.putAll(smap);
 			}
-			StringWriter writer = new StringWriter();
-			String condition = "#if(" +  template + ")true#end";
+			String result = null;
 			try {
-				VelocityContext context = new VelocityContext(nmap);
+				VelocityContext context = newVelocityContext(nmap);
 				DataProviderAccessor dpa = new DataProviderAccessor(acontext, testCase);
 				context.put("_DPA_", dpa);
-				engine.evaluate(context, writer, "ERROR", condition);
+				result = renderTemplate(testCase, context, getConditionTemplate(template));
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
-			return "true".equals(writer.toString());
+			return "true".equals(result);
 		}
 		return true;
 	}
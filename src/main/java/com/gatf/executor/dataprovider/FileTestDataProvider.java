@@ -15,38 +15,61 @@
 */
 package com.gatf.executor.dataprovider;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathFactory;
 
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
 import org.junit.Assert;
 import org.w3c.dom.Document;
 import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 import com.gatf.executor.core.AcceptanceTestContext;
+import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.JsonPath;
 
 import au.com.bytecode.opencsv.CSVReader;
@@ -54,14 +77,28 @@ import au.com.bytecode.opencsv.CSVReader;
 /**
  * @author Sumeet Chhetri
  * The file test case data provider implementation
+ * All the file types are read record by record (csv cursor, xlsx sax events, xml stax events and 
+ * json streaming tokens), xml/json expressions which cannot be evaluated on a stream fall back to 
+ * the dom/jsonpath evaluation, streaming providers are loaded in the background
  */
 public class FileTestDataProvider implements TestDataProvider {
 
 	private Logger logger = Logger.getLogger(FileTestDataProvider.class.getSimpleName());
 	
-	public List<Map<String, String>> provide(GatfTestDataProvider provider, AcceptanceTestContext context) {
-		
-		List<Map<String, String>> result = new ArrayList<Map<String,String>>();
+	private static final Pattern XML_STREAMING_PATH = Pattern.compile("(/[A-Za-z_][\\w\\-:]*)+(/text\\(\\)|/@[A-Za-z_][\\w\\-:]*)");
+	
+	private static final Pattern JSON_PATH_TOKEN = Pattern.compile("\\.?([A-Za-z_][\\w\\-]*)|\\[\\*\\]|\\[([0-9]+)\\]|\\['([^']+)'\\]");
+	
+	private static final Object ANY_INDEX = new Object();
+	
+	/**
+	 * Receives the records of a csv/xls/xlsx file one at a time
+	 */
+	public static abstract class RecordHandler {
+		public abstract void handle(String[] parts);
+	}
+	
+	public List<Map<String, String>> provide(final GatfTestDataProvider provider, AcceptanceTestContext context) {
 		
 		if(provider.getArgs()==null || provider.getArgs().length==0) {
 			throw new AssertionError("No arguments passed to the FileProvider");
@@ -76,13 +113,13 @@ public class FileTestDataProvider implements TestDataProvider {
 		Assert.assertNotNull("variableNames cannot be empty", provider.getProviderProperties());
 		
 		String filePath = provider.getArgs()[0].trim();
-		String fileType = provider.getArgs()[1].trim();
+		final String fileType = provider.getArgs()[1].trim();
 		String variableNames = provider.getProviderProperties().trim();
 		
 		Assert.assertFalse("filePath cannot be empty", filePath.isEmpty());
 		Assert.assertFalse("fileType cannot be empty", fileType.isEmpty());
 		
-		List<String> variableNamesArr = new ArrayList<String>();
+		final List<String> variableNamesArr = new ArrayList<String>();
 		for (String varName : variableNames.split(",")) {
 			if(!varName.trim().isEmpty()) {
 				variableNamesArr.add(varName);
@@ -95,7 +132,8 @@ public class FileTestDataProvider implements TestDataProvider {
 		build.append("Provider configuration [\n");
 		build.append(String.format("filePath is %s\n", filePath));
 		build.append(String.format("fileType is %s\n", fileType));
-		build.append(String.format("variableNames is %s]", variableNames));
+		build.append(String.format("variableNames is %s\n", variableNames));
+		build.append(String.format("streaming is %s]", provider.isStreaming()));
 		logger.info(build.toString());
 		
 		File provFile = null;
@@ -106,55 +144,78 @@ public class FileTestDataProvider implements TestDataProvider {
 			throw new AssertionError(String.format("Unable to find %s", filePath));
 		}
 		
-		if(fileType.equalsIgnoreCase("csv") || fileType.equalsIgnoreCase("xls") || fileType.equalsIgnoreCase("xlsx")) {
-			handleCsvFamilyFile(provider.getArgs(), fileType, provFile, variableNamesArr, result);
-		} else if(fileType.equalsIgnoreCase("xml")) {
-			handleXMLFile(provFile, variableNamesArr, result);
-		} else if(fileType.equalsIgnoreCase("json")) {
-			handleJSONFile(provFile, variableNamesArr, result);
-		} else {
+		if(!fileType.equalsIgnoreCase("csv") && !fileType.equalsIgnoreCase("xls") && !fileType.equalsIgnoreCase("xlsx")
+				&& !fileType.equalsIgnoreCase("xml") && !fileType.equalsIgnoreCase("json")) {
 			throw new AssertionError(String.format("Invalid fileType %s, only csv, xml and json allowed", fileType));
 		}
 		
+		if(provider.isStreaming()) {
+			final File file = provFile;
+			final StreamingProviderData result = new StreamingProviderData();
+			Thread loader = new Thread(new Runnable() {
+				public void run() {
+					try {
+						handleFile(provider.getArgs(), fileType, file, variableNamesArr, result);
+						result.complete(null);
+						logger.info("Provider " + provider.getProviderName() + " loaded " + result.size() + " rows");
+					} catch (Throwable e) {
+						result.complete(e);
+						logger.severe("Provider " + provider.getProviderName() + " failed to load - " + e.getMessage());
+					}
+				}
+			}, "gatf-provider-" + provider.getProviderName());
+			loader.setDaemon(true);
+			loader.start();
+			return result;
+		}
+		
+		List<Map<String, String>> result = new ArrayList<Map<String,String>>();
+		handleFile(provider.getArgs(), fileType, provFile, variableNamesArr, result);
 		return result;
 	}
 	
-	private void handleCsvFamilyFile(String[] args, String fileType, File file, List<String> variableNamesArr, 
-			List<Map<String, String>> result)
+	private void handleFile(String[] args, String fileType, File file, List<String> variableNamesArr, 
+			List<Map<String, String>> result) {
+		if(fileType.equalsIgnoreCase("csv") || fileType.equalsIgnoreCase("xls") || fileType.equalsIgnoreCase("xlsx")) {
+			handleCsvFamilyFile(args, fileType, file, variableNamesArr, result);
+		} else if(fileType.equalsIgnoreCase("xml")) {
+			handleXMLFile(file, variableNamesArr, result);
+		} else {
+			handleJSONFile(file, variableNamesArr, result);
+		}
+	}
+	
+	private void handleCsvFamilyFile(String[] args, String fileType, File file, final List<String> variableNamesArr, 
+			final List<Map<String, String>> result)
 	{
-		List<String[]> list = new ArrayList<String[]>();
-		try {
-			if(fileType.equalsIgnoreCase("csv")) {
-				char splitStr = ',';
-				if(args.length>2 && args[2].trim().matches("separator=(.*)")) {
-					splitStr = args[2].trim().charAt(10);
-				}
-				list = readCsvFamilyFile(fileType, file, splitStr, -1);
-			} else if(fileType.equalsIgnoreCase("xls") || fileType.equalsIgnoreCase("xlsx")) {
-				int sheet = 0;
-				if(args.length>2 && args[2].trim().matches("sheet=([0-9]+)")) {
-					sheet = Integer.parseInt(args[2].trim().substring(6));
-				}
-				list = readCsvFamilyFile(fileType, file, ',', sheet);
+		char splitStr = ',';
+		int sheet = 0;
+		if(fileType.equalsIgnoreCase("csv")) {
+			if(args.length>2 && args[2].trim().matches("separator=(.*)")) {
+				splitStr = args[2].trim().charAt(10);
 			}
-			
-			int counter = 1;
-			for (String[] parts : list) {
+			sheet = -1;
+		} else {
+			if(args.length>2 && args[2].trim().matches("sheet=([0-9]+)")) {
+				sheet = Integer.parseInt(args[2].trim().substring(6));
+			}
+		}
+		
+		readCsvFamilyFile(fileType, file, splitStr, sheet, new RecordHandler() {
+			private int counter = 1;
+			public void handle(String[] parts) {
 				if(parts.length!=variableNamesArr.size()) {
 					throw new AssertionError("The number of columns in the file record do not match the " +
-							"variable Names provided at position " + counter++);
+							"variable Names provided at position " + counter);
 				}
+				counter++;
 				Map<String, String> row = new HashMap<String, String>();
 				for (int i = 0; i < variableNamesArr.size(); i++) {
 					row.put(variableNamesArr.get(i), parts[i]);
 				}
 				result.add(row);
 			}
-		} catch(AssertionError e) {
-			throw e;
-		} catch (Exception e) {
-			throw new AssertionError(e);
-		}
+		});
 	}
 
 	/*private void handleCSVFile(File file, List<String> variableNamesArr, List<Map<String, String>> result,
@@ -189,24 +250,35 @@ public class FileTestDataProvider implements TestDataProvider {
 	}*/
 	
 	private void handleXMLFile(File file, List<String> variableNamesArr, List<Map<String, String>> result) {
+		List<String> expressions = new ArrayList<String>(variableNamesArr.size());
+		boolean streamable = true;
+		for (int i = 0; i < variableNamesArr.size(); i++) {
+			String expression = variableNamesArr.get(i).replaceAll("\\.", "\\/");
+			if(expression.charAt(0)!='/')
+				expression = "/" + expression;
+			expressions.add(expression);
+			streamable &= XML_STREAMING_PATH.matcher(expression).matches();
+		}
+		
 		try
 		{
-			String content = FileUtils.readFileToString(file, "UTF-8");
+			if(streamable) {
+				streamXMLFile(file, variableNamesArr, expressions, result);
+				return;
+			}
+			
 			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
 			
 			DocumentBuilder db = dbf.newDocumentBuilder();
-			Document xmlDocument = db.parse(new ByteArrayInputStream(content.getBytes()));
+			Document xmlDocument = db.parse(file);
 
 			if(xmlDocument!=null)
 			{
 				List<NodeList> nodes = new ArrayList<NodeList>(variableNamesArr.size());
 				for (int i = 0; i < variableNamesArr.size(); i++) {
 					
-					String expression = variableNamesArr.get(i).replaceAll("\\.", "\\/");
-					if(expression.charAt(0)!='/')
-						expression = "/" + expression;
 					XPath xPath =  XPathFactory.newInstance().newXPath();
-					NodeList xmlNodeList = (NodeList) xPath.compile(expression).evaluate(xmlDocument, XPathConstants.NODESET);
+					NodeList xmlNodeList = (NodeList) xPath.compile(expressions.get(i)).evaluate(xmlDocument, XPathConstants.NODESET);
 					Assert.assertTrue("Expected Node " + variableNamesArr.get(i) + " is null", 
 							xmlNodeList!=null && xmlNodeList.getLength()>0);
 					
@@ -231,19 +303,119 @@ public class FileTestDataProvider implements TestDataProvider {
 					result.add(row);
 				}
 			}
+		} catch(AssertionError e) {
+			throw e;
 		} catch (Exception e) {
 			throw new AssertionError(e);
 		}
 	}
 	
+	/**
+	 * Evaluates absolute element paths ending with text() or an attribute on a stax event stream
+	 */
+	private void streamXMLFile(File file, List<String> variableNamesArr, List<String> expressions, 
+			List<Map<String, String>> result) throws Exception {
+		int size = expressions.size();
+		String[] elementPaths = new String[size];
+		String[] attributes = new String[size];
+		for (int i = 0; i < size; i++) {
+			String expression = expressions.get(i);
+			int last = expression.lastIndexOf('/');
+			elementPaths[i] = expression.substring(0, last);
+			String target = expression.substring(last + 1);
+			attributes[i] = target.startsWith("@")?target.substring(1):null;
+		}
+		
+		RowAssembler assembler = new RowAssembler(variableNamesArr, result);
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		InputStream in = new BufferedInputStream(new FileInputStream(file));
+		XMLStreamReader reader = null;
+		try {
+			reader = factory.createXMLStreamReader(in);
+			StringBuilder path = new StringBuilder();
+			LinkedList<Integer> pathLengths = new LinkedList<Integer>();
+			LinkedList<StringBuilder> texts = new LinkedList<StringBuilder>();
+			while(reader.hasNext()) {
+				int event = reader.next();
+				if(event==XMLStreamConstants.START_ELEMENT) {
+					pathLengths.push(path.length());
+					path.append('/').append(qualifiedName(reader.getPrefix(), reader.getLocalName()));
+					String current = path.toString();
+					StringBuilder text = null;
+					for (int i = 0; i < size; i++) {
+						if(!elementPaths[i].equals(current)) {
+							continue;
+						}
+						if(attributes[i]==null) {
+							text = new StringBuilder();
+							continue;
+						}
+						for (int a = 0; a < reader.getAttributeCount(); a++) {
+							if(attributes[i].equals(qualifiedName(reader.getAttributePrefix(a), reader.getAttributeLocalName(a)))) {
+								assembler.add(i, reader.getAttributeValue(a));
+								break;
+							}
+						}
+					}
+					texts.push(text);
+				} else if(event==XMLStreamConstants.CHARACTERS || event==XMLStreamConstants.CDATA 
+						|| event==XMLStreamConstants.SPACE) {
+					if(!texts.isEmpty() && texts.peek()!=null) {
+						texts.peek().append(reader.getText());
+					}
+				} else if(event==XMLStreamConstants.END_ELEMENT) {
+					StringBuilder text = texts.pop();
+					if(text!=null && text.length()>0) {
+						String current = path.toString();
+						for (int i = 0; i < size; i++) {
+							if(attributes[i]==null && elementPaths[i].equals(current)) {
+								assembler.add(i, text.toString());
+							}
+						}
+					}
+					path.setLength(pathLengths.pop());
+				}
+			}
+		} finally {
+			if(reader!=null) {
+				reader.close();
+			}
+			in.close();
+		}
+		assembler.finish("Expected Node %s is null");
+	}
+	
+	private static String qualifiedName(String prefix, String localName) {
+		return StringUtils.isEmpty(prefix)?localName:prefix + ":" + localName;
+	}
+	
+	@SuppressWarnings("unchecked")
 	private void handleJSONFile(File file, List<String> variableNamesArr, List<Map<String, String>> result) {
+		List<List<Object>> paths = new ArrayList<List<Object>>(variableNamesArr.size());
+		for (String variableName : variableNamesArr) {
+			List<Object> path = parseJsonPath(variableName);
+			if(path==null) {
+				paths = null;
+				break;
+			}
+			paths.add(path);
+		}
+		
+		InputStream in = null;
 		try
 		{
-			String content = FileUtils.readFileToString(file, "UTF-8");
-			if(content!=null && !content.isEmpty()) {
+			if(paths!=null) {
+				streamJSONFile(file, variableNamesArr, paths, result);
+				return;
+			}
+			
+			in = new BufferedInputStream(new FileInputStream(file));
+			Object document = Configuration.defaultConfiguration().jsonProvider().parse(in, "UTF-8");
+			if(document!=null) {
 				List<List<String>> varValues = new ArrayList<List<String>>();
 				for (int i = 0; i < variableNamesArr.size(); i++) {
-					List<String> values = JsonPath.read(content, variableNamesArr.get(i));
+					List<String> values = (List<String>)JsonPath.read(document, variableNamesArr.get(i));
 					Assert.assertNotNull(String.format("No values found for %s", variableNamesArr.get(i)), values);
 					varValues.add(values);
 				}
@@ -263,42 +435,214 @@ public class FileTestDataProvider implements TestDataProvider {
 					result.add(row);
 				}
 			}
+		} catch(AssertionError e) {
+			throw e;
 		} catch (Exception e) {
 			throw new AssertionError(e);
+		} finally {
+			if(in!=null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Splits a json path made up of only field names and array indexes/wildcards into its steps,
+	 * returns null for expressions that need the jsonpath evaluator (deep scans, filters, slices)
+	 */
+	private static List<Object> parseJsonPath(String expression) {
+		String exp = expression.trim();
+		if(exp.startsWith("$")) {
+			exp = exp.substring(1);
+		}
+		List<Object> steps = new ArrayList<Object>();
+		Matcher matcher = JSON_PATH_TOKEN.matcher(exp);
+		int position = 0;
+		while(position<exp.length()) {
+			matcher.region(position, exp.length());
+			if(!matcher.lookingAt()) {
+				return null;
+			}
+			if(matcher.group(1)!=null) {
+				steps.add(matcher.group(1));
+			} else if(matcher.group(2)!=null) {
+				steps.add(Integer.valueOf(matcher.group(2)));
+			} else if(matcher.group(3)!=null) {
+				steps.add(matcher.group(3));
+			} else {
+				steps.add(ANY_INDEX);
+			}
+			position = matcher.end();
+		}
+		return steps;
+	}
+	
+	/**
+	 * Matches the scalar values of the json token stream against the json paths, the current position is 
+	 * tracked as a list of steps, a field name for objects and an index for arrays
+	 */
+	private void streamJSONFile(File file, List<String> variableNamesArr, List<List<Object>> paths, 
+			List<Map<String, String>> result) throws Exception {
+		RowAssembler assembler = new RowAssembler(variableNamesArr, result);
+		JsonParser parser = new JsonFactory().createJsonParser(file);
+		try {
+			List<Object> steps = new ArrayList<Object>();
+			List<Boolean> arrays = new ArrayList<Boolean>();
+			JsonToken token = null;
+			while((token = parser.nextToken())!=null) {
+				int top = steps.size() - 1;
+				if(token==JsonToken.FIELD_NAME) {
+					steps.set(top, parser.getCurrentName());
+					continue;
+				}
+				if(token==JsonToken.END_OBJECT || token==JsonToken.END_ARRAY) {
+					steps.remove(top);
+					arrays.remove(top);
+					continue;
+				}
+				if(top>=0 && arrays.get(top)) {
+					steps.set(top, (Integer)steps.get(top) + 1);
+				}
+				if(token==JsonToken.START_OBJECT) {
+					steps.add(null);
+					arrays.add(false);
+				} else if(token==JsonToken.START_ARRAY) {
+					steps.add(-1);
+					arrays.add(true);
+				} else {
+					for (int i = 0; i < paths.size(); i++) {
+						if(matchesJsonPath(paths.get(i), steps)) {
+							assembler.add(i, token==JsonToken.VALUE_NULL?null:parser.getText());
+						}
+					}
+				}
+			}
+		} finally {
+			parser.close();
+		}
+		assembler.finish("No values found for %s");
+	}
+	
+	private static boolean matchesJsonPath(List<Object> path, List<Object> steps) {
+		if(path.size()!=steps.size()) {
+			return false;
+		}
+		for (int i = 0; i < path.size(); i++) {
+			Object expected = path.get(i);
+			Object step = steps.get(i);
+			if(expected==ANY_INDEX) {
+				if(!(step instanceof Integer)) {
+					return false;
+				}
+			} else if(!expected.equals(step)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Builds rows out of the values of each variable as they are found in a stream, 
+	 * the n-th row holds the n-th value of every variable
+	 */
+	private static class RowAssembler {
+		
+		private final List<String> variableNames;
+		
+		private final List<Map<String, String>> result;
+		
+		private final List<LinkedList<String>> pending;
+		
+		private final int[] counts;
+		
+		private RowAssembler(List<String> variableNames, List<Map<String, String>> result) {
+			this.variableNames = variableNames;
+			this.result = result;
+			this.pending = new ArrayList<LinkedList<String>>(variableNames.size());
+			for (int i = 0; i < variableNames.size(); i++) {
+				pending.add(new LinkedList<String>());
+			}
+			this.counts = new int[variableNames.size()];
+		}
+		
+		private void add(int variable, String value) {
+			pending.get(variable).add(value);
+			counts[variable]++;
+			for (LinkedList<String> values : pending) {
+				if(values.isEmpty()) {
+					return;
+				}
+			}
+			Map<String, String> row = new HashMap<String, String>();
+			for (int i = 0; i < variableNames.size(); i++) {
+				row.put(variableNames.get(i), pending.get(i).poll());
+			}
+			result.add(row);
+		}
+		
+		private void finish(String emptyMessage) {
+			for (int i = 0; i < variableNames.size(); i++) {
+				Assert.assertTrue(String.format(emptyMessage, variableNames.get(i)), counts[i]>0);
+			}
+			for (LinkedList<String> values : pending) {
+				if(!values.isEmpty()) {
+					throw new AssertionError("Variable set sizes don't match");
+				}
+			}
 		}
 	}
 	
 	public static List<String[]> readCsvFamilyFile(String fileType, File file, char splitStr, int sheet)
+	{
+		final List<String[]> list = new ArrayList<String[]>();
+		readCsvFamilyFile(fileType, file, splitStr, sheet, new RecordHandler() {
+			public void handle(String[] parts) {
+				list.add(parts);
+			}
+		});
+		return list;
+	}
+	
+	/**
+	 * Reads a csv/xls/xlsx file one record at a time, csv files are read with a cursor and 
+	 * xlsx sheets through the sax event api, so only the current record is held in memory
+	 */
+	public static void readCsvFamilyFile(String fileType, File file, char splitStr, int sheet, RecordHandler handler)
 	{
 		Workbook hssfWorkbook = null;
 		CSVReader reader = null;
-		List<String[]> list = new ArrayList<String[]>();
 		try {
 			if(fileType.equalsIgnoreCase("csv")) {
 				reader = new CSVReader(new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8")), splitStr);
-				list = reader.readAll();
-			} else if(fileType.equalsIgnoreCase("xls") || fileType.equalsIgnoreCase("xlsx")) {
-				if(fileType.equalsIgnoreCase("xls")) {
-					hssfWorkbook = new HSSFWorkbook(new FileInputStream(file));
-				} else {
-					hssfWorkbook = new XSSFWorkbook(new FileInputStream(file));
+				String[] parts = null;
+				while((parts = reader.readNext())!=null) {
+					handler.handle(parts);
 				}
+			} else if(fileType.equalsIgnoreCase("xlsx")) {
+				readXlsxSheet(file, sheet, handler);
+			} else if(fileType.equalsIgnoreCase("xls")) {
+				hssfWorkbook = new HSSFWorkbook(new FileInputStream(file));
 				if(sheet >= hssfWorkbook.getNumberOfSheets()) {
 					throw new AssertionError("Invalid sheet number specified for file " + file.getName());
 				}
 				Sheet hssfSheet = hssfWorkbook.getSheetAt(sheet);
 				Iterator<Row> rows = hssfSheet.rowIterator();
+				DataFormatter fmt = new DataFormatter();
 				while (rows.hasNext()) {
 					Row hssfRow = rows.next();
 					String[] parts = new String[hssfRow.getLastCellNum()];
 					for(int cn=0; cn<hssfRow.getLastCellNum(); cn++) {
 						Cell hssfCell = hssfRow.getCell(cn, Row.CREATE_NULL_AS_BLANK);
-						DataFormatter fmt = new DataFormatter();
 						parts[cn] = fmt.formatCellValue(hssfCell);
 					}
-					list.add(parts);
+					handler.handle(parts);
 				}
 			}
+		} catch(AssertionError e) {
+			throw e;
 		} catch (Exception e) {
 			throw new AssertionError(e);
 		} finally {
@@ -316,6 +660,132 @@ public class FileTestDataProvider implements TestDataProvider {
 				}
 			}
 		}
-		return list;
+	}
+	
+	private static void readXlsxSheet(File file, int sheet, RecordHandler handler) throws Exception {
+		OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+		try {
+			XSSFReader xssfReader = new XSSFReader(pkg);
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+			StylesTable styles = xssfReader.getStylesTable();
+			Iterator<InputStream> sheets = xssfReader.getSheetsData();
+			for (int i = 0; sheets.hasNext(); i++) {
+				InputStream sheetStream = sheets.next();
+				try {
+					if(i==sheet) {
+						SAXParserFactory factory = SAXParserFactory.newInstance();
+						factory.setNamespaceAware(true);
+						XMLReader xmlReader = factory.newSAXParser().getXMLReader();
+						xmlReader.setContentHandler(new XlsxSheetHandler(strings, styles, handler));
+						xmlReader.parse(new InputSource(sheetStream));
+						return;
+					}
+				} finally {
+					sheetStream.close();
+				}
+			}
+			throw new AssertionError("Invalid sheet number specified for file " + file.getName());
+		} finally {
+			pkg.revert();
+		}
+	}
+	
+	/**
+	 * Converts the sheet xml sax events into records, cell values are formatted like 
+	 * the DataFormatter does for the usermodel cells
+	 */
+	private static class XlsxSheetHandler extends DefaultHandler {
+		
+		private final ReadOnlySharedStringsTable strings;
+		
+		private final StylesTable styles;
+		
+		private final RecordHandler handler;
+		
+		private final DataFormatter formatter = new DataFormatter();
+		
+		private final StringBuilder value = new StringBuilder();
+		
+		private List<String> record;
+		
+		private String cellType;
+		
+		private String cellStyle;
+		
+		private int column;
+		
+		private boolean inValue;
+		
+		private XlsxSheetHandler(ReadOnlySharedStringsTable strings, StylesTable styles, RecordHandler handler) {
+			this.strings = strings;
+			this.styles = styles;
+			this.handler = handler;
+		}
+		
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			if("row".equals(localName)) {
+				record = new ArrayList<String>();
+			} else if("c".equals(localName) && record!=null) {
+				String reference = attributes.getValue("r");
+				column = reference!=null?new CellReference(reference).getCol():record.size();
+				cellType = attributes.getValue("t");
+				cellStyle = attributes.getValue("s");
+				value.setLength(0);
+			} else if("v".equals(localName) || "t".equals(localName)) {
+				inValue = true;
+			}
+		}
+		
+		public void characters(char[] ch, int start, int length) {
+			if(inValue) {
+				value.append(ch, start, length);
+			}
+		}
+		
+		public void endElement(String uri, String localName, String qName) {
+			if("v".equals(localName) || "t".equals(localName)) {
+				inValue = false;
+			} else if("c".equals(localName) && record!=null) {
+				while(record.size()<column) {
+					record.add("");
+				}
+				String formatted = format();
+				if(column<record.size()) {
+					record.set(column, formatted);
+				} else {
+					record.add(formatted);
+				}
+			} else if("row".equals(localName) && record!=null) {
+				if(!record.isEmpty()) {
+					handler.handle(record.toArray(new String[record.size()]));
+				}
+				record = null;
+			}
+		}
+		
+		private String format() {
+			String raw = value.toString();
+			if("s".equals(cellType)) {
+				return raw.isEmpty()?"":strings.getEntryAt(Integer.parseInt(raw));
+			} else if("b".equals(cellType)) {
+				return "0".equals(raw)?"FALSE":"TRUE";
+			} else if("inlineStr".equals(cellType) || "str".equals(cellType) || "e".equals(cellType)) {
+				return raw;
+			} else if(raw.isEmpty()) {
+				return "";
+			}
+			
+			int formatIndex = 0;
+			String formatString = null;
+			if(cellStyle!=null && styles!=null) {
+				XSSFCellStyle style = styles.getStyleAt(Integer.parseInt(cellStyle));
+				formatIndex = style.getDataFormat();
+				formatString = style.getDataFormatString();
+			}
+			if(formatString==null) {
+				formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+			}
+			return formatter.formatRawCellContents(Double.parseDouble(raw), formatIndex, formatString);
+		}
 	}
 }
@@ -53,6 +53,12 @@ public class GatfTestDataProvider implements Serializable {
 	protected String[] args;
 	
 	private Boolean live;
+	
+	private Long liveCacheTtlMs;
+	
+	private Integer liveCacheMaxSize;
+	
+	private Boolean streaming;
 
 	public String getProviderName() {
 		return providerName;
@@ -129,6 +135,45 @@ public class GatfTestDataProvider implements Serializable {
 	public Boolean getEnabled() {
 		return enabled;
 	}
+
+	/**
+	 * @return the time in milliseconds for which the results of a live provider query are reused, 
+	 * the results are not cached when this is not specified
+	 */
+	public Long getLiveCacheTtlMs() {
+		return liveCacheTtlMs;
+	}
+
+	public void setLiveCacheTtlMs(Long liveCacheTtlMs) {
+		this.liveCacheTtlMs = liveCacheTtlMs;
+	}
+
+	/**
+	 * @return the maximum number of distinct live provider queries whose results are cached
+	 */
+	public Integer getLiveCacheMaxSize() {
+		return liveCacheMaxSize;
+	}
+
+	public void setLiveCacheMaxSize(Integer liveCacheMaxSize) {
+		this.liveCacheMaxSize = liveCacheMaxSize;
+	}
+	
+	public boolean isLiveCacheEnabled() {
+		return isLive() && liveCacheTtlMs!=null && liveCacheTtlMs>0;
+	}
+
+	/**
+	 * @return whether the provider data is loaded in the background, test cases start consuming 
+	 * the rows as soon as they are read instead of waiting for the whole file to load
+	 */
+	public Boolean isStreaming() {
+		return streaming!=null && streaming;
+	}
+
+	public void setStreaming(Boolean streaming) {
+		this.streaming = streaming;
+	}
 	
 	public GatfTestDataProvider(){}
 
@@ -145,5 +190,8 @@ public class GatfTestDataProvider implements Serializable {
 		    this.args = (String[])Arrays.asList(other.args).toArray(new String[other.args.length]);
 		}
 		this.live = other.live;
+		this.liveCacheTtlMs = other.liveCacheTtlMs;
+		this.liveCacheMaxSize = other.liveCacheMaxSize;
+		this.streaming = other.streaming;
 	}
 }
@@ -39,6 +39,8 @@ public class GatfTestDataSource implements Serializable {
 	
 	private long newResourceCheckoutTimeMs = 1000;
 	
+	private long maxIdleTimeMs = 300000;
+	
 	private String[] args;
 
 	public String getDataSourceName() {
@@ -80,4 +82,12 @@ public class GatfTestDataSource implements Serializable {
 	public void setNewResourceCheckoutTimeMs(long newResourceCheckoutTimeMs) {
 		this.newResourceCheckoutTimeMs = newResourceCheckoutTimeMs;
 	}
+
+	public long getMaxIdleTimeMs() {
+		return maxIdleTimeMs;
+	}
+
+	public void setMaxIdleTimeMs(long maxIdleTimeMs) {
+		this.maxIdleTimeMs = maxIdleTimeMs;
+	}
 }
@@ -0,0 +1,140 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.dataprovider;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Sumeet Chhetri
+ * A bounded, time limited cache for the results of a live provider keyed by the rendered query string,
+ * concurrent misses for the same query wait on a single provider call, every caller gets its own 
+ * copy of the rows so that the cached rows are never modified
+ */
+public class LiveProviderCache {
+
+	private static class CacheEntry {
+		private final FutureTask<List<Map<String, String>>> loader;
+		private final long createdAt = System.currentTimeMillis();
+		
+		private CacheEntry(Callable<List<Map<String, String>>> loader) {
+			this.loader = new FutureTask<List<Map<String, String>>>(loader);
+		}
+	}
+	
+	private final long ttlMs;
+	
+	private final LinkedHashMap<String, CacheEntry> entries;
+	
+	private final AtomicLong hits = new AtomicLong();
+	
+	private final AtomicLong misses = new AtomicLong();
+	
+	public LiveProviderCache(long ttlMs, final int maxSize) {
+		this.ttlMs = ttlMs;
+		this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+	
+	public List<Map<String, String>> get(String key, Callable<List<Map<String, String>>> loader)
+	{
+		CacheEntry entry = null;
+		boolean load = false;
+		synchronized (entries) {
+			entry = entries.get(key);
+			if(entry!=null && System.currentTimeMillis() - entry.createdAt > ttlMs) {
+				entries.remove(key);
+				entry = null;
+			}
+			if(entry==null) {
+				entry = new CacheEntry(loader);
+				entries.put(key, entry);
+				load = true;
+			}
+		}
+		
+		if(load) {
+			misses.incrementAndGet();
+			entry.loader.run();
+		} else {
+			hits.incrementAndGet();
+		}
+		
+		try {
+			return copy(entry.loader.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			synchronized (entries) {
+				if(entries.get(key)==entry) {
+					entries.remove(key);
+				}
+			}
+			if(e.getCause() instanceof Error) {
+				throw (Error)e.getCause();
+			}
+			if(e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+	
+	private static List<Map<String, String>> copy(List<Map<String, String>> rows)
+	{
+		if(rows==null) {
+			return null;
+		}
+		List<Map<String, String>> copy = new ArrayList<Map<String, String>>(rows.size());
+		for (Map<String, String> row : rows) {
+			copy.add(row!=null?new LinkedHashMap<String, String>(row):null);
+		}
+		return copy;
+	}
+	
+	public void clear()
+	{
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+	
+	public int size()
+	{
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+}
@@ -48,6 +48,8 @@ public class MongoDBTestDataSource extends TestDataSource {
 	
 	List<ServerAddress> addresses = new ArrayList<ServerAddress>();
 	
+	private String dbName, username, password;
+	
 	public void init() {
 		if(args==null || args.length==0) {
 			throw new AssertionError("No arguments passed to the MongoDBTestDataProvider");
@@ -64,13 +66,13 @@ public class MongoDBTestDataSource extends TestDataSource {
 		
 		String host = args[0].trim();
 		String port = args[1].trim();
-		String dbName = args[2].trim();
+		dbName = args[2].trim();
 		
 		Assert.assertFalse("mongodb-host cannot be empty", host.isEmpty());
 		Assert.assertFalse("mongodb-port cannot be empty", port.isEmpty());
 		Assert.assertFalse("mongodb-database cannot be empty", dbName.isEmpty());
 		
-		String username = null, password = "";
+		password = "";
 		if(args.length>3) {
 			Assert.assertNotNull("mongodb-user cannot be empty", args[3]);
 			Assert.assertFalse("mongodb-user cannot be empty", args[3].isEmpty());
@@ -115,28 +117,7 @@ public class MongoDBTestDataSource extends TestDataSource {
 			}
 			
 			for (int i = 0; i < poolSize; i++) {
-				MongoClient mongoClient = null;
-				//Now try connecting to the Database
-				try {
-					mongoClient = new MongoClient(addresses);
-				} catch (Exception e) {
-					throw new AssertionError(String.format("Connection to MongoDB failed with the error %s", 
-							ExceptionUtils.getStackTrace(e)));
-				}
-				
-				DB db = null;
-				try {
-					db = mongoClient.getDB(dbName);
-					if(username!=null && password!=null) {
-						Assert.assertTrue(String.format("Authentication to the Mongo database %s failed with %s/%s", dbName, 
-								username, password), db.authenticate(username, password.toCharArray()));
-					}
-				} catch (Exception e) {
-					throw new AssertionError(String.format("Error during initialization of MongoDB connection %s", 
-							ExceptionUtils.getStackTrace(e)));
-				}
-				
-				addToPool(mongoClient, false);
+				addToPool(createResource());
 			}
 		} catch (Exception e) {
 			throw new AssertionError(String.format("Error during initialization of MongoDB connection %s", 
@@ -146,12 +127,34 @@ public class MongoDBTestDataSource extends TestDataSource {
 
 	}
 	
-	public void destroy() {
-		for (Resource res : pool) {
-			MongoClient mongoClient = (MongoClient)res.object;
+	protected Object createResource() {
+		MongoClient mongoClient = null;
+		//Now try connecting to the Database
+		try {
+			mongoClient = new MongoClient(addresses);
+		} catch (Exception e) {
+			throw new AssertionError(String.format("Connection to MongoDB failed with the error %s", 
+					ExceptionUtils.getStackTrace(e)));
+		}
+		
+		DB db = null;
+		try {
+			db = mongoClient.getDB(dbName);
+			if(username!=null && password!=null) {
+				Assert.assertTrue(String.format("Authentication to the Mongo database %s failed with %s/%s", dbName, 
+						username, password), db.authenticate(username, password.toCharArray()));
+			}
+		} catch (Exception e) {
 			mongoClient.close();
+			throw new AssertionError(String.format("Error during initialization of MongoDB connection %s", 
+					ExceptionUtils.getStackTrace(e)));
 		}
-		logger.info("Releasing connections....");
+		return mongoClient;
+	}
+	
+	protected void closeResource(Object object) {
+		MongoClient mongoClient = (MongoClient)object;
+		mongoClient.close();
 	}
 	
 	public List<Map<String, String>> provide(GatfTestDataProvider provider, AcceptanceTestContext context) {
@@ -207,7 +210,7 @@ public class MongoDBTestDataSource extends TestDataSource {
 		Resource res = null;
 		try {
 			
-			res = getResource();
+			res = checkoutFromPool();
 			MongoClient mongoClient = (MongoClient)res.object;
 			
 			DB db = null;
@@ -317,7 +320,7 @@ public class MongoDBTestDataSource extends TestDataSource {
 		Resource res = null;
 		try {
 			
-			res = getResource();
+			res = checkoutFromPool();
 			MongoClient mongoClient = (MongoClient)res.object;
 			
 			DB db = null;
@@ -359,38 +362,4 @@ public class MongoDBTestDataSource extends TestDataSource {
 		}
 		return result;
 	}
-	
-	private Resource getResource() {
-		Resource res = checkoutFromPool();
-		MongoClient mongoClient = null;
-		if(res==null)
-		{
-			try {
-				Thread.sleep(newResourceCheckoutTimeMs/2);
-			} catch (InterruptedException e1) {
-				e1.printStackTrace();
-			}
-			
-			res = checkoutFromPool();
-			if(res!=null)return res;
-			
-			try {
-				Thread.sleep(newResourceCheckoutTimeMs/2);
-			} catch (InterruptedException e1) {
-				e1.printStackTrace();
-			}
-			
-			res = checkoutFromPool();
-			if(res!=null)return res;
-			
-			try {
-				mongoClient = new MongoClient(addresses);
-			} catch (Exception e) {
-				throw new AssertionError(String.format("Connection to MongoDB failed with the error %s", 
-						ExceptionUtils.getStackTrace(e)));
-			}
-			res = addToPool(mongoClient, true);
-		}
-		return res;
-	}
 }
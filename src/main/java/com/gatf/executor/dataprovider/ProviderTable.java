@@ -0,0 +1,224 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.dataprovider;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * @author Sumeet Chhetri
+ * A columnar store for provider test data, all the rows share a single column schema and the values of 
+ * each column are kept in one array, repeated values are de-duplicated while the table is built,
+ * rows are exposed as lightweight read-only map views so that velocity templates and existing callers 
+ * can keep using the List<Map<String, String>> contract
+ */
+public class ProviderTable extends AbstractList<Map<String, String>> implements RandomAccess, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	//Marks a column that is not present in a row, compared by reference
+	private static final String ABSENT = new String("__gatf_absent__");
+	
+	private String[] columns = new String[0];
+	
+	private final Map<String, Integer> columnIndex = new HashMap<String, Integer>();
+	
+	private String[][] values = new String[0][];
+	
+	private int size;
+	
+	private int capacity;
+	
+	public ProviderTable() {
+	}
+	
+	public ProviderTable(List<Map<String, String>> rows) {
+		ensureCapacity(rows.size());
+		Map<String, String> dictionary = new HashMap<String, String>();
+		for (Map<String, String> row : rows) {
+			addRow(row, dictionary);
+		}
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public Map<String, String> get(int index) {
+		if(index<0 || index>=size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return new Row(index);
+	}
+	
+	/**
+	 * Rows can only be appended, existing rows are shared between test cases and are never modified
+	 */
+	public synchronized void add(int index, Map<String, String> row) {
+		if(index!=size) {
+			throw new UnsupportedOperationException("Rows can only be appended to a provider table");
+		}
+		addRow(row, null);
+		modCount++;
+	}
+	
+	public String[] getColumns() {
+		return Arrays.copyOf(columns, columns.length);
+	}
+	
+	private void addRow(Map<String, String> row, Map<String, String> dictionary) {
+		ensureCapacity(size + 1);
+		if(row!=null) {
+			for (Map.Entry<String, String> entry : row.entrySet()) {
+				String value = entry.getValue();
+				if(value!=null && dictionary!=null) {
+					String existing = dictionary.get(value);
+					if(existing==null) {
+						dictionary.put(value, value);
+					} else {
+						value = existing;
+					}
+				}
+				int column = column(entry.getKey());
+				values[column][size] = value;
+			}
+		}
+		size++;
+	}
+	
+	private int column(String name) {
+		Integer index = columnIndex.get(name);
+		if(index==null) {
+			index = columns.length;
+			columns = Arrays.copyOf(columns, index + 1);
+			columns[index] = name;
+			values = Arrays.copyOf(values, index + 1);
+			values[index] = new String[capacity];
+			Arrays.fill(values[index], ABSENT);
+			columnIndex.put(name, index);
+		}
+		return index;
+	}
+	
+	private void ensureCapacity(int required) {
+		if(required<=capacity) {
+			return;
+		}
+		int newCapacity = Math.max(required, capacity + (capacity >> 1));
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Arrays.copyOf(values[i], newCapacity);
+			Arrays.fill(values[i], capacity, newCapacity, ABSENT);
+		}
+		capacity = newCapacity;
+	}
+	
+	private Object writeReplace() {
+		List<Map<String, String>> rows = new ArrayList<Map<String, String>>(size);
+		for (int i = 0; i < size; i++) {
+			rows.add(new HashMap<String, String>(get(i)));
+		}
+		return rows;
+	}
+	
+	/**
+	 * A read-only view of a single row of the table
+	 */
+	private class Row extends AbstractMap<String, String> implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int index;
+		
+		private Row(int index) {
+			this.index = index;
+		}
+		
+		public String get(Object key) {
+			Integer column = columnIndex.get(key);
+			if(column==null) {
+				return null;
+			}
+			String value = values[column][index];
+			return value==ABSENT?null:value;
+		}
+		
+		public boolean containsKey(Object key) {
+			Integer column = columnIndex.get(key);
+			return column!=null && values[column][index]!=ABSENT;
+		}
+		
+		public Set<Map.Entry<String, String>> entrySet() {
+			return new AbstractSet<Map.Entry<String, String>>() {
+				public Iterator<Map.Entry<String, String>> iterator() {
+					return new Iterator<Map.Entry<String, String>>() {
+						private final String[] names = columns;
+						private int next = advance(0);
+						
+						private int advance(int from) {
+							while(from<names.length && values[from][index]==ABSENT) {
+								from++;
+							}
+							return from;
+						}
+						
+						public boolean hasNext() {
+							return next<names.length;
+						}
+						
+						public Map.Entry<String, String> next() {
+							if(next>=names.length) {
+								throw new NoSuchElementException();
+							}
+							Map.Entry<String, String> entry = new AbstractMap.SimpleImmutableEntry<String, String>(
+									names[next], values[next][index]);
+							next = advance(next + 1);
+							return entry;
+						}
+						
+						public void remove() {
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+				
+				public int size() {
+					int count = 0;
+					for (int i = 0; i < columns.length; i++) {
+						if(values[i][index]!=ABSENT) {
+							count++;
+						}
+					}
+					return count;
+				}
+			};
+		}
+		
+		private Object writeReplace() {
+			return new HashMap<String, String>(this);
+		}
+	}
+}
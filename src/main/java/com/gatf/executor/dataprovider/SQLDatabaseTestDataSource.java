@@ -87,16 +87,7 @@ public class SQLDatabaseTestDataSource extends TestDataSource {
 			}
 			
 			for (int i = 0; i < poolSize; i++) {
-				//Now try connecting to the Database
-				Connection conn = null;
-				try {
-					conn = CustomDriverManager.getConnection(jdbcUrl, dbUserName, dbPassword);
-				} catch (Exception e) {
-					throw new AssertionError(String.format("Connection to the Database using the JDBC URL %s failed with the error %s", 
-							jdbcUrl, ExceptionUtils.getStackTrace(e)));
-				}
-				
-				addToPool(conn, false);
+				addToPool(createResource());
 			}
 			
 		} catch (Exception t) {
@@ -106,16 +97,32 @@ public class SQLDatabaseTestDataSource extends TestDataSource {
 		}
 	}
 	
-	public void destroy() {
-		for (Resource res : pool) {
-			Connection conn = (Connection)res.object;
-			try {
-				conn.close();
-			} catch (SQLException e) {
-				e.printStackTrace();
-			}
+	protected Object createResource() {
+		//Now try connecting to the Database
+		try {
+			return CustomDriverManager.getConnection(jdbcUrl, dbUserName, dbPassword);
+		} catch (Exception e) {
+			throw new AssertionError(String.format("Connection to the Database using the JDBC URL %s failed with the error %s", 
+					jdbcUrl, ExceptionUtils.getStackTrace(e)));
+		}
+	}
+	
+	protected boolean isValidResource(Object object) {
+		Connection conn = (Connection)object;
+		try {
+			return !conn.isClosed() && conn.isValid(2);
+		} catch (Exception e) {
+			return false;
+		}
+	}
+	
+	protected void closeResource(Object object) {
+		Connection conn = (Connection)object;
+		try {
+			conn.close();
+		} catch (SQLException e) {
+			e.printStackTrace();
 		}
-		logger.info("Releasing connections....");
 	}
 	
 	public List<Map<String, String>> provide(GatfTestDataProvider provider, AcceptanceTestContext context) {
@@ -155,7 +162,7 @@ public class SQLDatabaseTestDataSource extends TestDataSource {
 			
 			try {
 				
-				res = getResource();
+				res = checkoutFromPool();
 				Connection conn = (Connection)res.object;
 				
 				statement = conn.createStatement();
@@ -222,7 +229,7 @@ public class SQLDatabaseTestDataSource extends TestDataSource {
 			
 			Statement statement = null;
 			try {
-				res = getResource();
+				res = checkoutFromPool();
 				Connection conn = (Connection)res.object;
 				
 				statement = conn.createStatement();
@@ -245,39 +252,4 @@ public class SQLDatabaseTestDataSource extends TestDataSource {
 		}
 		return response;
 	}
-	
-	private Resource getResource() {
-		Resource res = checkoutFromPool();
-		Connection conn = null;
-		if(res==null)
-		{
-			try {
-				Thread.sleep(newResourceCheckoutTimeMs/2);
-			} catch (InterruptedException e1) {
-				e1.printStackTrace();
-			}
-			
-			res = checkoutFromPool();
-			if(res!=null)return res;
-			
-			try {
-				Thread.sleep(newResourceCheckoutTimeMs/2);
-			} catch (InterruptedException e1) {
-				e1.printStackTrace();
-			}
-			
-			res = checkoutFromPool();
-			if(res!=null)return res;
-			
-			//Now try connecting to the Database
-			try {
-				conn = CustomDriverManager.getConnection(jdbcUrl, dbUserName, dbPassword);
-			} catch (Exception e) {
-				throw new AssertionError(String.format("Connection to the Database using the JDBC URL %s failed with the error %s", 
-						jdbcUrl, ExceptionUtils.getStackTrace(e)));
-			}
-			res = addToPool(conn, true);
-		}
-		return res;
-	}
 }
@@ -0,0 +1,143 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.dataprovider;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * @author Sumeet Chhetri
+ * Provider data that is still being loaded in the background, readers only wait for the rows they access,
+ * iterating the rows follows the loader while size() waits for the whole data set to load
+ */
+public class StreamingProviderData extends AbstractList<Map<String, String>> implements RandomAccess, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final ProviderTable table = new ProviderTable();
+	
+	private final Object lock = new Object();
+	
+	private boolean complete;
+	
+	private Throwable error;
+	
+	/**
+	 * Called by the loader, rows can only be appended
+	 */
+	public boolean add(Map<String, String> row) {
+		synchronized (lock) {
+			table.add(row);
+			lock.notifyAll();
+		}
+		modCount++;
+		return true;
+	}
+	
+	public void add(int index, Map<String, String> row) {
+		synchronized (lock) {
+			table.add(index, row);
+			lock.notifyAll();
+		}
+		modCount++;
+	}
+	
+	/**
+	 * Called by the loader once all the rows have been read or the load has failed
+	 */
+	public void complete(Throwable error) {
+		synchronized (lock) {
+			this.error = error;
+			this.complete = true;
+			lock.notifyAll();
+		}
+	}
+	
+	public boolean isComplete() {
+		synchronized (lock) {
+			return complete;
+		}
+	}
+	
+	public Map<String, String> get(int index) {
+		synchronized (lock) {
+			awaitRows(index + 1);
+			return new HashMap<String, String>(table.get(index));
+		}
+	}
+	
+	public int size() {
+		synchronized (lock) {
+			return awaitRows(Integer.MAX_VALUE);
+		}
+	}
+	
+	public boolean isEmpty() {
+		synchronized (lock) {
+			return awaitRows(1)==0;
+		}
+	}
+	
+	public Iterator<Map<String, String>> iterator() {
+		return new Iterator<Map<String, String>>() {
+			private int next = 0;
+			
+			public boolean hasNext() {
+				synchronized (lock) {
+					return awaitRows(next + 1)>next;
+				}
+			}
+			
+			public Map<String, String> next() {
+				synchronized (lock) {
+					if(awaitRows(next + 1)<=next) {
+						throw new NoSuchElementException();
+					}
+					return new HashMap<String, String>(table.get(next++));
+				}
+			}
+			
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+	
+	private Object writeReplace() {
+		return new ArrayList<Map<String, String>>(this);
+	}
+	
+	private int awaitRows(int count) {
+		while(table.size()<count && !complete) {
+			try {
+				lock.wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new AssertionError("Interrupted while waiting for the provider data to load");
+			}
+		}
+		if(table.size()<count && error!=null) {
+			throw new AssertionError(error);
+		}
+		return table.size();
+	}
+}
@@ -16,8 +16,14 @@
 package com.gatf.executor.dataprovider;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
 
 import com.gatf.executor.core.AcceptanceTestContext;
 
@@ -26,9 +32,14 @@ import com.gatf.executor.core.AcceptanceTestContext;
  * This interface defines the contract for implementation of a test data provider
  * The outcome is expected to be a list of key/value pairs
  * for e.g, (database rows = list, database row column values = map)
+ * The resources (connections) of a data source are pooled, at most poolSize resources are checked out 
+ * at any time, callers wait for at most newResourceCheckoutTimeMs for a free resource, idle resources are 
+ * validated on checkout and closed after maxIdleTimeMs
  */
 public abstract class TestDataSource implements TestDataProvider, TestDataHook {
 
+	private static final Logger logger = Logger.getLogger(TestDataSource.class.getSimpleName());
+	
 	protected String className;
 	
 	protected String[] args;
@@ -39,11 +50,21 @@ public abstract class TestDataSource implements TestDataProvider, TestDataHook {
 	
 	protected long newResourceCheckoutTimeMs = 1000;
 	
+	protected long maxIdleTimeMs = 300000;
+	
 	private AcceptanceTestContext context;
 	
-	protected final List<Resource> pool = new ArrayList<Resource>();
+	protected final List<Resource> pool = new CopyOnWriteArrayList<Resource>();
+	
+	private final ConcurrentLinkedDeque<Resource> idleResources = new ConcurrentLinkedDeque<Resource>();
+	
+	private Semaphore permits = new Semaphore(poolSize, true);
+	
+	private final AtomicInteger activeCount = new AtomicInteger();
 	
-	private final List<Boolean> poolBusyStatus = new ArrayList<Boolean>();
+	private final AtomicInteger waitingCount = new AtomicInteger();
+	
+	private final AtomicLong checkoutTimeouts = new AtomicLong();
 	
 	public void setContext(AcceptanceTestContext context) {
 		this.context = context;
@@ -87,6 +108,7 @@ public abstract class TestDataSource implements TestDataProvider, TestDataHook {
 
 	public void setPoolSize(int poolSize) {
 		this.poolSize = poolSize;
+		this.permits = new Semaphore(poolSize, true);
 	}
 	
 	public long getNewResourceCheckoutTimeMs() {
@@ -97,43 +119,149 @@ public abstract class TestDataSource implements TestDataProvider, TestDataHook {
 		this.newResourceCheckoutTimeMs = newResourceCheckoutTimeMs;
 	}
 
+	public long getMaxIdleTimeMs() {
+		return maxIdleTimeMs;
+	}
+
+	public void setMaxIdleTimeMs(long maxIdleTimeMs) {
+		this.maxIdleTimeMs = maxIdleTimeMs;
+	}
+
 	public void init() {
 	}
 	
 	public void destroy() {
+		idleResources.clear();
+		for (Resource res : pool) {
+			closeResource(res.object);
+		}
+		pool.clear();
+		logger.info("Releasing connections....");
 	}
 	
-	public Resource addToPool(Object object, boolean initialStatus) {
-		synchronized (pool) {
-			Resource res = new Resource();
-			res.index = pool.size();
-			res.object = object;
-			pool.add(res);
-			poolBusyStatus.add(initialStatus);
-			return res;
-		}
+	/**
+	 * Create a new resource for the pool, called when no idle resource is available at checkout
+	 */
+	protected Object createResource() {
+		throw new AssertionError("DataSource " + dataSourceName + " cannot create new pool resources");
+	}
+	
+	/**
+	 * Check whether an idle resource can still be used, invalid resources are closed and replaced
+	 */
+	protected boolean isValidResource(Object object) {
+		return true;
+	}
+	
+	protected void closeResource(Object object) {
+	}
+	
+	/**
+	 * Add an idle resource to the pool, used to pre-create the resources when the data source is initialized
+	 */
+	public Resource addToPool(Object object) {
+		Resource res = new Resource();
+		res.object = object;
+		res.lastUsedTime = System.currentTimeMillis();
+		pool.add(res);
+		idleResources.offerLast(res);
+		return res;
 	}
 	
 	public void releaseToPool(Resource res) {
-		synchronized (pool) {
-			poolBusyStatus.set(res.index, false);
-		}
+		res.lastUsedTime = System.currentTimeMillis();
+		idleResources.offerFirst(res);
+		activeCount.decrementAndGet();
+		permits.release();
+		evictIdleResources();
 	}
 	
+	/**
+	 * Checkout a resource from the pool, waits for at most newResourceCheckoutTimeMs for a resource 
+	 * to be released when all the resources are in use
+	 */
 	public Resource checkoutFromPool() {
-		synchronized (pool) {
-			for (int i=0;i<poolBusyStatus.size();i++) {
-				if(!poolBusyStatus.get(i)) {
-					poolBusyStatus.set(i, true);
-					return pool.get(i);
+		boolean acquired = false;
+		waitingCount.incrementAndGet();
+		try {
+			acquired = permits.tryAcquire(newResourceCheckoutTimeMs, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			waitingCount.decrementAndGet();
+		}
+		
+		if(!acquired) {
+			checkoutTimeouts.incrementAndGet();
+			throw new AssertionError(String.format("Timed out after %dms waiting for a resource from the %s datasource pool", 
+					newResourceCheckoutTimeMs, dataSourceName));
+		}
+		
+		try {
+			Resource res = null;
+			while((res = idleResources.pollFirst())!=null) {
+				if(isValidResource(res.object)) {
+					break;
 				}
+				discard(res);
+			}
+			if(res==null) {
+				res = new Resource();
+				res.object = createResource();
+				pool.add(res);
+			}
+			activeCount.incrementAndGet();
+			return res;
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		} catch (Error e) {
+			permits.release();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Close the resources that have not been used for maxIdleTimeMs, the least recently used 
+	 * resources are at the end of the idle queue
+	 */
+	private void evictIdleResources() {
+		long now = System.currentTimeMillis();
+		Resource res = null;
+		while((res = idleResources.peekLast())!=null && now - res.lastUsedTime > maxIdleTimeMs) {
+			if(idleResources.removeLastOccurrence(res)) {
+				discard(res);
 			}
 		}
-		return null;
+	}
+	
+	private void discard(Resource res) {
+		pool.remove(res);
+		try {
+			closeResource(res.object);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	public int getActiveCount() {
+		return activeCount.get();
+	}
+	
+	public int getIdleCount() {
+		return idleResources.size();
+	}
+	
+	public int getWaitingCount() {
+		return waitingCount.get();
+	}
+	
+	public long getCheckoutTimeouts() {
+		return checkoutTimeouts.get();
 	}
 	
 	protected static class Resource {
-		int index;
 		Object object;
+		volatile long lastUsedTime;
 	}
 }
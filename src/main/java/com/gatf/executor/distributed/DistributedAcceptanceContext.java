@@ -34,7 +34,9 @@ public class DistributedAcceptanceContext implements Serializable {
 		LOAD_TESTS_RES,
 		SELENIUM_REQ,
 		SELENIUM_RES,
-		INVALID
+		INVALID,
+		FILE_CHUNK,
+		FILE_END
 	}
 	
 	private String node = null;
@@ -15,14 +15,10 @@
 */
 package com.gatf.executor.distributed;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.URL;
@@ -36,13 +32,11 @@ import java.util.UUID;
 import java.util.logging.Logger;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 
 import com.gatf.executor.core.GatfTestCaseExecutorMojo;
 import com.gatf.executor.distributed.DistributedAcceptanceContext.Command;
+import com.gatf.executor.distributed.DistributedProtocol.Frame;
 import com.gatf.executor.report.ReportHandler;
-import com.gatf.executor.report.RuntimeReportUtil;
-import com.gatf.executor.report.RuntimeReportUtil.LoadTestEntry;
 import com.gatf.selenium.SeleniumDriverConfig;
 import com.gatf.selenium.SeleniumTest;
 import com.gatf.selenium.SeleniumTest.SeleniumResult;
@@ -67,16 +61,13 @@ public class DistributedGatfListener {
 		try {
 			while(true) {
 				final Socket client = server.accept();
-				InputStream in = client.getInputStream();
-				OutputStream out = client.getOutputStream();
-				
-				final ObjectInputStream ois = new ObjectInputStream(in);
-				final ObjectOutputStream oos = new ObjectOutputStream(out);
 				
 				new Thread(new Runnable() {
 					public void run() {
 						try {
-							handleCommand(ois, oos);
+							DistributedProtocol protocol = new DistributedProtocol(client);
+							protocol.handshake();
+							handleCommand(protocol);
 						} catch (Exception e) {
 							e.printStackTrace();
 						} finally {
@@ -97,7 +88,7 @@ public class DistributedGatfListener {
 		}
 	}
 	
-	private static void handleCommand(ObjectInputStream ois, final ObjectOutputStream oos) throws Exception {
+	private static void handleCommand(final DistributedProtocol protocol) throws Exception {
 		
 		logger.info("Got a new distributed GATF request...");
 		
@@ -105,147 +96,149 @@ public class DistributedGatfListener {
 		DistributedTestContext tContext = null;
 		try {
 			
-			Command command = (Command)ois.readObject();
+			Frame frame = protocol.readFrame();
+			Command command = frame.getCommand();
 			logger.info("Received command - " + command);
 			if(command==Command.CONFIG_SHARE_REQ) {
-				context = (DistributedAcceptanceContext)ois.readObject();
+				context = (DistributedAcceptanceContext)DistributedProtocol.fromCompressedBytes(frame.getPayload());
 				if(context!=null) {
-					oos.writeObject(Command.CONFIG_SHARE_RES);
-					oos.flush();
+					protocol.writeCommand(Command.CONFIG_SHARE_RES);
 					logger.info("Fetched GATF configuration...");
 				} else {
-					oos.writeObject(Command.INVALID);
-					oos.flush();
+					protocol.writeCommand(Command.INVALID);
 					logger.info("Invalid GATF configuration received...");
+					return;
 				}
 			} else {
-				oos.writeObject(Command.INVALID);
-				oos.flush();
+				protocol.writeCommand(Command.INVALID);
 				logger.info("Invalid Command received...");
+				return;
 			}
 			
-			command = (Command)ois.readObject();
-			logger.info("Received command - " + command);
-			if(command==Command.TESTS_SHARE_REQ) {
-				tContext = (DistributedTestContext)ois.readObject();
-				if(tContext!=null) {
-					oos.writeObject(Command.TESTS_SHARE_RES);
-					oos.flush();
-					logger.info("Fetched GATF tests ...");
-					
-					logger.info("Started executing GATF tests...");
-					GatfTestCaseExecutorMojo mojo = new GatfTestCaseExecutorMojo();
-					
-					Thread dlreporter = new Thread(new Runnable() {
-						public void run() {
-							try {
-								while(true) {
-									LoadTestEntry entry = RuntimeReportUtil.getDLEntry();
-									if(entry!=null) {
-										oos.writeObject(Command.LOAD_TESTS_RES);
-										oos.writeObject(entry);
-										oos.flush();
-									}
-									Thread.sleep(500);
-								}
-							} catch (Exception e) {
-								LoadTestEntry entry = null;
-								while((entry=RuntimeReportUtil.getDLEntry())!=null)
-								{
-									try {
-										if(entry!=null) {
-											oos.writeObject(Command.LOAD_TESTS_RES);
-											oos.writeObject(entry);
-											oos.flush();
-										}
-									} catch (IOException e1) {
-									}
-								}
-							}
-						}
-					});
-					dlreporter.start();
-					context.getConfig().setTestCasesBasePath(System.getProperty("user.dir"));
-					context.getConfig().setOutFilesBasePath(System.getProperty("user.dir"));
-					logger.info("Current working directory is: " + System.getProperty("user.dir"));
-					DistributedTestStatus report = mojo.handleDistributedTests(context, tContext);
-					mojo.shutdown();
-					Thread.sleep(2000);
-					
-					dlreporter.interrupt();
-					Thread.sleep(3000);
-					
-					oos.writeObject(Command.TESTS_SHARE_RES);
-					oos.flush();
-					
-					String fileName = UUID.randomUUID().toString()+".zip";
-					report.setZipFileName(fileName);
-					
-					oos.writeObject(report);
-					oos.flush();
-					logger.info("Writing GATF results...");
-					
-					File basePath = null;
-		        	if(context.getConfig().getOutFilesBasePath()!=null)
-		        		basePath = new File(context.getConfig().getOutFilesBasePath());
-		        	else
-		        	{
-		        		URL url = Thread.currentThread().getContextClassLoader().getResource(".");
-		        		basePath = new File(url.getPath());
-		        	}
-		        	File resource = new File(basePath, context.getConfig().getOutFilesDir());
-		        	
-					ReportHandler.zipDirectory(resource, new String[]{".html",".csv"}, fileName, false);
-					
-					File zipFile = new File(resource, fileName);
-					IOUtils.copy(new FileInputStream(zipFile), oos);
-					oos.flush();
-					logger.info("Done Writing GATF results...");
+			while(true) {
+				try {
+					frame = protocol.readFrame();
+				} catch (EOFException e) {
+					logger.info("Distributed GATF connection closed by the controller...");
+					break;
+				}
+				command = frame.getCommand();
+				logger.info("Received command - " + command);
+				if(command==Command.TESTS_SHARE_REQ) {
+					tContext = (DistributedTestContext)DistributedProtocol.fromCompressedBytes(frame.getPayload());
+					if(tContext!=null) {
+						handleTests(protocol, context, tContext);
+					} else {
+						protocol.writeCommand(Command.INVALID);
+						logger.info("Invalid GATF tests received...");
+					}
+				} else if(command==Command.SELENIUM_REQ) {
+					handleSeleniumTests(protocol, context);
+					break;
 				} else {
-					oos.writeObject(Command.INVALID);
-					oos.flush();
-					logger.info("Invalid GATF tests received...");
+					protocol.writeCommand(Command.INVALID);
+					logger.info("Invalid Command received...");
 				}
-			} else if(command==Command.SELENIUM_REQ) {
-				
-				File gcdir = new File(FileUtils.getTempDirectory(), "dist-gatf-code");
-		        if(gcdir.exists()) {
-		        	FileUtils.deleteDirectory(gcdir);
-		        }
-				
-				gcdir.mkdir();
-				String fileName = UUID.randomUUID().toString()+".zip";
-				File zipFile = new File(gcdir, fileName);
-	        	FileOutputStream fos = new FileOutputStream(zipFile);
-				IOUtils.copy(ois, fos);
-				fos.flush();
-				fos.close();
-				
-				ReportHandler.unzipZipFile(new FileInputStream(zipFile), gcdir.getAbsolutePath());
-				zipFile.delete();
-				
-				URL[] urls = new URL[1];
-	            urls[0] = gcdir.toURI().toURL();
-				URLClassLoader classLoader = new URLClassLoader(urls, DistributedGatfListener.class.getClassLoader());
-				Thread.currentThread().setContextClassLoader(classLoader);
-				
-				List<Class<SeleniumTest>> tests = new ArrayList<Class<SeleniumTest>>();
-				@SuppressWarnings("unchecked")
-				List<String> testClassNames = (List<String>)ois.readObject();
-				for (String clsname : testClassNames) {
-					@SuppressWarnings("unchecked")
-					Class<SeleniumTest> loadedClass = (Class<SeleniumTest>)classLoader.loadClass(clsname);
-					tests.add(loadedClass);
+			}
+		} catch (Exception e) {
+			try {
+				protocol.writeCommand(Command.INVALID);
+			} catch (IOException e1) {
+			}
+			logger.info("Error occurred during distributed GATF execution...");
+			throw e;
+		}
+	}
+	
+	/**
+	 * Execute the load tests while pushing the stats deltas to the controller every 
+	 * {@link DistributedStatsPublisher#PUBLISH_INTERVAL_MS}, only the final stats are sent at the end 
+	 * of the run, the controller renders the reports itself
+	 */
+	private static void handleTests(final DistributedProtocol protocol, DistributedAcceptanceContext context, 
+			DistributedTestContext tContext) throws Exception {
+		protocol.writeCommand(Command.TESTS_SHARE_RES);
+		logger.info("Fetched GATF tests ...");
+		
+		logger.info("Started executing GATF tests...");
+		GatfTestCaseExecutorMojo mojo = new GatfTestCaseExecutorMojo();
+		
+		final DistributedStatsPublisher publisher = new DistributedStatsPublisher(context.getNode(), "DRun-"+tContext.getIndex());
+		Thread statsPusher = new Thread(new Runnable() {
+			public void run() {
+				try {
+					while(!Thread.currentThread().isInterrupted()) {
+						Thread.sleep(DistributedStatsPublisher.PUBLISH_INTERVAL_MS);
+						DistributedTestStatus delta = publisher.drain();
+						if(delta!=null) {
+							protocol.writeFrame(Command.LOAD_TESTS_RES, DistributedProtocol.encodeTestStatus(delta));
+						}
+					}
+				} catch (InterruptedException e) {
+				} catch (IOException e) {
+					e.printStackTrace();
 				}
-				
-				oos.writeObject(Command.SELENIUM_RES);
-				oos.flush();
-				
-				if(tests==null || tests.size()==0 || context.getConfig().isValidSeleniumRequest()) {
-					boolean driverfound = true;
-					for (SeleniumDriverConfig selConf : context.getConfig().getSeleniumDriverConfigs())
-		            {
-					    if(!new File(selConf.getPath()).exists()) {
+			}
+		});
+		statsPusher.start();
+		
+		context.getConfig().setTestCasesBasePath(System.getProperty("user.dir"));
+		context.getConfig().setOutFilesBasePath(System.getProperty("user.dir"));
+		logger.info("Current working directory is: " + System.getProperty("user.dir"));
+		DistributedTestStatus report = null;
+		try {
+			report = mojo.handleDistributedTests(context, tContext, publisher);
+			mojo.shutdown();
+		} finally {
+			statsPusher.interrupt();
+			statsPusher.join();
+		}
+		
+		DistributedTestStatus delta = publisher.drain();
+		if(delta!=null) {
+			protocol.writeFrame(Command.LOAD_TESTS_RES, DistributedProtocol.encodeTestStatus(delta));
+		}
+		
+		protocol.writeFrame(Command.TESTS_SHARE_RES, DistributedProtocol.encodeTestStatus(report));
+		logger.info("Done Writing GATF results...");
+	}
+	
+	private static void handleSeleniumTests(final DistributedProtocol protocol, DistributedAcceptanceContext context) throws Exception {
+		File gcdir = new File(FileUtils.getTempDirectory(), "dist-gatf-code");
+		if(gcdir.exists()) {
+			FileUtils.deleteDirectory(gcdir);
+		}
+		
+		gcdir.mkdir();
+		String fileName = UUID.randomUUID().toString()+".zip";
+		File zipFile = new File(gcdir, fileName);
+		protocol.readFile(zipFile);
+		
+		ReportHandler.unzipZipFile(new FileInputStream(zipFile), gcdir.getAbsolutePath());
+		zipFile.delete();
+		
+		URL[] urls = new URL[1];
+		urls[0] = gcdir.toURI().toURL();
+		URLClassLoader classLoader = new URLClassLoader(urls, DistributedGatfListener.class.getClassLoader());
+		Thread.currentThread().setContextClassLoader(classLoader);
+		
+		List<Class<SeleniumTest>> tests = new ArrayList<Class<SeleniumTest>>();
+		@SuppressWarnings("unchecked")
+		List<String> testClassNames = (List<String>)DistributedProtocol.fromCompressedBytes(
+				protocol.readFrame(Command.SELENIUM_REQ).getPayload());
+		for (String clsname : testClassNames) {
+			@SuppressWarnings("unchecked")
+			Class<SeleniumTest> loadedClass = (Class<SeleniumTest>)classLoader.loadClass(clsname);
+			tests.add(loadedClass);
+		}
+		
+		protocol.writeCommand(Command.SELENIUM_RES);
+		
+		if(tests==null || tests.size()==0 || context.getConfig().isValidSeleniumRequest()) {
+			boolean driverfound = true;
+			for (SeleniumDriverConfig selConf : context.getConfig().getSeleniumDriverConfigs())
+	            {
+			    if(!new File(selConf.getPath()).exists()) {
 	                        Path p = Paths.get(selConf.getPath());
 	                        File df = new File(System.getProperty("user.dir"), p.getFileName().toString());
 	                        if(df!=null && df.exists()) {
@@ -256,39 +249,24 @@ public class DistributedGatfListener {
 	                        driverfound &= true;
 	                        System.setProperty(selConf.getName(), selConf.getPath());
 	                    }
-		            }
+	            }
 	                    
                     if(driverfound) {
-                        oos.writeInt(0);
-                        oos.flush();
+                        protocol.writeFrame(Command.SELENIUM_RES, new byte[]{0});
                         logger.info("Selenium Test Request");
                         
                         GatfTestCaseExecutorMojo mojo = new GatfTestCaseExecutorMojo();
                         List<List<Map<String, SeleniumResult>>> results = mojo.handleDistributedSeleniumTests(context, tests);
-                        oos.writeObject(results);
-                        oos.flush();
+                        protocol.writeFrame(Command.SELENIUM_RES, DistributedProtocol.toCompressedBytes(results));
                         logger.info("Done Writing Selenium results...");
                     } else {
-                        oos.writeInt(1);
-                        oos.flush();
+                        protocol.writeFrame(Command.SELENIUM_RES, new byte[]{1});
                         logger.info("Selenium Test Request");
-		            }
-					
-				} else {
-					oos.writeInt(2);
-					oos.flush();
-					logger.info("Selenium Test Request");
-				}
-			} else {
-				oos.writeObject(Command.INVALID);
-				oos.flush();
-				logger.info("Invalid Command received...");
-			}
+	            }
 			
-		} catch (Exception e) {
-			oos.write(0);
-			logger.info("Error occurred during distributed GATF execution...");
-			throw e;
+		} else {
+			protocol.writeFrame(Command.SELENIUM_RES, new byte[]{2});
+			logger.info("Selenium Test Request");
 		}
 	}
 }
@@ -16,27 +16,21 @@
 package com.gatf.executor.distributed;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.net.Socket;
-import java.net.URL;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.FutureTask;
 import java.util.logging.Logger;
 
-import org.apache.commons.io.IOUtils;
-
 import com.gatf.executor.core.AcceptanceTestContext;
 import com.gatf.executor.core.TestCase;
 import com.gatf.executor.distributed.DistributedAcceptanceContext.Command;
-import com.gatf.executor.report.ReportHandler;
+import com.gatf.executor.distributed.DistributedProtocol.Frame;
 import com.gatf.executor.report.RuntimeReportUtil;
-import com.gatf.executor.report.RuntimeReportUtil.LoadTestEntry;
+import com.gatf.executor.report.TestExecutionPercentile;
+import com.gatf.executor.report.TestSuiteStats;
 
 public class DistributedGatfTester {
 
@@ -45,8 +39,7 @@ public class DistributedGatfTester {
 	public static class DistributedConnection {
 		private Socket sock;
 		private String node;
-		private ObjectOutputStream oos = null;
-		private ObjectInputStream ois = null;
+		private DistributedProtocol protocol = null;
 		
 		public String toString()
 		{
@@ -75,23 +68,19 @@ public class DistributedGatfTester {
 			client = new Socket(node, port);
 			DistributedAcceptanceContext disContext = context.getDistributedContext(node);
 			
-			ObjectOutputStream oos = new ObjectOutputStream(client.getOutputStream());
-			ObjectInputStream ois = new ObjectInputStream(client.getInputStream());
+			DistributedProtocol protocol = new DistributedProtocol(client);
+			protocol.handshake();
 			
 			logger.info("Sending GATF configuration to node " + node);
-			oos.writeObject(Command.CONFIG_SHARE_REQ);
-			oos.flush();
-			oos.writeObject(disContext);
-			oos.flush();
+			protocol.writeFrame(Command.CONFIG_SHARE_REQ, DistributedProtocol.toCompressedBytes(disContext));
 			logger.info("Sent GATF configuration to node " + node);
 			
-			Command command = (Command)ois.readObject();
+			Command command = protocol.readCommand();
 			if(command==Command.CONFIG_SHARE_RES) {
 				conn = new DistributedConnection();
 				conn.sock = client;
 				conn.node = node;
-				conn.ois = ois;
-				conn.oos = oos;
+				conn.protocol = protocol;
 				logger.info("Sending GATF configuration Successful to node " + node);
 			} else {
 				logger.info("Sending GATF configuration Failed to node " + node);
@@ -113,7 +102,7 @@ public class DistributedGatfTester {
 	
 	public FutureTask<DistributedTestStatus> distributeTests(List<TestCase> simTestCases, 
 			final DistributedConnection connection, boolean dorep, int index, int numberOfRuns,
-			final AcceptanceTestContext context, Set<String> relativeFileNames)
+			final AcceptanceTestContext context, Set<String> relativeFileNames, final long reportSampleTimeMs)
 	{
 		if(connection==null)return null;
 		
@@ -127,64 +116,56 @@ public class DistributedGatfTester {
 			testContext.setRelativeFileNames(relativeFileNames);
 			
 			logger.info("Sending GATF tests to node " + connection.node);
-			connection.oos.writeObject(Command.TESTS_SHARE_REQ);
-			connection.oos.flush();
-			connection.oos.writeObject(testContext);
-			connection.oos.flush();
+			connection.protocol.writeFrame(Command.TESTS_SHARE_REQ, DistributedProtocol.toCompressedBytes(testContext));
 			logger.info("Sent GATF tests to node " + connection.node);
 			
-			Command command = (Command)connection.ois.readObject();
+			Command command = connection.protocol.readCommand();
 			if(command==Command.TESTS_SHARE_RES) {
 				task = new FutureTask<DistributedTestStatus>(new Callable<DistributedTestStatus>() {
 					public DistributedTestStatus call() throws Exception {
 						DistributedTestStatus res = null;
-						Socket fClient = connection.sock;
 						try {
 							logger.info("Waiting for GATF tests Results from node " + connection.node);
 							
-							Command command = (Command)connection.ois.readObject();
-							while(command==Command.LOAD_TESTS_RES)
+							TestExecutionPercentile testPercentiles = new TestExecutionPercentile();
+							TestExecutionPercentile runPercentiles = new TestExecutionPercentile();
+							
+							//The per second deltas are folded into one load test entry per report sample time, 
+							//the same granularity as the local load test runs
+							int runNo = 1;
+							TestSuiteStats windowStats = new TestSuiteStats();
+							long windowStart = System.currentTimeMillis();
+							DistributedTestStatus delta = null;
+							
+							Frame frame = connection.protocol.readFrame();
+							while(frame.getCommand()==Command.LOAD_TESTS_RES)
 							{
-								LoadTestEntry lentry = (LoadTestEntry)connection.ois.readObject();
-								RuntimeReportUtil.addEntry(lentry);
-								command = (Command)connection.ois.readObject();
+								delta = DistributedProtocol.decodeTestStatus(frame.getPayload());
+								testPercentiles.mergePercentileTimes(delta.getTestPercentileTimes());
+								runPercentiles.mergePercentileTimes(delta.getRunPercentileTimes());
+								windowStats.updateStats(delta.getSuiteStats(), false);
+								if(System.currentTimeMillis() - windowStart >= reportSampleTimeMs) {
+									RuntimeReportUtil.addEntry(delta.getNode(), delta.getIdentifier(), runNo++, null, windowStats);
+									windowStats = new TestSuiteStats();
+									windowStart = System.currentTimeMillis();
+								}
+								frame = connection.protocol.readFrame();
+							}
+							if(delta!=null && windowStats.getTotalTestCount()>0) {
+								RuntimeReportUtil.addEntry(delta.getNode(), delta.getIdentifier(), runNo, null, windowStats);
 							}
 							
-							res = (DistributedTestStatus)connection.ois.readObject();
+							if(frame.getCommand()!=Command.TESTS_SHARE_RES) {
+								throw new IOException("Expected command " + Command.TESTS_SHARE_RES + " but received " + frame.getCommand());
+							}
+							res = DistributedProtocol.decodeTestStatus(frame.getPayload());
+							res.setTestPercentileTimes(testPercentiles.getHistograms());
+							res.setRunPercentileTimes(runPercentiles.getHistograms());
 							logger.info("Received GATF tests Results from node " + connection.node);
-							
-							String fileName = "dist-" + res.getZipFileName();
-							File basePath = null;
-				        	if(context.getGatfExecutorConfig().getOutFilesBasePath()!=null)
-				        		basePath = new File(context.getGatfExecutorConfig().getOutFilesBasePath());
-				        	else
-				        	{
-				        		URL url = Thread.currentThread().getContextClassLoader().getResource(".");
-				        		basePath = new File(url.getPath());
-				        	}
-				        	File resource = new File(basePath, context.getGatfExecutorConfig().getOutFilesDir());
-				        	
-				        	File zipFile = new File(resource, fileName);
-				        	FileOutputStream fos = new FileOutputStream(zipFile);
-							IOUtils.copy(connection.ois, fos);
-							fos.flush();
-							fos.close();
-				        	
-				        	ReportHandler.unzipZipFile(new FileInputStream(zipFile), resource.getAbsolutePath());
-							
-							logger.info("Done Receiving GATF tests Result files from node " + connection.node);
 						} catch (Exception e) {
 							e.printStackTrace();
 							logger.info("Failure occurred while waiting for GATF tests Results from node " + connection.node);
-						} finally {
-							if(fClient!=null)
-							{
-								try {
-									fClient.close();
-								} catch (IOException e) {
-									e.printStackTrace();
-								}
-							}
+							closeConnection(connection);
 						}
 						return res;
 					}
@@ -217,6 +198,22 @@ public class DistributedGatfTester {
 		return task;
 	}
 	
+	/**
+	 * The connection to a node is kept open across test requests, it is closed once the controller 
+	 * has no more work for the node
+	 */
+	public void closeConnection(DistributedConnection connection)
+	{
+		if(connection!=null && connection.sock!=null && !connection.sock.isClosed())
+		{
+			try {
+				connection.sock.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
 	public FutureTask<Object> distributeSeleniumTests(final DistributedConnection connection, File testClassesZip, 
 			final List<String> testClassNames)
 	{
@@ -225,16 +222,13 @@ public class DistributedGatfTester {
 		FutureTask<Object> task = null;
 		try {
 			logger.info("Sending GATF Selenium tests to node " + connection.node);
-			connection.oos.writeObject(Command.SELENIUM_REQ);
-			connection.oos.flush();
-			IOUtils.copy(new FileInputStream(testClassesZip), connection.oos);
-			connection.oos.flush();
-			connection.oos.writeObject(testClassNames);
-			connection.oos.flush();
+			connection.protocol.writeCommand(Command.SELENIUM_REQ);
+			connection.protocol.writeFile(testClassesZip);
+			connection.protocol.writeFrame(Command.SELENIUM_REQ, DistributedProtocol.toCompressedBytes(testClassNames));
 			
-			Command command = (Command)connection.ois.readObject();
+			Command command = connection.protocol.readCommand();
 			if(command==Command.SELENIUM_RES) {
-				int code = connection.ois.readInt();
+				int code = connection.protocol.readFrame(Command.SELENIUM_RES).getPayload()[0];
 				if(code==0) {
 					task = new FutureTask<Object>(new Callable<Object>() {
 						public Object call() throws Exception {
@@ -243,7 +237,7 @@ public class DistributedGatfTester {
 							try {
 								logger.info("Waiting for GATF Selenium tests Results from node " + connection.node);
 								
-								res = connection.ois.readObject();
+								res = DistributedProtocol.fromCompressedBytes(connection.protocol.readFrame(Command.SELENIUM_RES).getPayload());
 								logger.info("Done Receiving GATF Selenium tests Results from node " + connection.node);
 							} catch (Exception e) {
 								e.printStackTrace();
@@ -0,0 +1,393 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.HdrHistogram.Histogram;
+
+import com.gatf.executor.distributed.DistributedAcceptanceContext.Command;
+import com.gatf.executor.report.TestGroupStats;
+import com.gatf.executor.report.TestSuiteStats;
+
+/**
+ * @author Sumeet Chhetri
+ * The wire protocol between the distributed controller and the worker nodes, every message is a frame 
+ * made of a command byte, a payload length and the payload. Repeated messages (stats deltas, test 
+ * status) are encoded field by field, the one time bulk payloads (configuration, testcases) are compressed.
+ * Both ends exchange a magic number and the protocol version right after connecting.
+ */
+public class DistributedProtocol {
+
+	public static final int MAGIC = 0x47415446;
+	
+	public static final byte VERSION = 2;
+	
+	private static final int MAX_FRAME_SIZE = 256*1024*1024;
+	
+	private static final int FILE_CHUNK_SIZE = 64*1024;
+	
+	private static final byte[] EMPTY = new byte[0];
+	
+	/**
+	 * A single message read from the connection
+	 */
+	public static class Frame {
+		private final Command command;
+		private final byte[] payload;
+		
+		private Frame(Command command, byte[] payload) {
+			this.command = command;
+			this.payload = payload;
+		}
+
+		public Command getCommand() {
+			return command;
+		}
+
+		public byte[] getPayload() {
+			return payload;
+		}
+	}
+	
+	private final DataInputStream in;
+	
+	private final DataOutputStream out;
+	
+	public DistributedProtocol(Socket sock) throws IOException {
+		this(sock.getInputStream(), sock.getOutputStream());
+	}
+	
+	public DistributedProtocol(InputStream in, OutputStream out) {
+		this.in = new DataInputStream(new BufferedInputStream(in, FILE_CHUNK_SIZE));
+		this.out = new DataOutputStream(new BufferedOutputStream(out, FILE_CHUNK_SIZE));
+	}
+	
+	/**
+	 * Exchange and verify the protocol magic number and version with the other end
+	 */
+	public void handshake() throws IOException {
+		synchronized (out) {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.flush();
+		}
+		int magic = in.readInt();
+		byte version = in.readByte();
+		if(magic!=MAGIC) {
+			throw new IOException("Invalid distributed GATF protocol header received");
+		}
+		if(version!=VERSION) {
+			throw new IOException("Unsupported distributed GATF protocol version " + version + ", expected " + VERSION);
+		}
+	}
+	
+	public void writeCommand(Command command) throws IOException {
+		writeFrame(command, EMPTY);
+	}
+	
+	public void writeFrame(Command command, byte[] payload) throws IOException {
+		synchronized (out) {
+			out.writeByte(command.ordinal());
+			out.writeInt(payload.length);
+			out.write(payload);
+			out.flush();
+		}
+	}
+	
+	public Frame readFrame() throws IOException {
+		int ordinal = in.read();
+		if(ordinal==-1) {
+			throw new EOFException("Distributed GATF connection closed");
+		}
+		if(ordinal>=Command.values().length) {
+			throw new IOException("Invalid distributed GATF command received - " + ordinal);
+		}
+		int length = in.readInt();
+		if(length<0 || length>MAX_FRAME_SIZE) {
+			throw new IOException("Invalid distributed GATF frame length - " + length);
+		}
+		byte[] payload = new byte[length];
+		in.readFully(payload);
+		return new Frame(Command.values()[ordinal], payload);
+	}
+	
+	public Command readCommand() throws IOException {
+		return readFrame().getCommand();
+	}
+	
+	/**
+	 * Read the next frame and make sure it is of the expected command type
+	 */
+	public Frame readFrame(Command expected) throws IOException {
+		Frame frame = readFrame();
+		if(frame.getCommand()!=expected) {
+			throw new IOException("Expected command " + expected + " but received " + frame.getCommand());
+		}
+		return frame;
+	}
+	
+	/**
+	 * Send a file as a sequence of FILE_CHUNK frames followed by a FILE_END frame
+	 */
+	public void writeFile(File file) throws IOException {
+		InputStream fis = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[FILE_CHUNK_SIZE];
+			int read = 0;
+			while((read = fis.read(buffer))!=-1) {
+				byte[] chunk = new byte[read];
+				System.arraycopy(buffer, 0, chunk, 0, read);
+				writeFrame(Command.FILE_CHUNK, chunk);
+			}
+			writeCommand(Command.FILE_END);
+		} finally {
+			fis.close();
+		}
+	}
+	
+	public void readFile(File file) throws IOException {
+		OutputStream fos = new FileOutputStream(file);
+		try {
+			Frame frame = null;
+			while((frame = readFrame()).getCommand()==Command.FILE_CHUNK) {
+				fos.write(frame.getPayload());
+			}
+			if(frame.getCommand()!=Command.FILE_END) {
+				throw new IOException("Expected command " + Command.FILE_END + " but received " + frame.getCommand());
+			}
+			fos.flush();
+		} finally {
+			fos.close();
+		}
+	}
+	
+	/**
+	 * Serialize and compress a one time bulk payload, a new object stream is used for every payload 
+	 * so that no handle table is retained across messages
+	 */
+	public static byte[] toCompressedBytes(Object object) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		DeflaterOutputStream dos = new DeflaterOutputStream(bos, new Deflater(Deflater.BEST_SPEED));
+		ObjectOutputStream oos = new ObjectOutputStream(dos);
+		oos.writeObject(object);
+		oos.close();
+		return bos.toByteArray();
+	}
+	
+	public static Object fromCompressedBytes(byte[] payload) throws IOException, ClassNotFoundException {
+		ObjectInputStream ois = new ObjectInputStream(new InflaterInputStream(new ByteArrayInputStream(payload))) {
+			protected Class<?> resolveClass(java.io.ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+				try {
+					return Class.forName(desc.getName(), false, Thread.currentThread().getContextClassLoader());
+				} catch (ClassNotFoundException e) {
+					return super.resolveClass(desc);
+				}
+			}
+		};
+		try {
+			return ois.readObject();
+		} finally {
+			ois.close();
+		}
+	}
+	
+	/**
+	 * Used for both the periodic stats deltas and the final status of a worker
+	 */
+	public static byte[] encodeTestStatus(DistributedTestStatus status) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
+		DataOutputStream dos = new DataOutputStream(bos);
+		writeString(dos, status.getNode());
+		writeString(dos, status.getIdentifier());
+		writeHistograms(dos, status.getTestPercentileTimes());
+		writeHistograms(dos, status.getRunPercentileTimes());
+		writeSuiteStats(dos, status.getSuiteStats());
+		dos.flush();
+		return bos.toByteArray();
+	}
+	
+	public static DistributedTestStatus decodeTestStatus(byte[] payload) throws IOException {
+		DataInputStream dis = new DataInputStream(new ByteArrayInputStream(payload));
+		DistributedTestStatus status = new DistributedTestStatus();
+		status.setNode(readString(dis));
+		status.setIdentifier(readString(dis));
+		status.setTestPercentileTimes(readHistograms(dis));
+		status.setRunPercentileTimes(readHistograms(dis));
+		status.setSuiteStats(readSuiteStats(dis));
+		return status;
+	}
+	
+	protected static void writeHistograms(DataOutputStream dos, Map<String, Histogram> histograms) throws IOException {
+		if(histograms==null) {
+			dos.writeInt(-1);
+			return;
+		}
+		dos.writeInt(histograms.size());
+		for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+			writeString(dos, entry.getKey());
+			writeHistogram(dos, entry.getValue());
+		}
+	}
+	
+	protected static Map<String, Histogram> readHistograms(DataInputStream dis) throws IOException {
+		int size = dis.readInt();
+		if(size<0) {
+			return null;
+		}
+		Map<String, Histogram> histograms = new HashMap<String, Histogram>();
+		for (int i = 0; i < size; i++) {
+			String key = readString(dis);
+			histograms.put(key, readHistogram(dis));
+		}
+		return histograms;
+	}
+	
+	protected static void writeHistogram(DataOutputStream dos, Histogram histogram) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+		int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+		dos.writeInt(length);
+		dos.write(buffer.array(), 0, length);
+	}
+	
+	protected static Histogram readHistogram(DataInputStream dis) throws IOException {
+		int length = dis.readInt();
+		byte[] encoded = new byte[length];
+		dis.readFully(encoded);
+		try {
+			return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 0);
+		} catch (DataFormatException e) {
+			throw new IOException("Invalid histogram received", e);
+		}
+	}
+	
+	protected static void writeSuiteStats(DataOutputStream dos, TestSuiteStats stats) throws IOException {
+		dos.writeBoolean(stats!=null);
+		if(stats==null) {
+			return;
+		}
+		dos.writeInt(stats.getTotalTestCount());
+		dos.writeInt(stats.getFailedTestCount());
+		dos.writeInt(stats.getSkippedTestCount());
+		dos.writeLong(stats.getExecutionTime());
+		dos.writeLong(stats.getActualExecutionTime());
+		dos.writeInt(stats.getTotalRuns());
+		dos.writeInt(stats.getFailedRuns());
+		dos.writeInt(stats.getTotalSuiteRuns());
+		dos.writeInt(stats.getTotalUserSuiteRuns());
+		if(stats.getGroupStats()==null) {
+			dos.writeInt(-1);
+			return;
+		}
+		dos.writeInt(stats.getGroupStats().size());
+		for (TestGroupStats group : stats.getGroupStats()) {
+			writeString(dos, group.getSourceFile());
+			writeString(dos, group.getBaseUrl());
+			writeLong(dos, group.getExecutionTime());
+			writeLong(dos, group.getTotalTestCount()!=null?group.getTotalTestCount().longValue():null);
+			writeLong(dos, group.getFailedTestCount()!=null?group.getFailedTestCount().longValue():null);
+			writeLong(dos, group.getSkippedTestCount()!=null?group.getSkippedTestCount().longValue():null);
+			writeLong(dos, group.getTotalRuns()!=null?group.getTotalRuns().longValue():null);
+			writeLong(dos, group.getFailedRuns()!=null?group.getFailedRuns().longValue():null);
+		}
+	}
+	
+	protected static TestSuiteStats readSuiteStats(DataInputStream dis) throws IOException {
+		if(!dis.readBoolean()) {
+			return null;
+		}
+		TestSuiteStats stats = new TestSuiteStats();
+		stats.setTotalTestCount(dis.readInt());
+		stats.setFailedTestCount(dis.readInt());
+		stats.setSkippedTestCount(dis.readInt());
+		stats.setExecutionTime(dis.readLong());
+		stats.setActualExecutionTime(dis.readLong());
+		stats.setTotalRuns(dis.readInt());
+		stats.setFailedRuns(dis.readInt());
+		stats.setTotalSuiteRuns(dis.readInt());
+		stats.setTotalUserSuiteRuns(dis.readInt());
+		int groups = dis.readInt();
+		if(groups<0) {
+			stats.setGroupStats(null);
+			return stats;
+		}
+		List<TestGroupStats> groupStats = new ArrayList<TestGroupStats>(groups);
+		for (int i = 0; i < groups; i++) {
+			TestGroupStats group = new TestGroupStats();
+			group.setSourceFile(readString(dis));
+			group.setBaseUrl(readString(dis));
+			group.setExecutionTime(readLong(dis));
+			group.setTotalTestCount(toInteger(readLong(dis)));
+			group.setFailedTestCount(toInteger(readLong(dis)));
+			group.setSkippedTestCount(toInteger(readLong(dis)));
+			group.setTotalRuns(toInteger(readLong(dis)));
+			group.setFailedRuns(toInteger(readLong(dis)));
+			groupStats.add(group);
+		}
+		stats.setGroupStats(groupStats);
+		return stats;
+	}
+	
+	private static Integer toInteger(Long value) {
+		return value!=null?value.intValue():null;
+	}
+	
+	protected static void writeString(DataOutputStream dos, String value) throws IOException {
+		dos.writeBoolean(value!=null);
+		if(value!=null) {
+			dos.writeUTF(value);
+		}
+	}
+	
+	protected static String readString(DataInputStream dis) throws IOException {
+		return dis.readBoolean()?dis.readUTF():null;
+	}
+	
+	protected static void writeLong(DataOutputStream dos, Long value) throws IOException {
+		dos.writeBoolean(value!=null);
+		if(value!=null) {
+			dos.writeLong(value);
+		}
+	}
+	
+	protected static Long readLong(DataInputStream dis) throws IOException {
+		return dis.readBoolean()?dis.readLong():null;
+	}
+}
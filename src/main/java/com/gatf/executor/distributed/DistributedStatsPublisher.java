@@ -0,0 +1,92 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.distributed;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.gatf.executor.report.LoadTestAggregate;
+import com.gatf.executor.report.TestCaseReport;
+
+/**
+ * @author Sumeet Chhetri
+ * Collects the load test stats of a distributed worker between two pushes to the controller, every 
+ * completed test case report is folded in as it arrives and every drain hands out the counts and 
+ * latency histograms recorded since the previous drain
+ */
+public class DistributedStatsPublisher {
+
+	public static final long PUBLISH_INTERVAL_MS = 1000;
+	
+	private final String node;
+	
+	private final String identifier;
+	
+	//Reports are added concurrently under the read lock, the drain swaps the aggregate under the write lock
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	private LoadTestAggregate aggregate = new LoadTestAggregate();
+	
+	private long intervalStartTime = System.currentTimeMillis();
+	
+	private boolean empty = true;
+	
+	public DistributedStatsPublisher(String node, String identifier) {
+		this.node = node;
+		this.identifier = identifier;
+	}
+	
+	public void add(TestCaseReport testCaseReport)
+	{
+		lock.readLock().lock();
+		try {
+			aggregate.add(testCaseReport);
+			empty = false;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * @return the stats recorded since the last drain, null if nothing was recorded
+	 */
+	public DistributedTestStatus drain()
+	{
+		LoadTestAggregate drained = null;
+		long startTime = 0;
+		lock.writeLock().lock();
+		try {
+			if(empty) {
+				return null;
+			}
+			drained = aggregate;
+			startTime = intervalStartTime;
+			aggregate = new LoadTestAggregate();
+			intervalStartTime = System.currentTimeMillis();
+			empty = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		
+		DistributedTestStatus delta = new DistributedTestStatus();
+		delta.setNode(node);
+		delta.setIdentifier(identifier);
+		delta.setSuiteStats(drained.getSuiteStats(startTime));
+		delta.setTestPercentileTimes(drained.getTestPercentiles().getHistograms());
+		delta.setRunPercentileTimes(drained.getRunPercentiles().getHistograms());
+		return delta;
+	}
+}
@@ -16,9 +16,10 @@
 package com.gatf.executor.distributed;
 
 import java.io.Serializable;
-import java.util.List;
 import java.util.Map;
 
+import org.HdrHistogram.Histogram;
+
 import com.gatf.executor.report.TestSuiteStats;
 
 public class DistributedTestStatus implements Serializable {
@@ -29,11 +30,9 @@ public class DistributedTestStatus implements Serializable {
 	
 	private String identifier;
 	
-	private String zipFileName;
-	
-	private Map<String, List<Long>> testPercentileTimes;
+	private Map<String, Histogram> testPercentileTimes;
 	
-	private Map<String, List<Long>> runPercentileTimes;
+	private Map<String, Histogram> runPercentileTimes;
 	
 	private TestSuiteStats suiteStats; 
 	
@@ -61,27 +60,19 @@ public class DistributedTestStatus implements Serializable {
 		this.suiteStats = suiteStats;
 	}
 
-	public String getZipFileName() {
-		return zipFileName;
-	}
-
-	public void setZipFileName(String zipFileName) {
-		this.zipFileName = zipFileName;
-	}
-
-	public Map<String, List<Long>> getTestPercentileTimes() {
+	public Map<String, Histogram> getTestPercentileTimes() {
 		return testPercentileTimes;
 	}
 
-	public void setTestPercentileTimes(Map<String, List<Long>> percentileTimes) {
+	public void setTestPercentileTimes(Map<String, Histogram> percentileTimes) {
 		this.testPercentileTimes = percentileTimes;
 	}
 
-	public Map<String, List<Long>> getRunPercentileTimes() {
+	public Map<String, Histogram> getRunPercentileTimes() {
 		return runPercentileTimes;
 	}
 
-	public void setRunPercentileTimes(Map<String, List<Long>> runPercentileTimes) {
+	public void setRunPercentileTimes(Map<String, Histogram> runPercentileTimes) {
 		this.runPercentileTimes = runPercentileTimes;
 	}
 }
@@ -0,0 +1,349 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.gatf.executor.core.TestCase;
+import com.gatf.executor.executor.LightweightUserEngine.UserSteps;
+import com.gatf.executor.report.TestCaseReport;
+import com.ning.http.client.ListenableFuture;
+
+/**
+ * @author Sumeet Chhetri
+ * The open model load test executor, requests are issued on a fixed timetable derived from the target 
+ * arrival rate irrespective of the number of outstanding requests, the latency of every request is measured 
+ * from its scheduled start time so that a slow server does not hide its own latency (coordinated omission).
+ * Every request goes through the same user steps as a simulated user (conditions, hooks, reporting) and runs 
+ * in its own workflow context seeded from the primed context (index 0), the simulated users only decide 
+ * which run the request is reported under
+ */
+public class ArrivalRateLoadExecutor {
+
+	public static final String RAMP_PROFILE_CONSTANT = "constant";
+	
+	public static final String RAMP_PROFILE_LINEAR = "linear";
+	
+	private static final int MAX_CONTEXT_SLOTS = 10000;
+	
+	private final TestCaseExecutorUtil testCaseExecutorUtil;
+	
+	private final double arrivalRate;
+	
+	private final long durationNanos;
+	
+	private final long rampUpNanos;
+	
+	private final int numberOfUsers;
+	
+	private final int contextSlots;
+	
+	private final AtomicLong issuedCount = new AtomicLong();
+	
+	private final AtomicLong completedCount = new AtomicLong();
+	
+	private final AtomicLong maxScheduleLagMicros = new AtomicLong();
+	
+	private ExecutorService dispatchPool;
+	
+	private ExecutorService completionPool;
+	
+	private final Object completionLock = new Object();
+	
+	private volatile UserSteps steps;
+	
+	private volatile boolean finished = false;
+	
+	private volatile boolean stopped = false;
+	
+	private Thread schedulerThread;
+	
+	private long startNanos;
+	
+	public ArrivalRateLoadExecutor(TestCaseExecutorUtil testCaseExecutorUtil, int arrivalRate, long durationMs,
+			long rampUpTimeMs, String rampProfile, int numberOfUsers)
+	{
+		this.testCaseExecutorUtil = testCaseExecutorUtil;
+		this.arrivalRate = arrivalRate;
+		this.durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMs);
+		if(RAMP_PROFILE_LINEAR.equalsIgnoreCase(rampProfile) && rampUpTimeMs>0) {
+			this.rampUpNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(rampUpTimeMs, durationMs));
+		} else {
+			this.rampUpNanos = 0;
+		}
+		this.numberOfUsers = Math.max(1, numberOfUsers);
+		
+		//A context is reused only after the requests of twice the request timeout have been issued, 
+		//by then the request that held it has completed or timed out
+		long httpTimeout = getHttpTimeout();
+		this.contextSlots = (int)Math.max(1, Math.min(MAX_CONTEXT_SLOTS, Math.ceil(arrivalRate*httpTimeout*2/1000d)));
+	}
+	
+	private long getHttpTimeout()
+	{
+		Integer httpTimeout = testCaseExecutorUtil.getContext().getGatfExecutorConfig().getHttpRequestTimeout();
+		return httpTimeout!=null?httpTimeout:10000;
+	}
+	
+	/**
+	 * @return the number of workflow contexts used by the in-flight requests, they follow the contexts of 
+	 * the simulated users, so the suite context needs numberOfUsers + contextSlots contexts
+	 */
+	public int getContextSlots() {
+		return contextSlots;
+	}
+	
+	/**
+	 * The offset from the start of the load test at which the request with the given sequence number 
+	 * has to be issued, for the linear profile the rate grows from 0 to the target rate over the ramp up 
+	 * time, so the cumulative number of requests is quadratic in time during the ramp up period
+	 */
+	protected long getScheduledOffsetNanos(long sequence)
+	{
+		double rampUpSecs = rampUpNanos/1e9;
+		double rampUpRequests = arrivalRate*rampUpSecs/2;
+		double offsetSecs;
+		if(sequence<rampUpRequests) {
+			offsetSecs = Math.sqrt(2*rampUpSecs*sequence/arrivalRate);
+		} else {
+			offsetSecs = rampUpSecs + (sequence-rampUpRequests)/arrivalRate;
+		}
+		return (long)(offsetSecs*1e9);
+	}
+	
+	/**
+	 * Set the user steps the requests are handed to, they can be swapped while the timetable runs, a request 
+	 * begins with the steps set when it is dispatched and ends with the steps set when it completes, so that 
+	 * every report lands in the reporting window in which the request completed
+	 * @param steps
+	 */
+	public void setUserSteps(UserSteps steps) {
+		this.steps = steps;
+	}
+	
+	public boolean isStarted() {
+		return schedulerThread!=null;
+	}
+	
+	/**
+	 * Start the timetable on its own thread, the requests are issued for the whole load testing time 
+	 * irrespective of the reporting windows, the user steps need to be set before starting
+	 * @param testCases the test cases issued in a round robin manner
+	 */
+	public void start(List<TestCase> testCases)
+	{
+		final List<TestCase> eligibleTestCases = new ArrayList<TestCase>();
+		for (TestCase testCase : testCases) {
+			if(!testCase.isSkipTest()) {
+				eligibleTestCases.add(testCase);
+			}
+		}
+		
+		int poolSize = Math.max(2, Math.min(Runtime.getRuntime().availableProcessors()*2, 32));
+		//Requests are prepared (conditions, context variables, pre hooks) off the scheduler thread so that 
+		//a slow preparation never delays the timetable
+		dispatchPool = Executors.newFixedThreadPool(poolSize);
+		completionPool = Executors.newFixedThreadPool(poolSize);
+		startNanos = System.nanoTime();
+		
+		schedulerThread = new Thread(new Runnable() {
+			public void run() {
+				try {
+					if(!eligibleTestCases.isEmpty()) {
+						schedule(eligibleTestCases);
+					}
+				} finally {
+					finished = true;
+					signalCompletion();
+				}
+			}
+		}, "gatf-arrival-rate-scheduler");
+		schedulerThread.setDaemon(true);
+		schedulerThread.start();
+	}
+	
+	private void schedule(List<TestCase> eligibleTestCases)
+	{
+		long sequence = 0;
+		while(!stopped)
+		{
+			long offsetNanos = getScheduledOffsetNanos(sequence);
+			if(offsetNanos>=durationNanos) {
+				break;
+			}
+			
+			final long scheduledNanos = startNanos + offsetNanos;
+			long waitNanos = scheduledNanos - System.nanoTime();
+			while(waitNanos>0 && !stopped) {
+				LockSupport.parkNanos(waitNanos);
+				waitNanos = scheduledNanos - System.nanoTime();
+			}
+			if(stopped) {
+				break;
+			}
+			
+			TestCase testCase = new TestCase(eligibleTestCases.get((int)(sequence%eligibleTestCases.size())));
+			if(numberOfUsers>1) {
+				testCase.setSimulationNumber((int)(sequence%numberOfUsers) + 1);
+			}
+			testCase.setWorkflowContextIndex(numberOfUsers + 1 + (int)(sequence%contextSlots));
+			issuedCount.incrementAndGet();
+			dispatch(testCase, scheduledNanos);
+			sequence++;
+		}
+	}
+	
+	/**
+	 * Wait until the given offset from the start of the timetable or until every request has been issued, 
+	 * whichever comes first, the requests keep being issued in the meantime
+	 * @param untilMs
+	 */
+	public void awaitOffset(long untilMs)
+	{
+		long waitMs = TimeUnit.NANOSECONDS.toMillis(startNanos + TimeUnit.MILLISECONDS.toNanos(untilMs) - System.nanoTime());
+		if(waitMs<=0) {
+			return;
+		}
+		try {
+			schedulerThread.join(waitMs);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Wait for every request to be issued and for the in-flight requests to complete, this is done once at 
+	 * the end of the load test, requests still outstanding after twice the request timeout are given up on
+	 */
+	public void awaitCompletion()
+	{
+		try {
+			schedulerThread.join();
+			long waitUntil = System.currentTimeMillis() + getHttpTimeout()*2;
+			synchronized (completionLock) {
+				long waitMs = waitUntil - System.currentTimeMillis();
+				while(completedCount.get()<issuedCount.get() && waitMs>0) {
+					completionLock.wait(waitMs);
+					waitMs = waitUntil - System.currentTimeMillis();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * @return true once every request of the load testing time has been issued
+	 */
+	public boolean isFinished()
+	{
+		return finished;
+	}
+	
+	public void shutdown()
+	{
+		stopped = true;
+		if(schedulerThread!=null) {
+			LockSupport.unpark(schedulerThread);
+		}
+		if(dispatchPool!=null) {
+			dispatchPool.shutdown();
+		}
+		if(completionPool!=null) {
+			completionPool.shutdown();
+		}
+	}
+	
+	private void completed()
+	{
+		if(completedCount.incrementAndGet()>=issuedCount.get()) {
+			signalCompletion();
+		}
+	}
+	
+	private void signalCompletion()
+	{
+		synchronized (completionLock) {
+			completionLock.notifyAll();
+		}
+	}
+	
+	private void dispatch(final TestCase testCase, final long scheduledNanos)
+	{
+		dispatchPool.execute(new Runnable() {
+			public void run() {
+				long lagMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos);
+				long maxLag = maxScheduleLagMicros.get();
+				while(lagMicros>maxLag && !maxScheduleLagMicros.compareAndSet(maxLag, lagMicros)) {
+					maxLag = maxScheduleLagMicros.get();
+				}
+				
+				testCaseExecutorUtil.getContext().getWorkflowContextHandler()
+					.resetUserContext(testCase.getWorkflowContextIndex(), 0);
+				
+				final TestCaseReport testCaseReport = new TestCaseReport();
+				testCaseReport.setTestCase(testCase);
+				testCaseReport.setNumberOfRuns(1);
+				
+				final ListenableFuture<TestCaseReport> future;
+				try {
+					future = steps.begin(testCase, testCaseReport);
+				} catch (Throwable e) {
+					e.printStackTrace();
+					completed();
+					return;
+				}
+				
+				//The request was completely handled by the user steps (skipped, failed or a performance/scenario test)
+				if(future==null) {
+					completed();
+					return;
+				}
+				
+				future.addListener(new Runnable() {
+					public void run() {
+						try {
+							long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos);
+							testCaseReport.setExecutionTimeMicros(latencyMicros);
+							testCaseReport.setExecutionTime(TimeUnit.MICROSECONDS.toMillis(latencyMicros));
+							steps.end(testCase, testCaseReport, future);
+						} finally {
+							completed();
+						}
+					}
+				}, completionPool);
+			}
+		});
+	}
+	
+	public long getIssuedCount() {
+		return issuedCount.get();
+	}
+
+	public long getCompletedCount() {
+		return completedCount.get();
+	}
+
+	public long getMaxScheduleLagMicros() {
+		return maxScheduleLagMicros.get();
+	}
+}
@@ -0,0 +1,165 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.executor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.gatf.executor.core.TestCase;
+import com.gatf.executor.report.TestCaseReport;
+import com.ning.http.client.ListenableFuture;
+
+/**
+ * @author Sumeet Chhetri
+ * The lightweight user simulation engine, a simulated user is not bound to a thread, it runs its test cases 
+ * on a small pool of carrier threads and is suspended while its request is in flight, the user is resumed 
+ * on a carrier thread once the response arrives, so the number of concurrent users is not limited by the 
+ * number of threads
+ */
+public class LightweightUserEngine {
+
+	public static final String ENGINE_THREADED = "threaded";
+	
+	public static final String ENGINE_LIGHTWEIGHT = "lightweight";
+	
+	/**
+	 * The steps executed for every test case of a simulated user, begin either handles the test case completely 
+	 * and returns null or returns the pending response, end is then called once the response has arrived
+	 */
+	public static abstract class UserSteps {
+		
+		public abstract ListenableFuture<TestCaseReport> begin(TestCase testCase, TestCaseReport testCaseReport);
+		
+		public abstract void end(TestCase testCase, TestCaseReport testCaseReport, ListenableFuture<TestCaseReport> future);
+	}
+	
+	private final ExecutorService carriers;
+	
+	private final AtomicInteger activeUsers = new AtomicInteger();
+	
+	private final AtomicInteger suspendedUsers = new AtomicInteger();
+	
+	public LightweightUserEngine(int carrierThreads)
+	{
+		final AtomicInteger counter = new AtomicInteger();
+		this.carriers = Executors.newFixedThreadPool(carrierThreads, new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "gatf-user-carrier-" + counter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	public static boolean isLightweight(String engine)
+	{
+		return ENGINE_LIGHTWEIGHT.equalsIgnoreCase(engine);
+	}
+	
+	/**
+	 * Starts a simulated user which executes the given test cases in order
+	 * @return the future which completes once the user has executed all its test cases
+	 */
+	public Future<Void> submit(List<TestCase> testCases, UserSteps steps)
+	{
+		SimulatedUser user = new SimulatedUser(testCases, steps);
+		activeUsers.incrementAndGet();
+		carriers.execute(user);
+		return user.completion;
+	}
+	
+	public int getActiveUsers() {
+		return activeUsers.get();
+	}
+
+	public int getSuspendedUsers() {
+		return suspendedUsers.get();
+	}
+
+	public void shutdown()
+	{
+		carriers.shutdown();
+	}
+	
+	private class SimulatedUser implements Runnable {
+		
+		private final List<TestCase> testCases;
+		
+		private final UserSteps steps;
+		
+		private final CompletableFuture<Void> completion = new CompletableFuture<Void>();
+		
+		private int index;
+		
+		private SimulatedUser(List<TestCase> testCases, UserSteps steps) {
+			this.testCases = testCases;
+			this.steps = steps;
+		}
+		
+		public void run() {
+			try {
+				while(index<testCases.size())
+				{
+					final TestCase testCase = testCases.get(index++);
+					final TestCaseReport testCaseReport = new TestCaseReport();
+					testCaseReport.setTestCase(testCase);
+					testCaseReport.setNumberOfRuns(1);
+					
+					final ListenableFuture<TestCaseReport> future = steps.begin(testCase, testCaseReport);
+					if(future!=null)
+					{
+						//suspend the user, the carrier thread moves on to the next runnable user
+						suspendedUsers.incrementAndGet();
+						future.addListener(new Runnable() {
+							public void run() {
+								suspendedUsers.decrementAndGet();
+								resume(testCase, testCaseReport, future);
+							}
+						}, carriers);
+						return;
+					}
+				}
+				finish(null);
+			} catch (Throwable e) {
+				finish(e);
+			}
+		}
+		
+		private void resume(TestCase testCase, TestCaseReport testCaseReport, ListenableFuture<TestCaseReport> future) {
+			try {
+				steps.end(testCase, testCaseReport, future);
+			} catch (Throwable e) {
+				finish(e);
+				return;
+			}
+			run();
+		}
+		
+		private void finish(Throwable error) {
+			activeUsers.decrementAndGet();
+			if(error!=null) {
+				completion.completeExceptionally(error);
+			} else {
+				completion.complete(null);
+			}
+		}
+	}
+}
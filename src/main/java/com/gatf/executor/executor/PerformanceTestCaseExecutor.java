@@ -15,9 +15,14 @@
 */
 package com.gatf.executor.executor;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
@@ -30,14 +35,58 @@ import com.ning.http.client.ListenableFuture;
 
 /**
  * @author Sumeet Chhetri
- * The performance test case executor, handles concurrent execution of test cases
+ * The performance test case executor, handles concurrent execution of test cases, a fixed window of 
+ * requests is kept in flight and every completed request starts the next one
  */
 public class PerformanceTestCaseExecutor implements TestCaseExecutor {
 
+	/**
+	 * The aggregated state of a single performance test case run shared between the request callbacks
+	 */
+	private static class PerformanceRunState {
+		
+		private final TestCase testCase;
+		
+		private final int totalExecutions;
+		
+		private final boolean retainReports;
+		
+		private final AtomicInteger nextExecution = new AtomicInteger();
+		
+		private final AtomicLong totalExecutionTime = new AtomicLong();
+		
+		private final ConcurrentLinkedQueue<Long> executionTimes = new ConcurrentLinkedQueue<Long>();
+		
+		private final ConcurrentHashMap<String, String> errors = new ConcurrentHashMap<String, String>();
+		
+		private final ConcurrentLinkedQueue<TestCaseReport> reports = new ConcurrentLinkedQueue<TestCaseReport>();
+		
+		private final CountDownLatch completed;
+		
+		private PerformanceRunState(TestCase testCase, int totalExecutions, boolean retainReports) {
+			this.testCase = testCase;
+			this.totalExecutions = totalExecutions;
+			this.retainReports = retainReports;
+			this.completed = new CountDownLatch(totalExecutions);
+		}
+		
+		private void addReport(int executionNum, TestCaseReport report) {
+			long executionTime = report.getExecutionTime()!=null?report.getExecutionTime():0L;
+			totalExecutionTime.addAndGet(executionTime);
+			executionTimes.add(executionTime);
+			if(report.getError()!=null) {
+				errors.put(executionNum+2+"", report.getError());
+			}
+			//Failed copies are always retained so that the failure is reported and the post hooks run for it
+			if(retainReports || !TestStatus.Success.status.equals(report.getStatus())) {
+				reports.add(report);
+			}
+			completed.countDown();
+		}
+	}
+	
 	public List<TestCaseReport> execute(TestCase testCase, TestCaseExecutorUtil testCaseExecutorUtil) {
 	
-		WorkflowContextHandler workflowContextHandler = testCaseExecutorUtil.getContext().getWorkflowContextHandler();
-		
 		SingleTestCaseExecutor singleTestCaseExecutor = new SingleTestCaseExecutor();
 		List<TestCaseReport> reports = singleTestCaseExecutor.execute(testCase, testCaseExecutorUtil);
 		
@@ -54,15 +103,51 @@ public class PerformanceTestCaseExecutor implements TestCaseExecutor {
 		
 		int numParallel = Runtime.getRuntime().availableProcessors()*2;
 		
-		int counter = 0;
+		//The individual reports are only required for the execution logs, otherwise only the aggregates and failures are kept
+		boolean retainReports = testCaseExecutorUtil.getContext().getGatfExecutorConfig().isGenerateExecutionLogs();
+		
+		final PerformanceRunState state = new PerformanceRunState(testCase, testCase.getNumberOfExecutions()-1, retainReports);
+		
+		ExecutorService completionPool = testCaseExecutorUtil.getContext().getPerformanceCompletionPool();
+		for (int i = 0; i < numParallel && i < state.totalExecutions; i++) {
+			startNextExecution(state, testCaseExecutorUtil, completionPool);
+		}
+		
+		try {
+			state.completed.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		
+		testCaseReport.setNumberOfRuns(testCaseReport.getNumberOfRuns() + state.totalExecutions);
+		testCaseReport.setExecutionTime(testCaseReport.getExecutionTime() + state.totalExecutionTime.get());
+		testCaseReport.getExecutionTimes().addAll(state.executionTimes);
+		testCaseReport.getErrors().putAll(state.errors);
+		reports.addAll(state.reports);
+		
+		testCaseReport.setAverageExecutionTime(testCaseReport.getExecutionTime()/testCaseReport.getNumberOfRuns());
+		return reports;
+	}
+	
+	/**
+	 * Start the next pending execution, the request completion callback starts the execution after it, 
+	 * so that the number of requests in flight stays constant till all the executions are started
+	 */
+	private void startNextExecution(final PerformanceRunState state, final TestCaseExecutorUtil testCaseExecutorUtil, 
+			final ExecutorService completionPool) {
+		
+		WorkflowContextHandler workflowContextHandler = testCaseExecutorUtil.getContext().getWorkflowContextHandler();
 		
-		List<ListenableFuture<TestCaseReport>> futures = new ArrayList<ListenableFuture<TestCaseReport>>();
-		for (int i = 0; i < testCase.getNumberOfExecutions()-1; i++) {
+		while(true) {
+			final int executionNum = state.nextExecution.getAndIncrement();
+			if(executionNum>=state.totalExecutions) {
+				return;
+			}
 			
-				testCaseReport.setNumberOfRuns(testCaseReport.getNumberOfRuns()+1);
-				TestCase testCaseCopy = new TestCase(testCase);
-				TestCaseReport testCaseReportCopy = new TestCaseReport(testCaseReport);
-				reports.add(testCaseReportCopy);
+			TestCase testCaseCopy = new TestCase(state.testCase);
+			final TestCaseReport testCaseReportCopy = new TestCaseReport();
+			testCaseReportCopy.setTestCase(testCaseCopy);
+			testCaseReportCopy.setNumberOfRuns(1);
 			
 			try {
 				workflowContextHandler.handleContextVariables(testCaseCopy, new HashMap<String, String>(), 
@@ -70,61 +155,35 @@ public class PerformanceTestCaseExecutor implements TestCaseExecutor {
 			} catch (Throwable e) {
 				testCaseReportCopy.setExecutionTime(0L);
 				testCaseReportCopy.setStatus(TestStatus.Failed.status);
-				testCaseReport.setFailureReason(TestFailureReason.Exception.status);
+				testCaseReportCopy.setFailureReason(TestFailureReason.Exception.status);
 				testCaseReportCopy.setErrorText(ExceptionUtils.getStackTrace(e));
 				testCaseReportCopy.setError(e.getMessage());
 				if(e.getMessage()==null && testCaseReportCopy.getErrorText()!=null && testCaseReportCopy.getErrorText().indexOf("\n")!=-1) {
 					testCaseReportCopy.setError(testCaseReportCopy.getErrorText().substring(0, testCaseReportCopy.getErrorText().indexOf("\n")));
 				}
-				
-				testCaseReport.setExecutionTime(testCaseReport.getExecutionTime() + testCaseReportCopy.getExecutionTime());
-				testCaseReport.getExecutionTimes().add(testCaseReportCopy.getExecutionTime());
-				testCaseReport.getErrors().put(i+2+"", testCaseReportCopy.getError());
-
 				e.printStackTrace();
+				
+				state.addReport(executionNum, testCaseReportCopy);
 				continue;
 			}
 			
-			ListenableFuture<TestCaseReport> listenableFuture = testCaseExecutorUtil.executeTestCase(testCaseCopy, testCaseReportCopy);
-			futures.add(listenableFuture);
-			
-			if(futures.size()==numParallel) {
-				for (ListenableFuture<TestCaseReport> listenableFutureT : futures) {
-					
+			final ListenableFuture<TestCaseReport> listenableFuture = testCaseExecutorUtil.executeTestCase(testCaseCopy, testCaseReportCopy);
+			listenableFuture.addListener(new Runnable() {
+				public void run() {
+					TestCaseReport tc = testCaseReportCopy;
 					try {
-						TestCaseReport tc = listenableFutureT.get();
-						testCaseReport.setExecutionTime(testCaseReport.getExecutionTime() + tc.getExecutionTime());
-						testCaseReport.getExecutionTimes().add(tc.getExecutionTime());
-						if(tc.getError()!=null)
-						{
-							testCaseReport.getErrors().put(i+2+"", tc.getError());
-						}
+						tc = listenableFuture.get();
 					} catch (Exception e) {
+						tc.setStatus(TestStatus.Failed.status);
+						tc.setError(e.getMessage());
+						tc.setErrorText(ExceptionUtils.getStackTrace(e));
 						e.printStackTrace();
 					}
-					counter ++;
-				}
-				futures.clear();
-			}
-		}
-		
-		for (int i=counter;i<counter+futures.size();i++) {
-			
-			ListenableFuture<TestCaseReport> listenableFuture = futures.get(i);
-			try {
-				TestCaseReport tc = listenableFuture.get();
-				testCaseReport.setExecutionTime(testCaseReport.getExecutionTime() + tc.getExecutionTime());
-				testCaseReport.getExecutionTimes().add(tc.getExecutionTime());
-				if(tc.getError()!=null)
-				{
-					testCaseReport.getErrors().put(i+2+"", tc.getError());
+					state.addReport(executionNum, tc);
+					startNextExecution(state, testCaseExecutorUtil, completionPool);
 				}
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+			}, completionPool);
+			return;
 		}
-		
-		testCaseReport.setAverageExecutionTime(testCaseReport.getExecutionTime()/testCaseReport.getNumberOfRuns());
-		return reports;
 	}
-}
\ No newline at end of file
+}
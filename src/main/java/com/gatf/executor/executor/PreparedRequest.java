@@ -0,0 +1,99 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.executor;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ning.http.client.Part;
+import com.ning.http.client.Request;
+import com.ning.http.client.RequestBuilder;
+
+/**
+ * @author Sumeet Chhetri
+ * The request of a testcase without any templated request fields, the complete url and the body (with the 
+ * content/multipart files already loaded) are computed once at validation time, the complete request is 
+ * reused as is as long as the headers of the testcase are unchanged (no cookies or auth token to add)
+ */
+public class PreparedRequest {
+
+	private final String baseUrl;
+	
+	private final String url;
+	
+	private final String body;
+	
+	private final List<Part> parts;
+	
+	private final Map<String, String> headers;
+	
+	private final Request request;
+	
+	public PreparedRequest(String method, String baseUrl, String url, String body, List<Part> parts, 
+			Map<String, String> headers)
+	{
+		this.baseUrl = baseUrl;
+		this.url = url;
+		this.body = body;
+		this.parts = parts;
+		this.headers = headers!=null?new HashMap<String, String>(headers):Collections.<String, String>emptyMap();
+		
+		RequestBuilder builder = newBuilder(method);
+		for (Map.Entry<String, String> entry : this.headers.entrySet()) {
+			builder.addHeader(entry.getKey(), entry.getValue());
+		}
+		this.request = builder.build();
+	}
+	
+	/**
+	 * The testcase copies of the comparison runs carry their own base url
+	 */
+	public boolean isApplicable(String baseUrl) {
+		return this.baseUrl.equals(baseUrl);
+	}
+
+	public String getUrl() {
+		return url;
+	}
+	
+	/**
+	 * @return the prebuilt request if the headers are the same as the ones it was built with, null otherwise
+	 */
+	public Request getRequest(Map<String, String> headers) {
+		if(headers==null || headers.isEmpty()) {
+			return this.headers.isEmpty()?request:null;
+		}
+		return this.headers.equals(headers)?request:null;
+	}
+	
+	/**
+	 * @return a builder with the url and the body already set
+	 */
+	public RequestBuilder newBuilder(String method) {
+		RequestBuilder builder = new RequestBuilder(method).setUrl(url);
+		if(body!=null) {
+			builder.setBody(body);
+		}
+		if(parts!=null) {
+			for (Part part : parts) {
+				builder.addBodyPart(part);
+			}
+		}
+		return builder;
+	}
+}
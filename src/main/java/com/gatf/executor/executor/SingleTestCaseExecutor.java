@@ -36,12 +36,24 @@ public class SingleTestCaseExecutor implements TestCaseExecutor {
 
 	public List<TestCaseReport> execute(TestCase testCase, TestCaseExecutorUtil testCaseExecutorUtil) {
 
-		WorkflowContextHandler workflowContextHandler = testCaseExecutorUtil.getContext().getWorkflowContextHandler();
-		
 		TestCaseReport testCaseReport = new TestCaseReport();
 		testCaseReport.setTestCase(testCase);
 		testCaseReport.setNumberOfRuns(1);
 		
+		ListenableFuture<TestCaseReport> report = executeAsync(testCase, testCaseExecutorUtil, testCaseReport);
+		return getReports(report, testCaseReport);
+	}
+	
+	/**
+	 * Issues the request without waiting for the response
+	 * @return the pending response or null when the context variables could not be resolved, the 
+	 * testCaseReport holds the failure in that case
+	 */
+	public ListenableFuture<TestCaseReport> executeAsync(TestCase testCase, TestCaseExecutorUtil testCaseExecutorUtil, 
+			TestCaseReport testCaseReport) {
+		
+		WorkflowContextHandler workflowContextHandler = testCaseExecutorUtil.getContext().getWorkflowContextHandler();
+		
 		try {
 			workflowContextHandler.handleContextVariables(testCase, new HashMap<String, String>(), 
 					testCaseExecutorUtil.getContext());
@@ -56,20 +68,25 @@ public class SingleTestCaseExecutor implements TestCaseExecutor {
 			}
 
 			e.printStackTrace();
-			
-			List<TestCaseReport> lst = new ArrayList<TestCaseReport>();
-			lst.add(testCaseReport);
-			return lst;
+			return null;
 		}
 		
-		ListenableFuture<TestCaseReport> report = testCaseExecutorUtil.executeTestCase(testCase, testCaseReport);
-		try {
-			testCaseReport = report.get();
-		} catch (Exception e) {
-			testCaseReport.setStatus(TestStatus.Failed.status);
-			testCaseReport.setError(e.getMessage());
-			testCaseReport.setErrorText(ExceptionUtils.getStackTrace(e));
-			e.printStackTrace();
+		return testCaseExecutorUtil.executeTestCase(testCase, testCaseReport);
+	}
+	
+	/**
+	 * Waits for the response of a request issued by executeAsync
+	 */
+	public List<TestCaseReport> getReports(ListenableFuture<TestCaseReport> report, TestCaseReport testCaseReport) {
+		if(report!=null) {
+			try {
+				testCaseReport = report.get();
+			} catch (Exception e) {
+				testCaseReport.setStatus(TestStatus.Failed.status);
+				testCaseReport.setError(e.getMessage());
+				testCaseReport.setErrorText(ExceptionUtils.getStackTrace(e));
+				e.printStackTrace();
+			}
 		}
 		
 		List<TestCaseReport> lst = new ArrayList<TestCaseReport>();
@@ -17,8 +17,10 @@ package com.gatf.executor.executor;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.StringWriter;
 import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,11 +34,6 @@ import java.util.logging.Logger;
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -44,15 +41,18 @@ import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.junit.Assert;
-import org.w3c.dom.Document;
 
 import com.gatf.executor.core.AcceptanceTestContext;
+import com.gatf.executor.core.GatfExecutorConfig;
 import com.gatf.executor.core.TestCase;
+import com.gatf.executor.core.WorkflowContextHandler;
+import com.gatf.executor.report.LiveMetrics;
 import com.gatf.executor.report.TestCaseReport;
 import com.gatf.executor.report.TestCaseReport.TestFailureReason;
 import com.gatf.executor.report.TestCaseReport.TestStatus;
 import com.gatf.executor.validator.JSONResponseValidator;
 import com.gatf.executor.validator.NoContentResponseValidator;
+import com.gatf.executor.validator.SOAPRequestTemplate;
 import com.gatf.executor.validator.SOAPResponseValidator;
 import com.gatf.executor.validator.TextResponseValidator;
 import com.gatf.executor.validator.XMLResponseValidator;
@@ -68,6 +68,7 @@ import com.ning.http.client.Part;
 import com.ning.http.client.Request;
 import com.ning.http.client.RequestBuilder;
 import com.ning.http.client.Response;
+import com.ning.http.multipart.ByteArrayPartSource;
 import com.ning.http.multipart.FilePart;
 import com.ning.http.multipart.StringPart;
 import com.ning.http.util.Base64;
@@ -93,6 +94,10 @@ public class TestCaseExecutorUtil {
 	
 	private AsyncHttpClient client;
 	
+	private boolean sharedClient;
+	
+	private static AsyncHttpClient sharedConnectionClient;
+	
 	private AcceptanceTestContext context = null;
 	
 	public TestCaseExecutorUtil(AcceptanceTestContext context)
@@ -140,6 +145,52 @@ public class TestCaseExecutorUtil {
 		return util;
 	}
 	
+	/**
+	 * @param context
+	 * @return an executor backed by the long-lived pooled client shared by the ui and plugin executions, 
+	 * the client is not closed by shutdown()
+	 */
+	public static TestCaseExecutorUtil getSharedConnection(AcceptanceTestContext context)
+	{
+		TestCaseExecutorUtil util = new TestCaseExecutorUtil();
+		util.client = getSharedConnectionClient();
+		util.sharedClient = true;
+		util.context = context;
+		return util;
+	}
+	
+	/**
+	 * @return the long-lived pooled client shared by the ui executions, the client is created on first use 
+	 * and is closed by shutdownSharedConnection()
+	 */
+	private static synchronized AsyncHttpClient getSharedConnectionClient()
+	{
+		if(sharedConnectionClient==null || sharedConnectionClient.isClosed())
+		{
+			Builder builder = new AsyncHttpClientConfig.Builder();
+			builder.setConnectionTimeoutInMs(10000)
+					.setMaximumConnectionsPerHost(10)
+					.setMaximumConnectionsTotal(100)
+					.setRequestTimeoutInMs(100000)
+					.setAllowPoolingConnection(true)
+					.setCompressionEnabled(false)
+					.setIOThreadMultiplier(2)
+					.build();
+			
+			sharedConnectionClient = new AsyncHttpClient(builder.build());
+		}
+		return sharedConnectionClient;
+	}
+	
+	public static synchronized void shutdownSharedConnection()
+	{
+		if(sharedConnectionClient!=null)
+		{
+			sharedConnectionClient.close();
+			sharedConnectionClient = null;
+		}
+	}
+	
 	public AcceptanceTestContext getContext() {
 		return context;
 	}
@@ -249,10 +300,7 @@ public class TestCaseExecutorUtil {
 		if(!testCase.isSoapBase()) {
 			String turl = testCase.getAurl();
 			
-			String url = testCase.getAurl();
-			if(url.indexOf("?")!=-1) {
-				url = url.substring(0, url.indexOf("?"));
-			}
+			String url = getUrlPath(testCase.getAurl());
 			
 			if(testCase.getSimulationNumber()>=0 && context.getProviderTestDataMap()!=null 
 					&& !context.getProviderTestDataMap().isEmpty() 
@@ -323,63 +371,7 @@ public class TestCaseExecutorUtil {
 				testCase.setContent(content);
 			}
 			
-			String authUrl = testCase.isServerApiTarget()?"":context.getGatfExecutorConfig().getAuthUrl();
-			String[] authExtractAuthParams = testCase.isServerApiTarget()?context.getGatfExecutorConfig().getServerApiAuthExtractAuthParams()
-					:context.getGatfExecutorConfig().getAuthExtractAuthParams();
-			
-			if(testCase.isSecure() && !authUrl.equals(url)) {
-				String sessIdentifier = context.getSessionIdentifier(testCase);
-				String tokenNm = authExtractAuthParams[2];
-				if(context.getWorkflowContextHandler().getSuiteWorkflowContext(testCase)!=null &&
-						context.getWorkflowContextHandler().getSuiteWorkflowContext(testCase).get(tokenNm)!=null)
-				{
-					sessIdentifier = context.getWorkflowContextHandler().getSuiteWorkflowContext(testCase).get(tokenNm);
-				}
-				
-				Assert.assertNotNull("Authentication Token is null", sessIdentifier);
-				
-				if(authExtractAuthParams[3].equalsIgnoreCase("queryparam"))
-				{
-					if(turl.indexOf("?")!=-1 && turl.indexOf("{"+authExtractAuthParams[2]+"}")!=-1) {
-						turl = turl.replaceAll("\\{"+authExtractAuthParams[2]+"\\}", sessIdentifier);
-					}
-					else
-					{
-						if(turl.indexOf("?")!=-1) {
-							String urlpart = turl.substring(0, turl.indexOf("?")+1);
-							String paramstr = turl.substring(turl.indexOf("?")+1);
-							String[] params = paramstr.split("&");
-							boolean isAppendAuthToken = false;
-							for (String param : params) {
-								String[] pair = param.split("=");
-								String key = pair[0];
-								String value = pair.length>1?pair[1]:"";
-								if(key.trim().equals(authExtractAuthParams[2])) {
-									urlpart += (key + "=" + sessIdentifier);
-									isAppendAuthToken = true;
-								} else {
-									urlpart += (key + "=" + value);
-								}
-								urlpart += "&";
-							}
-							if(!isAppendAuthToken) {
-								urlpart += (authExtractAuthParams[2] + "=" + sessIdentifier);
-							}
-							turl = urlpart;
-						} else {
-							turl += "?" + authExtractAuthParams[2] + "=" + sessIdentifier;
-						}
-					}
-				}
-				else if(authExtractAuthParams[3].equalsIgnoreCase("header"))
-				{
-					testCase.getHeaders().put(authExtractAuthParams[2], sessIdentifier);
-				}
-				else if(authExtractAuthParams[3].equalsIgnoreCase("cookie"))
-				{
-					testCase.getHeaders().put("Cookie", authExtractAuthParams[2] + "=" + sessIdentifier);
-				}
-			}
+			turl = addAuthToken(testCase, url, turl);
 
 			String completeUrl = getUrl(testCase.getBaseUrl(), turl);
 			
@@ -433,39 +425,104 @@ public class TestCaseExecutorUtil {
 			
 			if(request==null || request.trim().isEmpty())
 			{
-				Document soapMessage = context.getSoapMessages().get(testCase.getWsdlKey()+testCase.getOperationName());
-				SOAPResponseValidator.processSOAPRequest(soapMessage, testCase);
-				
-				Transformer transformer = TransformerFactory.newInstance().newTransformer();
-				transformer.setOutputProperty(OutputKeys.INDENT, "yes");        
-				StringWriter sw = new StringWriter();
-				StreamResult result = new StreamResult(sw);
-				DOMSource source = new DOMSource(soapMessage);
-				transformer.transform(source, result);
-				request = sw.toString();
+				SOAPRequestTemplate template = context.getSoapRequestTemplates().get(testCase.getWsdlKey()+testCase.getOperationName());
+				builder = builder.setUrl(testCase.getAurl()).setBody(template.render(testCase));
+			}
+			else
+			{
+				builder = builder.setUrl(testCase.getAurl()).setBody(request);
+			}
+		}
+	}
+	
+	/**
+	 * Adds the authentication token of a secure testcase as per the auth extract params (queryparam/header/cookie)
+	 * @return the url with the token query parameter if applicable
+	 */
+	private String addAuthToken(TestCase testCase, String url, String turl)
+	{
+		String authUrl = testCase.isServerApiTarget()?"":context.getGatfExecutorConfig().getAuthUrl();
+		String[] authExtractAuthParams = testCase.isServerApiTarget()?context.getGatfExecutorConfig().getServerApiAuthExtractAuthParams()
+				:context.getGatfExecutorConfig().getAuthExtractAuthParams();
+		
+		if(testCase.isSecure() && !authUrl.equals(url)) {
+			String sessIdentifier = context.getSessionIdentifier(testCase);
+			String tokenNm = authExtractAuthParams[2];
+			if(context.getWorkflowContextHandler().getSuiteWorkflowContext(testCase)!=null &&
+					context.getWorkflowContextHandler().getSuiteWorkflowContext(testCase).get(tokenNm)!=null)
+			{
+				sessIdentifier = context.getWorkflowContextHandler().getSuiteWorkflowContext(testCase).get(tokenNm);
 			}
 			
-			builder = builder.setUrl(testCase.getAurl()).setBody(request);
+			Assert.assertNotNull("Authentication Token is null", sessIdentifier);
+			
+			if(authExtractAuthParams[3].equalsIgnoreCase("queryparam"))
+			{
+				if(turl.indexOf("?")!=-1 && turl.indexOf("{"+authExtractAuthParams[2]+"}")!=-1) {
+					turl = turl.replaceAll("\\{"+authExtractAuthParams[2]+"\\}", sessIdentifier);
+				}
+				else
+				{
+					if(turl.indexOf("?")!=-1) {
+						String urlpart = turl.substring(0, turl.indexOf("?")+1);
+						String paramstr = turl.substring(turl.indexOf("?")+1);
+						String[] params = paramstr.split("&");
+						boolean isAppendAuthToken = false;
+						for (String param : params) {
+							String[] pair = param.split("=");
+							String key = pair[0];
+							String value = pair.length>1?pair[1]:"";
+							if(key.trim().equals(authExtractAuthParams[2])) {
+								urlpart += (key + "=" + sessIdentifier);
+								isAppendAuthToken = true;
+							} else {
+								urlpart += (key + "=" + value);
+							}
+							urlpart += "&";
+						}
+						if(!isAppendAuthToken) {
+							urlpart += (authExtractAuthParams[2] + "=" + sessIdentifier);
+						}
+						turl = urlpart;
+					} else {
+						turl += "?" + authExtractAuthParams[2] + "=" + sessIdentifier;
+					}
+				}
+			}
+			else if(authExtractAuthParams[3].equalsIgnoreCase("header"))
+			{
+				testCase.getHeaders().put(authExtractAuthParams[2], sessIdentifier);
+			}
+			else if(authExtractAuthParams[3].equalsIgnoreCase("cookie"))
+			{
+				testCase.getHeaders().put("Cookie", authExtractAuthParams[2] + "=" + sessIdentifier);
+			}
 		}
+		return turl;
 	}
 	
 	public ListenableFuture<TestCaseReport> executeTestCase(TestCase testCase, TestCaseReport testCaseReport)
 	{
 		long start = System.currentTimeMillis();
+		long startNanos = System.nanoTime();
 		
-		RequestBuilder builder = new RequestBuilder(testCase.getMethod());
+		RequestBuilder builder = null;
 		
 		try {
+			//hooks can change the testcase, the prepared request is not used then
+			boolean isHooked = false;
 			if(!testCase.isExternalApi() && !testCase.isDisablePreHooks())
 			{
 				List<Method> preHook = context.getPrePostHook(testCase, true);
 				if(preHook!=null) {
 					for (Method method : preHook) {
 						method.invoke(null, new Object[]{testCase});
+						isHooked = true;
 					}
 				}
 				
 				if(testCase.getPreExecutionDataSourceHookName()!=null) {
+					isHooked = true;
 					try {
 						context.executeDataSourceHook(testCase.getPreExecutionDataSourceHookName());
 					} catch (Throwable e) {
@@ -474,24 +531,44 @@ public class TestCaseExecutorUtil {
 				}
 			}
 			
-			handleRequestContent(testCase, builder);
+			Request request = null;
+			PreparedRequest preparedRequest = isHooked?null:testCase.getPreparedRequest();
+			if(preparedRequest!=null && preparedRequest.isApplicable(testCase.getBaseUrl()))
+			{
+				if(testCase.isSecure()) {
+					addAuthToken(testCase, getUrlPath(testCase.getUrl()), testCase.getUrl());
+				}
+				testCase.setAurl(preparedRequest.getUrl());
+				request = preparedRequest.getRequest(testCase.getHeaders());
+				if(request==null) {
+					builder = preparedRequest.newBuilder(testCase.getMethod());
+				}
+			}
+			else
+			{
+				builder = new RequestBuilder(testCase.getMethod());
+				handleRequestContent(testCase, builder);
+			}
 			
-			if(testCase.getHeaders()!=null)
+			if(request==null)
 			{
-				for (Map.Entry<String, String> entry : testCase.getHeaders().entrySet()) {
-					builder = builder.addHeader(entry.getKey(), entry.getValue());
+				if(testCase.getHeaders()!=null)
+				{
+					for (Map.Entry<String, String> entry : testCase.getHeaders().entrySet()) {
+						builder = builder.addHeader(entry.getKey(), entry.getValue());
+					}
 				}
+				request = builder.build();
 			}
 			
 			testCaseReport.setTestCase(testCase);
-			Request request = builder.build();
 			
 			if(!testCase.isExternalApi() && !testCase.isDisablePreHooks() && testCase.getPreWaitMs()!=null 
 					&& testCase.getPreWaitMs()>0) {
 				Thread.sleep(testCase.getPreWaitMs());
 			}
 			
-			return client.executeRequest(request, new TestCaseResponseHandler(testCase, testCaseReport, context, start));
+			return client.executeRequest(request, new TestCaseResponseHandler(testCase, testCaseReport, context, start, startNanos));
 		} catch (Throwable e) {
 			testCaseReport.setExecutionTime(System.currentTimeMillis() - start);
 			testCaseReport.setStatus(TestStatus.Failed.status);
@@ -502,6 +579,7 @@ public class TestCaseExecutorUtil {
 				testCaseReport.setError(testCaseReport.getErrorText().substring(0, testCaseReport.getErrorText().indexOf("\n")));
 			}
 			e.printStackTrace();
+			LiveMetrics.record(testCaseReport);
 			final TestCaseReport testCaseReportt = testCaseReport;
 			return new ListenableFuture<TestCaseReport>() {
 
@@ -550,12 +628,111 @@ public class TestCaseExecutorUtil {
 
 				public ListenableFuture<TestCaseReport> addListener(
 						Runnable listener, Executor exec) {
-					return null;
+					exec.execute(listener);
+					return this;
 				}
 			};
 		}
 	}
 	
+	private static String getUrlPath(String url) {
+		if(url.indexOf("?")!=-1) {
+			url = url.substring(0, url.indexOf("?"));
+		}
+		return url;
+	}
+	
+	/**
+	 * Prebuilds the request of a testcase whose url, content and headers have no templates and which does not 
+	 * take part in the authentication flow, only the auth token header/cookie is filled in at execution time
+	 */
+	public void prepareRequest(TestCase testCase)
+	{
+		testCase.setPreparedRequest(null);
+		if(testCase.isSoapBase() || testCase.isExternalApi() || testCase.isServerApiAuth() || testCase.isServerApiTarget()
+				|| StringUtils.isBlank(testCase.getBaseUrl()) || StringUtils.isBlank(testCase.getUrl())) {
+			return;
+		}
+		if(WorkflowContextHandler.isTemplate(testCase.getUrl()) || WorkflowContextHandler.isTemplate(testCase.getContent())) {
+			return;
+		}
+		if(testCase.getHeaders()!=null) {
+			for (String value : testCase.getHeaders().values()) {
+				if(WorkflowContextHandler.isTemplate(value)) {
+					return;
+				}
+			}
+		}
+		
+		GatfExecutorConfig config = context.getGatfExecutorConfig();
+		if(config.isAuthEnabled() && config.getAuthUrl()!=null && config.getAuthUrl().equals(testCase.getUrl())) {
+			return;
+		}
+		if(testCase.isSecure()) {
+			String[] authExtractAuthParams = config.getAuthExtractAuthParams();
+			if(config.getAuthUrl()==null || config.getAuthUrl().equals(getUrlPath(testCase.getUrl())) 
+					|| authExtractAuthParams==null || authExtractAuthParams.length<4
+					|| (!authExtractAuthParams[3].equalsIgnoreCase("header") 
+							&& !authExtractAuthParams[3].equalsIgnoreCase("cookie"))) {
+				return;
+			}
+		}
+		
+		try {
+			String body = null;
+			List<Part> parts = null;
+			if(StringUtils.isNotBlank(testCase.getContent()) && !testCase.getMethod().equals(HttpMethod.GET))
+			{
+				body = testCase.getContent();
+			}
+			else if(testCase.getMultipartContent()!=null && !testCase.getMultipartContent().isEmpty())
+			{
+				parts = new ArrayList<Part>();
+				for (String filedet : testCase.getMultipartContent()) {
+					String[] mulff = filedet.split(":");
+					if(mulff.length!=4 && mulff.length!=3) {
+						continue;
+					}
+					String controlname = mulff[0].trim();
+					String type = mulff[1].trim();
+					String fileNmOrTxt = mulff[2].trim();
+					String contType = mulff.length==4?mulff[3].trim():"";
+					
+					//invalid parts are reported (and skipped) by the regular execution
+					if(fileNmOrTxt.isEmpty() || (contType.isEmpty() && type.equalsIgnoreCase("text"))) {
+						return;
+					}
+					if(type.equalsIgnoreCase("file")) {
+						File file = getResourceFile(config.getTestCasesBasePath(), fileNmOrTxt);
+						if(file==null || !file.isFile()) {
+							return;
+						}
+						byte[] fileData = FileUtils.readFileToByteArray(file);
+						parts.add(new FilePart(controlname, new ByteArrayPartSource(file.getName(), fileData), contType, null));
+					} else if(type.equalsIgnoreCase("text")) {
+						parts.add(new StringPart(controlname, fileNmOrTxt));
+					} else {
+						return;
+					}
+				}
+			}
+			else if(StringUtils.isNotBlank(testCase.getContentFile()))
+			{
+				File file = getResourceFile(config.getTestCasesBasePath(), testCase.getContentFile());
+				if(file==null || !file.isFile()) {
+					return;
+				}
+				body = FileUtils.readFileToString(file);
+			}
+			
+			String completeUrl = getUrl(testCase.getBaseUrl(), testCase.getUrl());
+			testCase.setPreparedRequest(new PreparedRequest(testCase.getMethod(), testCase.getBaseUrl(), completeUrl, 
+					body, parts, testCase.getHeaders()));
+		} catch (Throwable e) {
+			//the testcase is built on every execution, which reports the actual error
+		}
+	}
+	
 	private File getResourceFile(String baseFolder, String filename) {
 		try {
 			File basePath = new File(baseFolder);
@@ -583,9 +760,21 @@ public class TestCaseExecutorUtil {
 		
 		private long start;
 		
+		private long startNanos;
+		
+		//The body is neither validated nor retained, so the received parts are not accumulated
+		private final boolean discardBody;
+		
 		public TestCaseResponseHandler(TestCase testCase, TestCaseReport testCaseReport, 
 				AcceptanceTestContext context, long start)
 		{
+			this(testCase, testCaseReport, context, start, System.nanoTime());
+		}
+		
+		public TestCaseResponseHandler(TestCase testCase, TestCaseReport testCaseReport, 
+				AcceptanceTestContext context, long start, long startNanos)
+		{
+			this.startNanos = startNanos;
 			this.testCase = testCase;
 			this.testCaseReport = testCaseReport;
 			Assert.assertNotNull("Testcase cannot be null", testCase);
@@ -594,6 +783,75 @@ public class TestCaseExecutorUtil {
 			Assert.assertNotNull("Context cannot be null", context);
 			this.start = start;
 			this.testCaseReport.setResponseContentType(testCase.getExpectedResContentType());
+			this.discardBody = TestCase.RESPONSE_RETENTION_NONE.equalsIgnoreCase(testCase.getResponseRetentionPolicy())
+					&& !isResponseBodyRequired(testCase, context);
+		}
+		
+		/**
+		 * Whether the response body is needed for node validations, workflow variables or auth token extraction
+		 */
+		private static boolean isResponseBodyRequired(TestCase testCase, AcceptanceTestContext context) {
+			if(testCase.isSoapBase() || testCase.isServerApiAuth() || testCase.getRepeatScenarioProviderName()!=null) {
+				return true;
+			}
+			if((testCase.getAexpectedNodes()!=null && !testCase.getAexpectedNodes().isEmpty()) 
+					|| (testCase.getExpectedNodes()!=null && !testCase.getExpectedNodes().isEmpty())) {
+				return true;
+			}
+			if(testCase.getWorkflowContextParameterMap()!=null && !testCase.getWorkflowContextParameterMap().isEmpty()) {
+				return true;
+			}
+			return context.getGatfExecutorConfig().isAuthEnabled() 
+					&& context.getGatfExecutorConfig().getAuthUrl()!=null
+					&& context.getGatfExecutorConfig().getAuthUrl().equals(testCase.getUrl());
+		}
+		
+		/**
+		 * The response body to be kept in the report as per the response retention policy of the testcase
+		 */
+		private String getRetainedResponseBody(Response response) throws Exception {
+			String policy = testCase.getResponseRetentionPolicy();
+			if(discardBody || TestCase.RESPONSE_RETENTION_NONE.equalsIgnoreCase(policy)) {
+				return null;
+			} else if(TestCase.RESPONSE_RETENTION_TRUNCATE.equalsIgnoreCase(policy)) {
+				return getResponseBodyExcerpt(response, testCase.getResponseRetentionMaxKb()*1024);
+			}
+			return response.getResponseBody();
+		}
+		
+		/**
+		 * The first maxBytes bytes of the body, cut back to the start of a character so that a multi-byte 
+		 * utf-8 sequence is never split into a replacement character
+		 */
+		private static String getResponseBodyExcerpt(Response response, int maxBytes) throws Exception {
+			byte[] body = response.getResponseBodyAsBytes();
+			if(body.length<=maxBytes) {
+				return response.getResponseBody();
+			}
+			Charset charset = getResponseCharset(response.getContentType());
+			int length = maxBytes;
+			if(StandardCharsets.UTF_8.equals(charset)) {
+				while(length>0 && (body[length] & 0xC0)==0x80) {
+					length--;
+				}
+			}
+			return new String(body, 0, length, charset);
+		}
+		
+		private static Charset getResponseCharset(String contentType) {
+			if(contentType!=null) {
+				for (String part : contentType.split(";")) {
+					part = part.trim();
+					if(part.toLowerCase().startsWith("charset=")) {
+						try {
+							return Charset.forName(part.substring(8).replace("\"", "").trim());
+						} catch (Exception e) {
+						}
+					}
+				}
+			}
+			//The default charset of the http client
+			return StandardCharsets.ISO_8859_1;
 		}
 		
 		/*
@@ -608,6 +866,10 @@ public class TestCaseExecutorUtil {
 			testCaseReport.setErrorText(ExceptionUtils.getStackTrace(t));
 			testCase.setFailed(true);
 			t.printStackTrace();
+			if(testCaseReport.getExecutionTimeMicros()==null) {
+				testCaseReport.setExecutionTimeMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+			}
+			LiveMetrics.record(testCaseReport);
 		}
 	
 		public static boolean isMatchesContentType(MediaType md, String contType) {
@@ -617,9 +879,9 @@ public class TestCaseExecutorUtil {
 		public com.ning.http.client.AsyncHandler.STATE onBodyPartReceived(
 				HttpResponseBodyPart bodyPart) throws Exception {
 			String contType = testCase.getExpectedResContentType();
-			if(isMatchesContentType(MediaType.APPLICATION_JSON_TYPE, contType) || isMatchesContentType(MediaType.APPLICATION_XML_TYPE, contType)
+			if(!discardBody && (isMatchesContentType(MediaType.APPLICATION_JSON_TYPE, contType) || isMatchesContentType(MediaType.APPLICATION_XML_TYPE, contType)
 					|| isMatchesContentType(MediaType.TEXT_PLAIN_TYPE, contType) || isMatchesContentType(MediaType.TEXT_HTML_TYPE, contType)
-					|| isMatchesContentType(MediaType.TEXT_XML_TYPE, contType))
+					|| isMatchesContentType(MediaType.TEXT_XML_TYPE, contType)))
 			{
 				builder.accumulate(bodyPart);
 			}
@@ -695,9 +957,10 @@ public class TestCaseExecutorUtil {
 		public TestCaseReport onCompleted() throws Exception {
 			Response response = builder.build();
 			testCaseReport.setExecutionTime(System.currentTimeMillis() - start);
+			testCaseReport.setExecutionTimeMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
 			if(testCaseReport.getError()==null)
 			{
-				testCaseReport.setResponseContent(response.getResponseBody());
+				//Validators read the body parts directly, the body string is only built as per the retention policy
 				testCaseReport.setResHeaders(response.getHeaders());
 				if(!testCase.isSoapBase()) {
 					if(isMatchesContentType(MediaType.APPLICATION_JSON_TYPE, testCase.getExpectedResContentType()))
@@ -722,6 +985,7 @@ public class TestCaseExecutorUtil {
 				} else {
 					soapResponseValidator.validate(response, testCase, testCaseReport, context);
 				}
+				testCaseReport.setResponseContent(getRetainedResponseBody(response));
 			}
 			
 			if(!testCase.isExternalApi() && !testCase.isDisablePostHooks() && testCase.getPostWaitMs()!=null 
@@ -732,6 +996,7 @@ public class TestCaseExecutorUtil {
 				}
 			}
 			
+			LiveMetrics.record(testCaseReport);
 			return testCaseReport;
 		}
 	}
@@ -748,6 +1013,9 @@ public class TestCaseExecutorUtil {
 	
 	public void shutdown()
 	{
-		client.close();
+		if(!sharedClient)
+		{
+			client.close();
+		}
 	}
 }
\ No newline at end of file
@@ -26,14 +26,15 @@ import com.gatf.executor.core.TestCase;
  */
 public class JSONTestCaseFinder extends TestCaseFinder {
 
+	private static final org.codehaus.jackson.map.ObjectMapper JSON_MAPPER = new org.codehaus.jackson.map.ObjectMapper();
+	
 	protected TestCaseFileType getFileType() {
 		return TestCaseFileType.JSON;
 	}
 
 	@SuppressWarnings("unchecked")
 	public List<TestCase> resolveTestCases(File testCaseFile) throws Exception {
-		org.codehaus.jackson.map.ObjectMapper jsonMapper = new org.codehaus.jackson.map.ObjectMapper();
-		List<TestCase> jsonTestCases = (List<TestCase>)jsonMapper.readValue(testCaseFile, new org.codehaus.jackson.type.TypeReference<List<TestCase>>(){});
+		List<TestCase> jsonTestCases = (List<TestCase>)JSON_MAPPER.readValue(testCaseFile, new org.codehaus.jackson.type.TypeReference<List<TestCase>>(){});
 		return jsonTestCases;
 	}
 }
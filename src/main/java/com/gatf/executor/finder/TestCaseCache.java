@@ -0,0 +1,312 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.finder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import com.gatf.executor.core.TestCase;
+
+/**
+ * @author Sumeet Chhetri
+ * A binary on-disk cache of the validated test cases of each test case file, keyed by the relative file path, 
+ * its last modified time and its content hash, the cache file is read into memory in one go when loaded (not 
+ * memory mapped, a mapped file cannot be replaced on windows when the cache is saved) and the test cases 
+ * of a file are only de-serialized when the file is unchanged
+ */
+public class TestCaseCache {
+
+	private static final Logger logger = Logger.getLogger(TestCaseCache.class.getSimpleName());
+	
+	private static final int MAGIC = 0x47544343;
+	
+	private static final int VERSION = 1;
+	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private static class Entry {
+		private long lastModified;
+		private long length;
+		private byte[] hash;
+		private ByteBuffer data;
+	}
+	
+	private final File cacheFile;
+	
+	private final File testCaseDir;
+	
+	private final String fingerprint;
+	
+	private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	
+	private final Map<String, Entry> updates = new ConcurrentHashMap<String, Entry>();
+	
+	private final AtomicInteger hits = new AtomicInteger();
+	
+	private final AtomicInteger misses = new AtomicInteger();
+	
+	private TestCaseCache(File cacheFile, File testCaseDir, String fingerprint) {
+		this.cacheFile = cacheFile;
+		this.testCaseDir = testCaseDir;
+		this.fingerprint = fingerprint;
+	}
+	
+	/**
+	 * Loads the cache file, the whole cache is discarded when it was written with a different fingerprint 
+	 * (the configuration which the test case validation depends on)
+	 */
+	public static TestCaseCache load(File cacheFile, File testCaseDir, String fingerprint) {
+		TestCaseCache cache = new TestCaseCache(cacheFile, testCaseDir, fingerprint);
+		if(!cacheFile.exists()) {
+			return cache;
+		}
+		
+		RandomAccessFile raf = null;
+		try {
+			raf = new RandomAccessFile(cacheFile, "r");
+			FileChannel channel = raf.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocate((int)channel.size());
+			while(buffer.hasRemaining()) {
+				if(channel.read(buffer)==-1) {
+					break;
+				}
+			}
+			buffer.flip();
+			if(buffer.getInt()!=MAGIC || buffer.getInt()!=VERSION || !fingerprint.equals(readString(buffer))) {
+				logger.info("Ignoring the outdated testcase cache " + cacheFile.getName());
+				return cache;
+			}
+			int count = buffer.getInt();
+			for (int i = 0; i < count; i++) {
+				String path = readString(buffer);
+				Entry entry = new Entry();
+				entry.lastModified = buffer.getLong();
+				entry.length = buffer.getLong();
+				entry.hash = new byte[buffer.getInt()];
+				buffer.get(entry.hash);
+				int dataLength = buffer.getInt();
+				ByteBuffer data = buffer.slice();
+				data.limit(dataLength);
+				entry.data = data;
+				buffer.position(buffer.position() + dataLength);
+				cache.entries.put(path, entry);
+			}
+		} catch (Exception e) {
+			logger.info("Ignoring the unreadable testcase cache " + cacheFile.getName() + " - " + e.getMessage());
+			cache.entries.clear();
+		} finally {
+			if(raf!=null) {
+				try {
+					raf.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		return cache;
+	}
+	
+	/**
+	 * @return the cached validated test cases of the file, or null when the file has changed or is not cached
+	 */
+	public List<TestCase> get(String relativePath, File file) {
+		Entry current = new Entry();
+		current.lastModified = file.lastModified();
+		current.length = file.length();
+		
+		Entry entry = entries.get(relativePath);
+		try {
+			if(entry!=null && entry.length==current.length) {
+				//the modified time changes on every fresh checkout, the content hash decides then
+				current.hash = entry.lastModified==current.lastModified?entry.hash:hash(file);
+				if(Arrays.equals(entry.hash, current.hash)) {
+					List<TestCase> testCases = deserialize(entry.data.duplicate());
+					for (TestCase testCase : testCases) {
+						testCase.setValidated(true);
+					}
+					current.data = entry.data;
+					updates.put(relativePath, current);
+					hits.incrementAndGet();
+					return testCases;
+				}
+			}
+			if(current.hash==null) {
+				current.hash = hash(file);
+			}
+		} catch (Exception e) {
+			logger.info("Ignoring the cached testcases of " + relativePath + " - " + e.getMessage());
+			current.hash = null;
+		}
+		
+		//remember the key of the file that was parsed, the test cases are cached once they are validated
+		if(current.hash!=null) {
+			updates.put(relativePath, current);
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+	
+	/**
+	 * Caches the validated test cases of a file that was not found in the cache
+	 */
+	public void put(String relativePath, List<TestCase> testCases) {
+		Entry entry = updates.get(relativePath);
+		if(entry==null || entry.data!=null) {
+			return;
+		}
+		try {
+			ByteArrayOutputStream bout = new ByteArrayOutputStream();
+			ObjectOutputStream out = new ObjectOutputStream(bout);
+			out.writeObject(new ArrayList<TestCase>(testCases));
+			out.close();
+			entry.data = ByteBuffer.wrap(bout.toByteArray());
+		} catch (Exception e) {
+			logger.info("Unable to cache the testcases of " + relativePath + " - " + e.getMessage());
+			updates.remove(relativePath);
+		}
+	}
+	
+	/**
+	 * Writes the cache file, entries of files that were not part of this run are kept as long as the files exist
+	 */
+	public void save() {
+		for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+			if(!updates.containsKey(entry.getKey()) && new File(testCaseDir, entry.getKey()).exists()) {
+				updates.put(entry.getKey(), entry.getValue());
+			}
+		}
+		
+		File tempFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp");
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new FileOutputStream(tempFile));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeString(out, fingerprint);
+			
+			List<Map.Entry<String, Entry>> complete = new ArrayList<Map.Entry<String, Entry>>();
+			for (Map.Entry<String, Entry> entry : updates.entrySet()) {
+				if(entry.getValue().data!=null) {
+					complete.add(entry);
+				}
+			}
+			out.writeInt(complete.size());
+			for (Map.Entry<String, Entry> entry : complete) {
+				Entry value = entry.getValue();
+				writeString(out, entry.getKey());
+				out.writeLong(value.lastModified);
+				out.writeLong(value.length);
+				out.writeInt(value.hash.length);
+				out.write(value.hash);
+				ByteBuffer data = value.data.duplicate();
+				byte[] bytes = new byte[data.remaining()];
+				data.get(bytes);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			out.close();
+			out = null;
+			Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (Exception e) {
+			logger.warning("Unable to save the testcase cache " + cacheFile.getName() + " - " + e.getMessage());
+		} finally {
+			if(out!=null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+				}
+			}
+			tempFile.delete();
+		}
+	}
+	
+	public int getHits() {
+		return hits.get();
+	}
+	
+	public int getMisses() {
+		return misses.get();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static List<TestCase> deserialize(final ByteBuffer data) throws Exception {
+		ObjectInputStream in = new ObjectInputStream(new InputStream() {
+			public int read() {
+				return data.hasRemaining()?data.get() & 0xFF:-1;
+			}
+			public int read(byte[] b, int off, int len) {
+				if(!data.hasRemaining()) {
+					return -1;
+				}
+				len = Math.min(len, data.remaining());
+				data.get(b, off, len);
+				return len;
+			}
+		});
+		try {
+			return (List<TestCase>)in.readObject();
+		} finally {
+			in.close();
+		}
+	}
+	
+	private static byte[] hash(File file) throws Exception {
+		MessageDigest digest = MessageDigest.getInstance("SHA-1");
+		InputStream in = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[8192];
+			int read = 0;
+			while((read = in.read(buffer))!=-1) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+		return digest.digest();
+	}
+	
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, UTF_8);
+	}
+	
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
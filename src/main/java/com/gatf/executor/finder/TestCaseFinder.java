@@ -18,9 +18,23 @@ package com.gatf.executor.finder;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang.StringUtils;
 
@@ -57,6 +71,13 @@ public abstract class TestCaseFinder {
 	
 	private List<String> targetFileNames;
 	
+	private TestCaseCache testCaseCache;
+	
+	/**
+	 * Parses the test case files in parallel, the worker threads are daemon threads
+	 */
+	private static final ForkJoinPool PARSER_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	
 	public static final FileFilter DIR_FILTER = new FileFilter() {
 		public boolean accept(File file) {
 			return file.isDirectory();
@@ -75,19 +96,74 @@ public abstract class TestCaseFinder {
 		}
 	};
 	
-	public static void getFiles(File dir, FilenameFilter filter, List<File> fileLst)
+	/**
+	 * A directory visited by getFiles, entries accepted by the filter are listed before the 
+	 * contents of the other sub-directories
+	 */
+	private static class DirectoryNode {
+		private final List<File> accepted = new ArrayList<File>();
+		private final List<DirectoryNode> acceptedDirs = new ArrayList<DirectoryNode>();
+		private final List<DirectoryNode> subDirs = new ArrayList<DirectoryNode>();
+		
+		private void flatten(List<File> fileLst) {
+			for (int i = 0; i < accepted.size(); i++) {
+				fileLst.add(accepted.get(i));
+				if(acceptedDirs.get(i)!=null) {
+					acceptedDirs.get(i).flatten(fileLst);
+				}
+			}
+			for (DirectoryNode subDir : subDirs) {
+				subDir.flatten(fileLst);
+			}
+		}
+	}
+	
+	/**
+	 * Walks the directory tree once, for every directory the entries accepted by the filter are added first 
+	 * (followed by their contents if they are directories) and then the contents of the other sub-directories
+	 */
+	public static void getFiles(File dir, final FilenameFilter filter, List<File> fileLst)
 	{
 		if (dir.isDirectory()) {
-			File[] files = dir.listFiles(filter);
-			for (File file : files) {
-				fileLst.add(file);
-				getFiles(file, filter, fileLst);
-			}
-			
-			files = dir.listFiles(DIR_FILTER);
-			for (File file : files) {
-				getFiles(file, filter, fileLst);
+			final Map<Path, DirectoryNode> nodes = new HashMap<Path, DirectoryNode>();
+			final DirectoryNode root = new DirectoryNode();
+			try {
+				Files.walkFileTree(dir.toPath(), EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, 
+						new SimpleFileVisitor<Path>() {
+					public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attrs) {
+						DirectoryNode parent = nodes.get(path.getParent());
+						DirectoryNode node = parent==null?root:new DirectoryNode();
+						nodes.put(path, node);
+						if(parent!=null) {
+							File file = path.toFile();
+							if(filter.accept(file.getParentFile(), file.getName())) {
+								parent.accepted.add(file);
+								parent.acceptedDirs.add(node);
+							} else {
+								parent.subDirs.add(node);
+							}
+						}
+						return FileVisitResult.CONTINUE;
+					}
+					
+					public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) {
+						DirectoryNode parent = nodes.get(path.getParent());
+						File file = path.toFile();
+						if(parent!=null && filter.accept(file.getParentFile(), file.getName())) {
+							parent.accepted.add(file);
+							parent.acceptedDirs.add(null);
+						}
+						return FileVisitResult.CONTINUE;
+					}
+					
+					public FileVisitResult visitFileFailed(Path path, IOException e) {
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			} catch (IOException e) {
+				e.printStackTrace();
 			}
+			root.flatten(fileLst);
 		}
 	}
 	
@@ -100,6 +176,12 @@ public abstract class TestCaseFinder {
 	public void setTargetFileNames(List<String> targetFileNames) {
 		this.targetFileNames = targetFileNames;
 	}
+	public TestCaseCache getTestCaseCache() {
+		return testCaseCache;
+	}
+	public void setTestCaseCache(TestCaseCache testCaseCache) {
+		this.testCaseCache = testCaseCache;
+	}
 	public List<TestCase> findTestCases(File dir, AcceptanceTestContext context, boolean considerConfig,
 			Set<String> relativeFileNames)
 	{
@@ -137,33 +219,65 @@ public abstract class TestCaseFinder {
 				files = orderFiles(orderedFiles, isOrderByFileName, files, dir);
 			}
 			
-			for (File file : files) {
-				String relativeFileName = getRelativePath(file, dir);
-				try {
-					List<TestCase> testcasesTemp = resolveTestCases(file);
-					if(testcasesTemp != null)
-					{
-						for (TestCase testCase : testcasesTemp) {
-							testCase.setSourcefileName(relativeFileName);
-							if(testCase.getSimulationNumber()==null)
-							{
-								testCase.setSimulationNumber(0);
+			final boolean applyBaseUrl = considerConfig;
+			final String baseUrl = considerConfig?context.getGatfExecutorConfig().getBaseUrl():null;
+			final TestCaseCache cache = testCaseCache;
+			
+			//parse all the files in parallel, the results are collected in the file order
+			List<Future<List<TestCase>>> parsed = new ArrayList<Future<List<TestCase>>>(files.size());
+			for (final File file : files) {
+				final String relativeFileName = getRelativePath(file, dir);
+				parsed.add(PARSER_POOL.submit(new Callable<List<TestCase>>() {
+					public List<TestCase> call() throws Exception {
+						if(cache!=null)
+						{
+							//unchanged files are already parsed and validated
+							List<TestCase> cached = cache.get(relativeFileName, file);
+							if(cached!=null) {
+								return cached;
 							}
-							if(considerConfig)
-							{
-							    if(StringUtils.isBlank(testCase.getBaseUrl())) {
-							        testCase.setBaseUrl(context.getGatfExecutorConfig().getBaseUrl());
-							    }
+						}
+						List<TestCase> testcasesTemp = resolveTestCases(file);
+						if(testcasesTemp != null)
+						{
+							for (TestCase testCase : testcasesTemp) {
+								testCase.setSourcefileName(relativeFileName);
+								if(testCase.getSimulationNumber()==null)
+								{
+									testCase.setSimulationNumber(0);
+								}
+								if(applyBaseUrl)
+								{
+								    if(StringUtils.isBlank(testCase.getBaseUrl())) {
+								        testCase.setBaseUrl(baseUrl);
+								    }
+								}
+								testCase.setExternalApi(false);
+								testCase.setServerApiAuth(false);
+								testCase.setServerApiTarget(false);
 							}
-							testCase.setExternalApi(false);
-							testCase.setServerApiAuth(false);
-							testCase.setServerApiTarget(false);
 						}
-						
+						return testcasesTemp;
+					}
+				}));
+			}
+			
+			for (int i = 0; i < files.size(); i++) {
+				String relativeFileName = getRelativePath(files.get(i), dir);
+				try {
+					List<TestCase> testcasesTemp = parsed.get(i).get();
+					if(testcasesTemp != null)
+					{
 						testcases.addAll(testcasesTemp);
 						if(relativeFileNames!=null)relativeFileNames.add(relativeFileName);
 					}
-				} catch (Exception e) {
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				} catch (ExecutionException e) {
+					if(e.getCause() instanceof Error) {
+						throw (Error)e.getCause();
+					}
 					System.out.println("Ignoring file due to invalid testcase format ... " + relativeFileName);
 					//e.printStackTrace();
 				}
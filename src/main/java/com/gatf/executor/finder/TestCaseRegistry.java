@@ -0,0 +1,157 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.finder;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.gatf.executor.core.TestCase;
+
+/**
+ * @author Sumeet Chhetri
+ * An in-memory registry of the parsed xml testcase files indexed by file and testcase name, a file is parsed 
+ * again only when its last modified time or length changes
+ */
+public class TestCaseRegistry {
+
+	private static final TestCaseRegistry INSTANCE = new TestCaseRegistry();
+	
+	private static final FilenameFilter TESTCASE_FILE_FILTER = new FilenameFilter() {
+		public boolean accept(File folder, String name) {
+			String lname = name.toLowerCase();
+			for (TestCaseFinder.TestCaseFileType fileType : TestCaseFinder.TestCaseFileType.values()) {
+				if(lname.endsWith(fileType.ext)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	};
+	
+	private static class Entry {
+		private long lastModified;
+		private long length;
+		private List<TestCase> testCases;
+		private Map<String, TestCase> byName;
+	}
+	
+	private static class Signature {
+		private final long value;
+		private final long checkedAt;
+		private Signature(long value, long checkedAt) {
+			this.value = value;
+			this.checkedAt = checkedAt;
+		}
+	}
+	
+	//Walking a large testcase directory on every lookup is expensive, a signature is reused for this long
+	private static final long SIGNATURE_CHECK_INTERVAL_MS = 2000;
+	
+	private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	
+	private final Map<String, Signature> signatures = new ConcurrentHashMap<String, Signature>();
+	
+	private final XMLTestCaseFinder finder = new XMLTestCaseFinder();
+	
+	private TestCaseRegistry() {
+	}
+	
+	public static TestCaseRegistry getInstance() {
+		return INSTANCE;
+	}
+	
+	/**
+	 * @return the parsed testcases of the xml file, the returned testcases are shared, callers should copy 
+	 * a testcase before modifying it
+	 */
+	public List<TestCase> getTestCases(File file) throws Exception {
+		return getEntry(file).testCases;
+	}
+	
+	/**
+	 * @return the testcase with the given name in the xml file or null if there is no such testcase
+	 */
+	public TestCase getTestCase(File file, String name) throws Exception {
+		return getEntry(file).byName.get(name);
+	}
+	
+	private Entry getEntry(File file) throws Exception {
+		String key = file.getAbsolutePath();
+		long lastModified = file.lastModified();
+		long length = file.length();
+		
+		Entry entry = entries.get(key);
+		if(entry!=null && entry.lastModified==lastModified && entry.length==length) {
+			return entry;
+		}
+		
+		entry = new Entry();
+		entry.lastModified = lastModified;
+		entry.length = length;
+		List<TestCase> testCases = finder.resolveTestCases(file);
+		entry.testCases = Collections.unmodifiableList(testCases!=null?testCases:new ArrayList<TestCase>());
+		entry.byName = new LinkedHashMap<String, TestCase>();
+		for (TestCase testCase : entry.testCases) {
+			//the first testcase wins for duplicate names, same as a linear search
+			if(testCase.getName()!=null && !entry.byName.containsKey(testCase.getName())) {
+				entry.byName.put(testCase.getName(), testCase);
+			}
+		}
+		entries.put(key, entry);
+		return entry;
+	}
+	
+	/**
+	 * @return a signature of all the testcase files under the directory derived from their paths, modified 
+	 * times and lengths, it changes whenever a testcase file is added, removed or modified, the directory is 
+	 * walked again at most once every SIGNATURE_CHECK_INTERVAL_MS so a change can take that long to show up
+	 */
+	public long getDirectorySignature(File dir) {
+		String key = dir!=null?dir.getAbsolutePath():"";
+		long now = System.currentTimeMillis();
+		Signature signature = signatures.get(key);
+		if(signature==null || now-signature.checkedAt>=SIGNATURE_CHECK_INTERVAL_MS) {
+			signature = new Signature(computeDirectorySignature(dir), now);
+			signatures.put(key, signature);
+		}
+		return signature.value;
+	}
+	
+	private static long computeDirectorySignature(File dir) {
+		List<File> files = new ArrayList<File>();
+		if(dir!=null && dir.isDirectory()) {
+			TestCaseFinder.getFiles(dir, TESTCASE_FILE_FILTER, files);
+		}
+		long signature = files.size();
+		for (File file : files) {
+			signature = 31*signature + file.getAbsolutePath().hashCode();
+			signature = 31*signature + file.lastModified();
+			signature = 31*signature + file.length();
+		}
+		return signature;
+	}
+	
+	public void clear() {
+		entries.clear();
+		signatures.clear();
+	}
+}
@@ -28,16 +28,21 @@ import com.thoughtworks.xstream.io.xml.DomDriver;
  */
 public class XMLTestCaseFinder extends TestCaseFinder {
 
+	//XStream is thread safe once configured, annotations are processed upfront
+	private static final XStream XSTREAM = new XStream(new DomDriver("UTF-8"));
+	
+	static {
+		XSTREAM.processAnnotations(new Class[]{TestCase.class});
+		XSTREAM.alias("TestCases", List.class);
+	}
+	
 	protected TestCaseFileType getFileType() {
 		return TestCaseFileType.XML;
 	}
 
 	@SuppressWarnings("unchecked")
 	public List<TestCase> resolveTestCases(File testCaseFile) throws Exception {
-		XStream xstream = new XStream(new DomDriver("UTF-8"));
-		xstream.processAnnotations(new Class[]{TestCase.class});
-		xstream.alias("TestCases", List.class);
-		List<TestCase> xmlTestCases = (List<TestCase>)xstream.fromXML(testCaseFile);
+		List<TestCase> xmlTestCases = (List<TestCase>)XSTREAM.fromXML(testCaseFile);
 		return xmlTestCases;
 	}
 }
@@ -0,0 +1,248 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.report;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.gatf.executor.report.TestCaseReport.TestStatus;
+
+/**
+ * @author Sumeet Chhetri
+ * Live execution metrics, every completed request updates lock-free counters and a latency recorder, 
+ * once a second they are rolled into a sample with the throughput, error rate and latency percentiles 
+ * of that second, the recent samples are retained and pushed to the registered listeners
+ */
+public class LiveMetrics {
+	
+	public static final int HISTORY_SECONDS = 300;
+	
+	public static class Sample implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private long time;
+		private long requests;
+		private long errors;
+		private long totalRequests;
+		private long totalErrors;
+		private List<Double> percentiles;
+		
+		public long getTime() {
+			return time;
+		}
+		public long getRequests() {
+			return requests;
+		}
+		public long getErrors() {
+			return errors;
+		}
+		public double getErrorRate() {
+			return requests==0?0:(double)errors/requests;
+		}
+		public long getTotalRequests() {
+			return totalRequests;
+		}
+		public long getTotalErrors() {
+			return totalErrors;
+		}
+		/**
+		 * @return the latency percentiles of the second in milliseconds in the order of 
+		 * {@link TestExecutionPercentile#PERCENTILES}
+		 */
+		public List<Double> getPercentiles() {
+			return percentiles;
+		}
+	}
+	
+	public static interface Listener
+	{
+		/**
+		 * Called on the sampler thread, implementations should only hand the sample off and return
+		 * @return false to stop receiving samples
+		 */
+		boolean onSample(Sample sample);
+	}
+	
+	private static final AtomicLong requests = new AtomicLong();
+	
+	private static final AtomicLong errors = new AtomicLong();
+	
+	private static final AtomicLong totalRequests = new AtomicLong();
+	
+	private static final AtomicLong totalErrors = new AtomicLong();
+	
+	private static final Recorder latencies = new Recorder(TestExecutionPercentile.HIGHEST_TRACKABLE_MICROS, 
+			TestExecutionPercentile.SIGNIFICANT_VALUE_DIGITS);
+	
+	private static final Deque<Sample> history = new ArrayDeque<Sample>();
+	
+	private static final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+	
+	private static Histogram intervalHistogram = null;
+	
+	private static volatile ScheduledExecutorService sampler = null;
+	
+	public static void record(TestCaseReport testCaseReport)
+	{
+		if(TestStatus.Skipped.status.equals(testCaseReport.getStatus())) {
+			return;
+		}
+		long timeMicros = 0;
+		if(testCaseReport.getExecutionTimeMicros()!=null) {
+			timeMicros = testCaseReport.getExecutionTimeMicros();
+		} else if(testCaseReport.getExecutionTime()!=null) {
+			timeMicros = TimeUnit.MILLISECONDS.toMicros(testCaseReport.getExecutionTime());
+		}
+		record(timeMicros, TestStatus.Failed.status.equals(testCaseReport.getStatus()));
+	}
+	
+	public static void record(long timeMicros, boolean failed)
+	{
+		start();
+		requests.incrementAndGet();
+		if(failed) {
+			errors.incrementAndGet();
+		}
+		latencies.recordValue(Math.max(0, Math.min(timeMicros, TestExecutionPercentile.HIGHEST_TRACKABLE_MICROS)));
+	}
+	
+	public static void start()
+	{
+		if(sampler==null)
+		{
+			synchronized (LiveMetrics.class) {
+				if(sampler==null)
+				{
+					ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r, "gatf-live-metrics");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+					service.scheduleAtFixedRate(new Runnable() {
+						public void run() {
+							try {
+								sample();
+							} catch (Exception e) {
+								e.printStackTrace();
+							}
+						}
+					}, 1, 1, TimeUnit.SECONDS);
+					sampler = service;
+				}
+			}
+		}
+	}
+	
+	private static void sample()
+	{
+		Sample sample = new Sample();
+		sample.time = System.currentTimeMillis();
+		sample.requests = requests.getAndSet(0);
+		sample.errors = errors.getAndSet(0);
+		sample.totalRequests = totalRequests.addAndGet(sample.requests);
+		sample.totalErrors = totalErrors.addAndGet(sample.errors);
+		
+		intervalHistogram = latencies.getIntervalHistogram(intervalHistogram);
+		sample.percentiles = TestExecutionPercentile.getPercentileTimes(intervalHistogram);
+		
+		synchronized (history) {
+			history.addLast(sample);
+			if(history.size()>HISTORY_SECONDS) {
+				history.removeFirst();
+			}
+			
+			for (Listener listener : listeners) {
+				if(!listener.onSample(sample)) {
+					listeners.remove(listener);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @param time
+	 * @return the retained samples taken after the given time in milliseconds
+	 */
+	public static List<Sample> getSamples(long time)
+	{
+		List<Sample> samples = new ArrayList<Sample>();
+		synchronized (history) {
+			for (Sample sample : history) {
+				if(sample.time>time) {
+					samples.add(sample);
+				}
+			}
+		}
+		return samples;
+	}
+	
+	public static void addListener(Listener listener)
+	{
+		start();
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Hands the retained samples taken after the given time to the listener and then registers it, 
+	 * no sample is missed or repeated in between
+	 * @param listener
+	 * @param time
+	 */
+	public static void addListener(Listener listener, long time)
+	{
+		start();
+		synchronized (history) {
+			for (Sample sample : history) {
+				if(sample.time>time && !listener.onSample(sample)) {
+					return;
+				}
+			}
+			listeners.add(listener);
+		}
+	}
+	
+	public static void removeListener(Listener listener)
+	{
+		listeners.remove(listener);
+	}
+	
+	public static void reset()
+	{
+		requests.set(0);
+		errors.set(0);
+		totalRequests.set(0);
+		totalErrors.set(0);
+		latencies.reset();
+		synchronized (history) {
+			history.clear();
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.report;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.gatf.executor.report.TestCaseReport.TestStatus;
+
+/**
+ * @author Sumeet Chhetri
+ * Streaming aggregates for a load test run, every completed test case report is folded into the 
+ * counts, error buckets and latency histograms as soon as it is added so that the report itself 
+ * need not be retained till the end of the run
+ */
+public class LoadTestAggregate {
+
+	private final AtomicInteger total = new AtomicInteger();
+	
+	private final AtomicInteger failed = new AtomicInteger();
+	
+	private final AtomicInteger skipped = new AtomicInteger();
+	
+	private final AtomicInteger totalRuns = new AtomicInteger();
+	
+	private final AtomicInteger failedRuns = new AtomicInteger();
+	
+	private final AtomicLong executionTime = new AtomicLong();
+	
+	private final ConcurrentHashMap<String, AtomicInteger> errorBuckets = new ConcurrentHashMap<String, AtomicInteger>();
+	
+	private final TestExecutionPercentile testPercentiles = new TestExecutionPercentile();
+	
+	private final TestExecutionPercentile runPercentiles = new TestExecutionPercentile();
+	
+	public void add(TestCaseReport testCaseReport)
+	{
+		total.incrementAndGet();
+		if(testCaseReport.getNumberOfRuns()>1)
+		{
+			totalRuns.addAndGet(testCaseReport.getNumberOfRuns());
+		}
+		
+		if(testCaseReport.getErrors()!=null && testCaseReport.getNumberOfRuns()>1)
+		{
+			failedRuns.addAndGet(testCaseReport.getErrors().size());
+			if(testCaseReport.getError()!=null) {
+				failedRuns.incrementAndGet();
+			}
+		}
+		
+		if(testCaseReport.getStatus().equals(TestStatus.Skipped.status)) {
+			skipped.incrementAndGet();
+		} else if(!testCaseReport.getStatus().equals(TestStatus.Success.status)) {
+			failed.incrementAndGet();
+			String bucket = testCaseReport.getTestCase().getName() + ":" 
+					+ (testCaseReport.getFailureReason()!=null?testCaseReport.getFailureReason():TestStatus.Failed.status);
+			AtomicInteger count = errorBuckets.get(bucket);
+			if(count==null) {
+				AtomicInteger ncount = new AtomicInteger();
+				count = errorBuckets.putIfAbsent(bucket, ncount);
+				if(count==null) {
+					count = ncount;
+				}
+			}
+			count.incrementAndGet();
+		}
+		
+		if(testCaseReport.getExecutionTime()!=null) {
+			executionTime.addAndGet(testCaseReport.getExecutionTime());
+		}
+		
+		testPercentiles.addExecutionTime(testCaseReport.getTestCase().getName(), testCaseReport);
+		runPercentiles.addExecutionTime(testCaseReport.getTestCase().getIdentifier(), testCaseReport);
+	}
+	
+	public TestSuiteStats getSuiteStats(long startTime)
+	{
+		TestSuiteStats testSuiteStats = new TestSuiteStats();
+		testSuiteStats.setTotalTestCount(total.get());
+		testSuiteStats.setFailedTestCount(failed.get());
+		testSuiteStats.setSkippedTestCount(skipped.get());
+		testSuiteStats.setTotalRuns(totalRuns.get());
+		testSuiteStats.setFailedRuns(failedRuns.get());
+		testSuiteStats.setExecutionTime(System.currentTimeMillis() - startTime);
+		testSuiteStats.setTotalSuiteRuns(1);
+		testSuiteStats.setActualExecutionTime(executionTime.get());
+		return testSuiteStats;
+	}
+	
+	/**
+	 * @return the failure counts keyed by testcase name and failure reason
+	 */
+	public Map<String, AtomicInteger> getErrorBuckets() {
+		return errorBuckets;
+	}
+
+	public TestExecutionPercentile getTestPercentiles() {
+		return testPercentiles;
+	}
+
+	public TestExecutionPercentile getRunPercentiles() {
+		return runPercentiles;
+	}
+}
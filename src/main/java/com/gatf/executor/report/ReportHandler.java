@@ -22,7 +22,8 @@ import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -30,11 +31,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -49,10 +53,13 @@ import org.apache.commons.io.filefilter.SuffixFileFilter;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang3.SystemUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.runtime.RuntimeConstants;
 import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
 import org.custommonkey.xmlunit.XMLAssert;
 import org.skyscreamer.jsonassert.JSONAssert;
 
@@ -61,6 +68,7 @@ import com.gatf.executor.core.AcceptanceTestContext;
 import com.gatf.executor.core.GatfExecutorConfig;
 import com.gatf.executor.core.GatfTestCaseExecutorMojo;
 import com.gatf.executor.core.TestCase;
+import com.gatf.executor.distributed.DistributedStatsPublisher;
 import com.gatf.executor.executor.TestCaseExecutorUtil.TestCaseResponseHandler;
 import com.gatf.executor.report.TestCaseReport.TestStatus;
 import com.gatf.selenium.SeleniumTest.SeleniumTestResult;
@@ -83,6 +91,85 @@ public class ReportHandler {
 	
 	private static Logger logger = Logger.getLogger(ReportHandler.class.getSimpleName());
 	
+	private static final VelocityEngine engine = new VelocityEngine();
+	
+	private static final Map<String, Template> templates = new ConcurrentHashMap<String, Template>();
+	
+	private static final ObjectMapper mapper = new ObjectMapper();
+	
+	static {
+		engine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
+		engine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
+		engine.setProperty("classpath.resource.loader.cache", "true");
+		engine.init();
+		mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+	}
+	
+	/**
+	 * @param name
+	 * @return the parsed report template, templates are parsed once and shared across reporting threads
+	 */
+	private static Template getTemplate(String name) {
+		Template template = templates.get(name);
+		if(template==null) {
+			template = engine.getTemplate(name, "UTF-8");
+			templates.put(name, template);
+		}
+		return template;
+	}
+	
+	/**
+	 * @param templateName
+	 * @param context
+	 * @param reportData
+	 * @param filenm
+	 * @throws IOException
+	 * Render the report template straight into the report file, the json data of the report is streamed 
+	 * into a separate script file which the report page loads by reference
+	 */
+	private static void writeReport(String templateName, VelocityContext context, Map<String, Object> reportData, 
+			String filenm) throws IOException
+	{
+		if(reportData!=null)
+		{
+			File dataFile = new File(filenm.replaceFirst("\\.html$", "") + "-data.js");
+			writeReportData(dataFile, reportData);
+			context.put("reportDataFile", dataFile.getName());
+		}
+		
+		BufferedWriter fwriter = new BufferedWriter(new FileWriter(new File(filenm)));
+		try {
+			getTemplate(templateName).merge(context, fwriter);
+		} finally {
+			fwriter.close();
+		}
+	}
+	
+	/**
+	 * @param dataFile
+	 * @param reportData
+	 * @throws IOException
+	 * Write each entry as a javascript variable, string values are json literals and are written as is, 
+	 * all other values are serialized directly to the file
+	 */
+	private static void writeReportData(File dataFile, Map<String, Object> reportData) throws IOException
+	{
+		Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(dataFile), "UTF-8"));
+		try {
+			for (Map.Entry<String, Object> entry : reportData.entrySet()) {
+				writer.write("var " + entry.getKey() + " = ");
+				if(entry.getValue() instanceof String) {
+					writer.write((String)entry.getValue());
+				} else {
+					mapper.writeValue(writer, entry.getValue());
+				}
+				writer.write(";\n");
+			}
+		} finally {
+			writer.close();
+		}
+	}
+	
 	private final Map<String, ConcurrentLinkedQueue<TestCaseReport>> finalTestResults = 
 			new ConcurrentHashMap<String, ConcurrentLinkedQueue<TestCaseReport>>();
 	
@@ -94,6 +181,14 @@ public class ReportHandler {
 	
 	private TestSuiteStats testSuiteStats = new TestSuiteStats();
 	
+	//When set, reports are folded into the aggregate as they arrive and only failures/samples are retained
+	private LoadTestAggregate loadTestAggregate = null;
+	
+	private float reportSamplingRate = 0f;
+	
+	//When set, every report is also handed to the publisher streaming the stats to the distributed controller
+	private DistributedStatsPublisher statsPublisher = null;
+	
 	/*public DistributedTestStatus getDistributedTestStatus() {
 		return distributedTestStatus;
 	}*/
@@ -123,20 +218,19 @@ public class ReportHandler {
 	{
 		GatfExecutorConfig config = acontext.getGatfExecutorConfig();
 		VelocityContext context = new VelocityContext();
+		Map<String, Object> reportData = new LinkedHashMap<String, Object>();
 		
 		try
 		{
-			String reportingJson = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(testSuiteStats);
-			context.put("suiteStats", reportingJson);
+			reportData.put("suiteStats", testSuiteStats);
 			
 			if(nodes==null)
 			{
-				reportingJson = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(loadTestResources);
-				context.put("loadTestResources", reportingJson);
+				reportData.put("loadTestResources", loadTestResources);
 			}
 			else
 			{
-				context.put("loadTestResources", "{}");
+				reportData.put("loadTestResources", "{}");
 				context.put("nodes", nodes);
 				context.put("nodeurls", nodeurls);
 			}
@@ -156,21 +250,11 @@ public class ReportHandler {
         	}
         	File resource = new File(basePath, config.getOutFilesDir());
 			
-            VelocityEngine engine = new VelocityEngine();
-            engine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-            engine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-            engine.init();
-            
-            StringWriter writer = new StringWriter();
-            engine.mergeTemplate("/gatf-templates/index-load.vm", "UTF-8", context, writer);
-
             if(prefix==null)
             	prefix = "";
             
             String filenm = resource.getAbsolutePath() + SystemUtils.FILE_SEPARATOR + prefix.replaceAll("[^a-zA-Z0-9-_\\.]", "_") + "index.html";
-            BufferedWriter fwriter = new BufferedWriter(new FileWriter(new File(filenm)));
-            fwriter.write(writer.toString());
-            fwriter.close();
+            writeReport("/gatf-templates/index-load.vm", context, reportData, filenm);
             
             //if(distributedTestStatus!=null)
             {
@@ -202,26 +286,71 @@ public class ReportHandler {
         	}
         	File resource = new File(basePath, config.getOutFilesDir());
 			
-            VelocityEngine engine = new VelocityEngine();
-            engine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-            engine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-            engine.init();
-            
-            StringWriter writer = new StringWriter();
-            engine.mergeTemplate("/gatf-templates/distributed-index-load.vm", "UTF-8", context, writer);
-            
             String filenm = resource.getAbsolutePath() + SystemUtils.FILE_SEPARATOR + "index.html";
-            BufferedWriter fwriter = new BufferedWriter(new FileWriter(new File(filenm)));
-            fwriter.write(writer.toString());
-            fwriter.close();
+            writeReport("/gatf-templates/distributed-index-load.vm", context, null, filenm);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 	
+	/**
+	 * Switch to aggregate only reporting for the load test run, failed reports and a random sample of the 
+	 * rest (0 to 1) are still retained and written out at the time of reporting
+	 */
+	public void enableStreamingAggregates(Float reportSamplingRate)
+	{
+		this.loadTestAggregate = new LoadTestAggregate();
+		this.reportSamplingRate = reportSamplingRate!=null?reportSamplingRate:0f;
+	}
+	
+	public boolean isStreamingAggregates()
+	{
+		return loadTestAggregate!=null;
+	}
+	
+	public void setStatsPublisher(DistributedStatsPublisher statsPublisher)
+	{
+		this.statsPublisher = statsPublisher;
+	}
+	
+	private TestSuiteStats doStreamingLoadTestReporting(AcceptanceTestContext acontext, long startTime, 
+			TestExecutionPercentile testPercentiles, TestExecutionPercentile runPercentiles)
+	{
+		LoadTestAggregate aggregate = loadTestAggregate;
+		loadTestAggregate = new LoadTestAggregate();
+		
+		TestSuiteStats testSuiteStats = aggregate.getSuiteStats(startTime);
+		testPercentiles.mergePercentileTimes(aggregate.getTestPercentiles().getHistograms());
+		runPercentiles.mergePercentileTimes(aggregate.getRunPercentiles().getHistograms());
+		
+		for (Map.Entry<String, AtomicInteger> entry : aggregate.getErrorBuckets().entrySet()) {
+			logger.info("Load test failures for " + entry.getKey() + " = " + entry.getValue().get());
+		}
+		
+		List<TestCaseReport> retainedReports = new ArrayList<TestCaseReport>();
+		for (Map.Entry<String, ConcurrentLinkedQueue<TestCaseReport>> entry :  getFinalTestResults().entrySet()) {
+			retainedReports.addAll(entry.getValue());
+		}
+		if(retainedReports.size()>0) {
+			try {
+				writeDataToReportFile(startTime + "-retained.json", retainedReports, acontext.getGatfExecutorConfig());
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+		
+		clearTestResults();
+		
+		return testSuiteStats;
+	}
+	
 	public TestSuiteStats doLoadTestReporting(AcceptanceTestContext acontext, long startTime, TestExecutionPercentile testPercentiles,
 			TestExecutionPercentile runPercentiles)
 	{
+		if(loadTestAggregate!=null) {
+			return doStreamingLoadTestReporting(acontext, startTime, testPercentiles, runPercentiles);
+		}
+		
 		TestSuiteStats testSuiteStats = new TestSuiteStats();
 		
 		int total = 0, failed = 0, skipped = 0, totruns = 0, failruns = 0;
@@ -255,12 +384,8 @@ public class ReportHandler {
 					
 					grpexecutionTime += testCaseReport.getExecutionTime();
 					
-					synchronized (testPercentiles) {
-						testPercentiles.addExecutionTime(testCaseReport.getTestCase().getName(), testCaseReport.getExecutionTime());
-					}
-					synchronized (runPercentiles) {
-						runPercentiles.addExecutionTime(testCaseReport.getTestCase().getIdentifier(), testCaseReport.getExecutionTime());
-					}
+					testPercentiles.addExecutionTime(testCaseReport.getTestCase().getName(), testCaseReport);
+					runPercentiles.addExecutionTime(testCaseReport.getTestCase().getIdentifier(), testCaseReport);
 				}
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -502,6 +627,27 @@ public class ReportHandler {
 		}
 	}
 	
+	public void writeDataToReportFile(String fileName, Object data, GatfExecutorConfig config)
+	{
+		try
+		{
+			File basePath = null;
+        	if(config.getOutFilesBasePath()!=null)
+        		basePath = new File(config.getOutFilesBasePath());
+        	else
+        	{
+        		URL url = Thread.currentThread().getContextClassLoader().getResource(".");
+        		basePath = new File(url.getPath());
+        	}
+        	File resource = new File(basePath, config.getOutFilesDir());
+			
+        	String filenm = resource.getAbsolutePath() + SystemUtils.FILE_SEPARATOR + fileName.replaceAll("[^a-zA-Z0-9-_\\.]", "_");
+        	mapper.writeValue(new File(filenm), data);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
 	private boolean compareText(String type, String lhs, String rhs)
 	{
 		if(TestCaseResponseHandler.isMatchesContentType(MediaType.APPLICATION_JSON_TYPE, type))
@@ -552,10 +698,10 @@ public class ReportHandler {
 		}
 		
 		VelocityContext context = new VelocityContext();
+		Map<String, Object> reportData = new LinkedHashMap<String, Object>();
 		try
 		{
-			String reportingJson = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(allTestCases);
-			context.put("testcaseReports", reportingJson);
+			reportData.put("testcaseReports", allTestCases);
 			
 			context.put("userSimulation", false);
 			if(config.getConcurrentUserSimulationNum()!=null && config.getConcurrentUserSimulationNum()>1) {
@@ -634,12 +780,8 @@ public class ReportHandler {
 					populateRequestResponseHeaders(testCaseReport);
 					grpexecutionTime += testCaseReport.getExecutionTime();
 					
-					synchronized (testPercentiles) {
-						testPercentiles.addExecutionTime(testCaseReport.getTestCase().getName(), testCaseReport.getExecutionTime());
-					}
-					synchronized (runPercentiles) {
-						runPercentiles.addExecutionTime(testCaseReport.getTestCase().getIdentifier(), testCaseReport.getExecutionTime());
-					}
+					testPercentiles.addExecutionTime(testCaseReport.getTestCase().getName(), testCaseReport);
+					runPercentiles.addExecutionTime(testCaseReport.getTestCase().getIdentifier(), testCaseReport);
 				}
 				
         		TestGroupStats testGroupStats = new TestGroupStats();
@@ -671,10 +813,7 @@ public class ReportHandler {
 				if(firstCompareCopy==null) {
 					try
 					{
-						String reportingJson = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(allTestCases);
-						context.put("testcaseReports", reportingJson);
-						allTestCases.clear();
-						context.put("compareStats", "{}");
+						reportData.put("compareStats", "{}");
 						InputStream resourcesIS = GatfTestCaseExecutorMojo.class.getResourceAsStream("/gatf-resources.zip");
 			            if (resourcesIS != null)
 			            {
@@ -691,14 +830,6 @@ public class ReportHandler {
 			                if(runNumber==1 && unzipFile)
 			                	unzipZipFile(resourcesIS, resource.getAbsolutePath());
 			                
-			                VelocityEngine engine = new VelocityEngine();
-			                engine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-			                engine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-			                engine.init();
-			                
-			                StringWriter writer = new StringWriter();
-			                engine.mergeTemplate("/gatf-templates/index-run.vm", "UTF-8", context, writer);
-
 			                if(reportFileName==null)
 			                	reportFileName = "index.html";
 			                
@@ -714,9 +845,7 @@ public class ReportHandler {
 			                }
 			                
 			                String filenm = resource.getAbsolutePath() + SystemUtils.FILE_SEPARATOR + reportFileName.replaceAll("[^a-zA-Z0-9-_\\.]", "_");
-			                BufferedWriter fwriter = new BufferedWriter(new FileWriter(new File(filenm)));
-			                fwriter.write(writer.toString());
-			                fwriter.close();
+			                writeReport("/gatf-templates/index-run.vm", context, reportData, filenm);
 			                
 			                /*if(distributedTestStatus!=null && distributedTestStatus.getReportFileContent().size()<5)
 			                {
@@ -725,6 +854,8 @@ public class ReportHandler {
 			            }
 					} catch (Exception e) {
 						e.printStackTrace();
+					} finally {
+						allTestCases.clear();
 					}
 				}
         		
@@ -763,6 +894,7 @@ public class ReportHandler {
 		GatfExecutorConfig config = acontext.getGatfExecutorConfig();
 		
 		VelocityContext context = new VelocityContext();
+		Map<String, Object> reportData = new LinkedHashMap<String, Object>();
 		try
 		{
 			context.put("userSimulation", false);
@@ -775,33 +907,16 @@ public class ReportHandler {
 			e.printStackTrace();
 		}
 
-		context.put("testcaseReports", "[]");
+		reportData.put("testcaseReports", "[]");
 		context.put("isMultipleRuns", acontext.getGatfExecutorConfig().getConcurrentUserSimulationNum()>1);
 		
-		try
-		{
-			String reportingJson = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(testCaseStats);
-			context.put("testcaseStats", reportingJson);
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+		reportData.put("testcaseStats", testCaseStats);
 		
-		try
-		{
-			testSuiteStats.setTotalUserSuiteRuns(numberOfRuns);
-			testSuiteStats.setExecutionTime(System.currentTimeMillis() - suiteStartTime);
-			String reportingJson = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(testSuiteStats);
-			context.put("suiteStats", reportingJson);
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+		testSuiteStats.setTotalUserSuiteRuns(numberOfRuns);
+		testSuiteStats.setExecutionTime(System.currentTimeMillis() - suiteStartTime);
+		reportData.put("suiteStats", testSuiteStats);
 		
-		try
-		{
-			context.put("compareStats", "{}");
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+		reportData.put("compareStats", "{}");
 		
 		try
 		{
@@ -819,11 +934,6 @@ public class ReportHandler {
             	}
             	File resource = new File(basePath, config.getOutFilesDir());
                 
-                VelocityEngine engine = new VelocityEngine();
-                engine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-                engine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-                engine.init();
-                
                 if(reportFileName==null)
                 	reportFileName = "index.html";
                 
@@ -832,13 +942,8 @@ public class ReportHandler {
                 context.put("runPrefix", prefix==null?"":prefix);
                 context.put("isLoadTestingEnabled", isLoadTestingEnabled);
                 
-                StringWriter writer = new StringWriter();
-                engine.mergeTemplate("/gatf-templates/index.vm", "UTF-8", context, writer);
-
                 String filenm = resource.getAbsolutePath() + SystemUtils.FILE_SEPARATOR + reportFileName.replaceAll("[^a-zA-Z0-9-_\\.]", "_");
-                BufferedWriter fwriter = new BufferedWriter(new FileWriter(new File(filenm)));
-                fwriter.write(writer.toString());
-                fwriter.close();
+                writeReport("/gatf-templates/index.vm", context, reportData, filenm);
                 
                 /*if(distributedTestStatus!=null && distributedTestStatus.getReportFileContent().size()<5)
                 {
@@ -954,12 +1059,8 @@ public class ReportHandler {
 					populateRequestResponseHeaders(testCaseReport);
 					grpexecutionTime += testCaseReport.getExecutionTime();
 					
-					synchronized (testPercentiles) {
-						testPercentiles.addExecutionTime(testCaseReport.getTestCase().getName(), testCaseReport.getExecutionTime());
-					}
-					synchronized (runPercentiles) {
-						runPercentiles.addExecutionTime(testCaseReport.getTestCase().getIdentifier(), testCaseReport.getExecutionTime());
-					}
+					testPercentiles.addExecutionTime(testCaseReport.getTestCase().getName(), testCaseReport);
+					runPercentiles.addExecutionTime(testCaseReport.getTestCase().getIdentifier(), testCaseReport);
 				}
 				
         		TestGroupStats testGroupStats = new TestGroupStats();
@@ -1014,40 +1115,17 @@ public class ReportHandler {
 			testSuiteStats.updateStats(tempst, true);
 		}
 		
-		try
-		{
-			String reportingJson = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(allTestCases);
-			context.put("testcaseReports", reportingJson);
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+		Map<String, Object> reportData = new LinkedHashMap<String, Object>();
+		reportData.put("testcaseReports", allTestCases);
 		
 		context.put("isMultipleRuns", acontext.getGatfExecutorConfig().getConcurrentUserSimulationNum()>1);
 		
-		try
-		{
-			String reportingJson = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(testCaseStats);
-			context.put("testcaseStats", reportingJson);
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+		reportData.put("testcaseStats", testCaseStats);
 		
-		try
-		{
-			testSuiteStats.setExecutionTime(endTime - startTime);
-			String reportingJson = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(testSuiteStats);
-			context.put("suiteStats", reportingJson);
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+		testSuiteStats.setExecutionTime(endTime - startTime);
+		reportData.put("suiteStats", testSuiteStats);
 		
-		try
-		{
-			String reportingJson = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(compareStatuses);
-			context.put("compareStats", reportingJson);
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+		reportData.put("compareStats", compareStatuses);
 		
 		try
 		{
@@ -1067,11 +1145,6 @@ public class ReportHandler {
                 if(!unzipped)
                 	unzipZipFile(resourcesIS, resource.getAbsolutePath());
                 
-                VelocityEngine engine = new VelocityEngine();
-                engine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-                engine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-                engine.init();
-                
                 if(orf==null)
                 	orf = "index.html";
                 
@@ -1080,13 +1153,8 @@ public class ReportHandler {
                 context.put("runPrefix", prefix==null?"":prefix);
                 context.put("isLoadTestingEnabled", isLoadTestingEnabled);
                 
-                StringWriter writer = new StringWriter();
-                engine.mergeTemplate("/gatf-templates/index.vm", "UTF-8", context, writer);
-
                 String filenm = resource.getAbsolutePath() + SystemUtils.FILE_SEPARATOR + orf.replaceAll("[^a-zA-Z0-9-_\\.]", "_");
-                BufferedWriter fwriter = new BufferedWriter(new FileWriter(new File(filenm)));
-                fwriter.write(writer.toString());
-                fwriter.close();
+                writeReport("/gatf-templates/index.vm", context, reportData, filenm);
                 
                 /*if(distributedTestStatus!=null && distributedTestStatus.getReportFileContent().size()<5)
                 {
@@ -1104,17 +1172,17 @@ public class ReportHandler {
 	public static void doTAReporting(String prefix, AcceptanceTestContext acontext, boolean isLoadTestingEnabled,
 			TestExecutionPercentile testPercentiles, TestExecutionPercentile runPercentiles) {
 		
-		Map<String, List<Long>> testPercentileValues = testPercentiles.getPercentileTimes();
-		Map<String, List<Long>> runPercentileValues = runPercentiles.getPercentileTimes();
+		Map<String, List<Double>> testPercentileValues = testPercentiles.getPercentileTimes();
+		Map<String, List<Double>> runPercentileValues = runPercentiles.getPercentileTimes();
 		
 		GatfExecutorConfig config = acontext.getGatfExecutorConfig();
 		
 		VelocityContext context = new VelocityContext();
+		Map<String, Object> reportData = new LinkedHashMap<String, Object>();
 		
 		try
 		{
-			String reportingJson = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(testPercentileValues);
-			context.put("testcaseTAReports", reportingJson);
+			reportData.put("testcaseTAReports", testPercentileValues);
 			
 			if(testPercentileValues.size()>0)
 				context.put("isShowTAWrapper", testPercentileValues.values().iterator().next().size()>0);
@@ -1123,29 +1191,11 @@ public class ReportHandler {
 			
 			if(runPercentileValues.size()>0)
 			{
-				List<Long> times90 = new ArrayList<Long>();
-				List<Long> times50 = new ArrayList<Long>();
-				for (List<Long> times : runPercentileValues.values()) {
-					times90.add(times.get(0));
-					times50.add(times.get(1));
-				}
-				
-				runPercentileValues.put("All", times90);
-				
-				Collections.sort(times90);
-				int index = Math.round((float)0.9 * times90.size());
-				long time = times90.get(index-1);
-				times90.clear();
-				times90.add(time);
-				
-				Collections.sort(times50);
-				index = Math.round((float)0.5 * times50.size());
-				time = times50.get(index-1);
-				times90.add(time);
+				//Exact percentiles over all the runs, derived from the merged histograms
+				runPercentileValues.put("All", runPercentiles.getAllPercentileTimes());
 			}
 			
-			reportingJson = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(runPercentileValues);
-			context.put("runTAReports", reportingJson);
+			reportData.put("runTAReports", runPercentileValues);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -1166,22 +1216,12 @@ public class ReportHandler {
             	}
             	File resource = new File(basePath, config.getOutFilesDir());
                 
-                VelocityEngine engine = new VelocityEngine();
-                engine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-                engine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-                engine.init();
-                
                 context.put("isLoadTestingEnabled", isLoadTestingEnabled);
                 
-                StringWriter writer = new StringWriter();
-                engine.mergeTemplate("/gatf-templates/index-ta.vm", "UTF-8", context, writer);
-
                 prefix = prefix==null?"":prefix;
                 
                 String filenm = resource.getAbsolutePath() + SystemUtils.FILE_SEPARATOR + prefix.replaceAll("[^a-zA-Z0-9-_\\.]", "_") + "index-ta.html";
-                BufferedWriter fwriter = new BufferedWriter(new FileWriter(new File(filenm)));
-                fwriter.write(writer.toString());
-                fwriter.close();
+                writeReport("/gatf-templates/index-ta.vm", context, reportData, filenm);
                 
                 /*if(distributedTestStatus!=null && distributedTestStatus.getReportFileContent().size()<5)
                 {
@@ -1218,18 +1258,8 @@ public class ReportHandler {
                 unzipZipFile(resourcesIS, resource.getAbsolutePath());
             }
             
-            VelocityEngine engine = new VelocityEngine();
-            engine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-            engine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-            engine.init();
-            
-            StringWriter writer = new StringWriter();
-            engine.mergeTemplate("/gatf-templates/index-selenium-summ.vm", "UTF-8", context, writer);
-            
             String filenm = resource.getAbsolutePath() + SystemUtils.FILE_SEPARATOR + "selenium-index.html";
-            BufferedWriter fwriter = new BufferedWriter(new FileWriter(new File(filenm)));
-            fwriter.write(writer.toString());
-            fwriter.close();
+            writeReport("/gatf-templates/index-selenium-summ.vm", context, null, filenm);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -1260,18 +1290,8 @@ public class ReportHandler {
             }
             File resource = new File(basePath, config.getOutFilesDir());
             
-            VelocityEngine engine = new VelocityEngine();
-            engine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-            engine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-            engine.init();
-            
-            StringWriter writer = new StringWriter();
-            engine.mergeTemplate("/gatf-templates/index-selenium-tr.vm", "UTF-8", context, writer);
-            
             String filenm = resource.getAbsolutePath() + SystemUtils.FILE_SEPARATOR + prefix + ".html";
-            BufferedWriter fwriter = new BufferedWriter(new FileWriter(new File(filenm)));
-            fwriter.write(writer.toString());
-            fwriter.close();
+            writeReport("/gatf-templates/index-selenium-tr.vm", context, null, filenm);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -1322,6 +1342,18 @@ public class ReportHandler {
 	}
 	
 	public void addTestCaseReport(TestCaseReport testCaseReport) {
+		if(statsPublisher!=null) {
+			statsPublisher.add(testCaseReport);
+		}
+		if(loadTestAggregate!=null) {
+			loadTestAggregate.add(testCaseReport);
+			if(TestStatus.Success.status.equals(testCaseReport.getStatus()) 
+					|| TestStatus.Skipped.status.equals(testCaseReport.getStatus())) {
+				if(reportSamplingRate<=0 || ThreadLocalRandom.current().nextFloat()>=reportSamplingRate) {
+					return;
+				}
+			}
+		}
 		String key = testCaseReport.getTestCase().getIdentifier() + testCaseReport.getTestCase().getName();
 		getFinalTestResults().get(testCaseReport.getTestCase().getIdentifier()).add(testCaseReport);
 		if(!finalTestReportsDups.containsKey(key)) {
@@ -22,6 +22,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.codehaus.jackson.map.ObjectMapper;
+
 /**
  * @author Sumeet Chhetri
  *
@@ -69,7 +71,7 @@ public class RuntimeReportUtil {
 	
 	private static ConcurrentLinkedQueue<Map<String, Object>> Q = new ConcurrentLinkedQueue<Map<String, Object>>();
 	
-	private static ConcurrentLinkedQueue<LoadTestEntry> Qdl = new ConcurrentLinkedQueue<LoadTestEntry>();
+	private static final ObjectMapper mapper = new ObjectMapper();
 	
 	public static void registerConfigUI()
 	{
@@ -80,17 +82,15 @@ public class RuntimeReportUtil {
 	{
 		registered = false;
 		Q.clear();
-		Qdl.clear();
 		synchronized (gloadStats) {
 			gloadStats = new TestSuiteStats();
 		}
 	}
 	
-	public static void addLEntry(LoadTestEntry lentry)
-	{
-		Qdl.add(lentry);
-	}
-	
+	/**
+	 * Queue a load test entry for the config ui, nothing is done without the ui, the totals are logged 
+	 * once at the end of the run
+	 */
 	public static void addEntry(LoadTestEntry lentry)
 	{
 		if(registered)
@@ -105,7 +105,9 @@ public class RuntimeReportUtil {
 			parts.put("stats", lentry.currStats);
 			synchronized (gloadStats) {
 				gloadStats.updateStats(lentry.currStats, false);
-				parts.put("tstats", gloadStats);
+				TestSuiteStats tstats = new TestSuiteStats();
+				tstats.copy(gloadStats);
+				parts.put("tstats", tstats);
 				parts.put("error", "Execution already in progress..");
 				try {
 					Q.add(parts);
@@ -114,45 +116,11 @@ public class RuntimeReportUtil {
 				}
 			}
 		}
-		else
-		{
-			synchronized (gloadStats) {
-				gloadStats.updateStats(lentry.currStats, false);
-				System.out.println(gloadStats);
-			}
-		}
 	}
 	
 	public static void addEntry(String node, String prefix, int runNo, String url, TestSuiteStats currStats)
 	{
-		if(registered)
-		{
-			Map<String, Object> parts = new HashMap<String, Object>();
-			if(prefix==null)
-				prefix = "Run";
-			parts.put("title", prefix+"-"+runNo);
-			parts.put("runNo", runNo+"");
-			parts.put("url", url);
-			parts.put("node", node);
-			parts.put("stats", currStats);
-			synchronized (gloadStats) {
-				gloadStats.updateStats(currStats, false);
-				parts.put("tstats", gloadStats);
-				parts.put("error", "Execution already in progress..");
-				try {
-					Q.add(parts);
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
-		}
-		else
-		{
-			synchronized (gloadStats) {
-				gloadStats.updateStats(currStats, false);
-				System.out.println(gloadStats);
-			}
-		}
+		addEntry(new LoadTestEntry(node, prefix, runNo, url, currStats));
 	}
 	
 	public static boolean isDone() {
@@ -169,16 +137,11 @@ public class RuntimeReportUtil {
     	       if(st.size()>100)break;
     	    }
             String arr = "{\"error\": \"Execution already in progress..\", \"lstats\": " + 
-                    new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(st) + "}";
+                    mapper.writeValueAsString(st) + "}";
             return arr;
 	    } catch (Exception e) {
             e.printStackTrace();
         }
 	    return "";
 	}
-	
-	public static LoadTestEntry getDLEntry()
-	{
-		return Qdl.poll();
-	}
 }
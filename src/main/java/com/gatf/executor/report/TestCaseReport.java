@@ -62,6 +62,10 @@ public class TestCaseReport implements Serializable {
 	
 	private Long executionTime = 0L;
 	
+	@XStreamOmitField
+	@JsonIgnore
+	private Long executionTimeMicros;
+	
 	private List<Long> executionTimes = new ArrayList<Long>();
 	
 	private Long averageExecutionTime;
@@ -158,6 +162,14 @@ public class TestCaseReport implements Serializable {
 		this.executionTime = executionTime;
 	}
 
+	public Long getExecutionTimeMicros() {
+		return executionTimeMicros;
+	}
+
+	public void setExecutionTimeMicros(Long executionTimeMicros) {
+		this.executionTimeMicros = executionTimeMicros;
+	}
+
 	public List<Long> getExecutionTimes() {
 		return executionTimes;
 	}
@@ -328,6 +340,7 @@ public class TestCaseReport implements Serializable {
 		this.status = other.status;
 		this.numberOfRuns = other.numberOfRuns;
 		this.executionTime = other.executionTime;
+		this.executionTimeMicros = other.executionTimeMicros;
 		if(other.executionTimes!=null)
 		{
 			this.executionTimes = new ArrayList<Long>(other.executionTimes);
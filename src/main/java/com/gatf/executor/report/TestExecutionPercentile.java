@@ -16,93 +16,125 @@
 package com.gatf.executor.report;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.AtomicHistogram;
+import org.HdrHistogram.Histogram;
 
 /**
  * @author Sumeet Chhetri
- *
+ * Holds one constant-memory, lock-free latency histogram (microsecond resolution) per identifier,
+ * the histograms can be merged exactly across runs/distributed nodes
  */
 public class TestExecutionPercentile {
-
-	private Map<String, List<Long>> executionTimes90Percentile = new HashMap<String, List<Long>>();
 	
-	private Map<String, List<Long>> executionTimes50Percentile = new HashMap<String, List<Long>>();
+	public static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
 	
-	protected void addExecutionTime(String identifier, Long time)
+	public static final int SIGNIFICANT_VALUE_DIGITS = 2;
+	
+	/**
+	 * The percentiles reported for every identifier, the order is retained for compatibility 
+	 * with the earlier 90th/50th only reports, 100 represents the max value
+	 */
+	public static final double[] PERCENTILES = new double[]{90.0, 50.0, 95.0, 99.0, 99.9, 100.0};
+	
+	private final ConcurrentMap<String, AbstractHistogram> executionTimes = new ConcurrentHashMap<String, AbstractHistogram>();
+	
+	private AbstractHistogram getHistogram(String identifier)
 	{
-		addExecutionTime(identifier, time, true);
-		addExecutionTime(identifier, time, false);
+		AbstractHistogram histogram = executionTimes.get(identifier);
+		if(histogram==null) {
+			histogram = new AtomicHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_VALUE_DIGITS);
+			AbstractHistogram existing = executionTimes.putIfAbsent(identifier, histogram);
+			if(existing!=null) {
+				histogram = existing;
+			}
+		}
+		return histogram;
 	}
 	
-	private void addExecutionTime(String identifier, Long time, boolean is90)
+	protected void addExecutionTime(String identifier, TestCaseReport testCaseReport)
 	{
-		Map<String, List<Long>> mapo = is90?executionTimes90Percentile:executionTimes50Percentile;
-		if(!mapo.containsKey(identifier)) {
-			mapo.put(identifier, new ArrayList<Long>());
+		if(testCaseReport.getExecutionTimeMicros()!=null) {
+			addExecutionTimeMicros(identifier, testCaseReport.getExecutionTimeMicros());
+		} else {
+			addExecutionTime(identifier, testCaseReport.getExecutionTime());
 		}
-		List<Long> times = mapo.get(identifier);
-		if(times.size()==1000)
-		{
-			Collections.sort(times);
-			int index = Math.round((float)(is90?0.9:0.5) * times.size());
-			times = times.subList(index+1, times.size());
-			mapo.put(identifier, times);
+	}
+	
+	protected void addExecutionTime(String identifier, Long time)
+	{
+		if(time!=null) {
+			addExecutionTimeMicros(identifier, TimeUnit.MILLISECONDS.toMicros(time));
 		}
-		else
-		{
-			times.add(time);
+	}
+	
+	public void addExecutionTimeMicros(String identifier, long timeMicros)
+	{
+		getHistogram(identifier).recordValue(Math.max(0, Math.min(timeMicros, HIGHEST_TRACKABLE_MICROS)));
+	}
+	
+	/**
+	 * @return the percentile values in milliseconds per identifier in the order of {@link #PERCENTILES}
+	 */
+	public Map<String, List<Double>> getPercentileTimes()
+	{
+		Map<String, List<Double>> percentileTimes = new LinkedHashMap<String, List<Double>>();
+		for (Map.Entry<String, AbstractHistogram> entry : executionTimes.entrySet()) {
+			percentileTimes.put(entry.getKey(), getPercentileTimes(entry.getValue()));
+		}
+		return percentileTimes;
+	}
+	
+	/**
+	 * @return the percentile values in milliseconds for all the identifiers combined
+	 */
+	public List<Double> getAllPercentileTimes()
+	{
+		Histogram all = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_VALUE_DIGITS);
+		for (AbstractHistogram histogram : executionTimes.values()) {
+			all.add(histogram);
 		}
+		return getPercentileTimes(all);
 	}
 	
-	private void deducePercentileTimes()
+	public static List<Double> getPercentileTimes(AbstractHistogram histogram)
 	{
-		Map<String, List<Long>> mapo = executionTimes90Percentile;
-		for (Map.Entry<String, List<Long>> entry : mapo.entrySet()) {
-			List<Long> times90 = entry.getValue();
-			Collections.sort(times90);
-			int index = Math.round((float)0.9 * times90.size());
-			long time = times90.get(index-1);
-			times90.clear();
-			times90.add(time);
-			
-			List<Long> times50 = executionTimes50Percentile.get(entry.getKey());
-			Collections.sort(times50);
-			index = Math.round((float)0.5 * times50.size());
-			time = times50.get(index-1);
-			times50.clear();
-			
-			times90.add(time);
-			mapo.put(entry.getKey(), times90);
+		List<Double> times = new ArrayList<Double>();
+		for (double percentile : PERCENTILES) {
+			long value = percentile==100.0?histogram.getMaxValue():histogram.getValueAtPercentile(percentile);
+			times.add(value/1000.0);
 		}
+		return times;
 	}
 	
-	public Map<String, List<Long>> getPercentileTimes()
+	/**
+	 * @return a serializable snapshot of the histograms, used to ship the raw distributions
+	 * from the distributed nodes to the controller
+	 */
+	public Map<String, Histogram> getHistograms()
 	{
-		deducePercentileTimes();
-		return executionTimes90Percentile;
+		Map<String, Histogram> histograms = new HashMap<String, Histogram>();
+		for (Map.Entry<String, AbstractHistogram> entry : executionTimes.entrySet()) {
+			Histogram histogram = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_VALUE_DIGITS);
+			histogram.add(entry.getValue());
+			histograms.put(entry.getKey(), histogram);
+		}
+		return histograms;
 	}
 	
-	public void mergePercentileTimes(Map<String, List<Long>> times)
+	public void mergePercentileTimes(Map<String, Histogram> histograms)
 	{
-		for (Map.Entry<String, List<Long>> entry : times.entrySet()) {
-			List<Long> times90 = executionTimes90Percentile.get(entry.getKey());
-			List<Long> times50 = executionTimes50Percentile.get(entry.getKey());
-			
-			if(times90!=null)
-			{
-				times90.add(entry.getValue().get(0));
-				times50.add(entry.getValue().get(1));
-			}
-			else
-			{
-				executionTimes90Percentile.put(entry.getKey(), new ArrayList<Long>());
-				executionTimes90Percentile.get(entry.getKey()).add(entry.getValue().get(0));
-				executionTimes50Percentile.put(entry.getKey(), new ArrayList<Long>());
-				executionTimes50Percentile.get(entry.getKey()).add(entry.getValue().get(1));
-			}
+		if(histograms==null) return;
+		for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+			getHistogram(entry.getKey()).add(entry.getValue());
 		}
 	}
 }
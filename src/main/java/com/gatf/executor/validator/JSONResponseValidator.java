@@ -15,28 +15,93 @@
 */
 package com.gatf.executor.validator;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.gatf.executor.core.WorkflowContextHandler.ResponseType;
 import com.gatf.executor.report.TestCaseReport;
+import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.JsonPath;
+import com.ning.http.client.Response;
 
 /**
  * @author Sumeet Chhetri
  * The validator that handles json level node validations after test case execution
  */
 public class JSONResponseValidator extends ResponseValidator {
+	
+	private static final int MAX_CACHED_PATHS = 10000;
+	
+	//Compiled json paths are immutable and can be shared across runs/threads, lookups take no lock, 
+	//once the cache is full an arbitrary tenth of the paths is evicted (approximate bound)
+	private static final Map<String, JsonPath> compiledPaths = new ConcurrentHashMap<String, JsonPath>();
+	
+	private static JsonPath getJsonPath(String expression)
+	{
+		JsonPath path = compiledPaths.get(expression);
+		if(path==null) {
+			path = JsonPath.compile(expression);
+			if(compiledPaths.size()>=MAX_CACHED_PATHS) {
+				int toEvict = MAX_CACHED_PATHS/10;
+				Iterator<String> it = compiledPaths.keySet().iterator();
+				while(it.hasNext() && toEvict-->0) {
+					it.next();
+					it.remove();
+				}
+			}
+			compiledPaths.put(expression, path);
+		}
+		return path;
+	}
+	
+	private static <T> T read(Object document, String expression)
+	{
+		if(document instanceof String) {
+			return JsonPath.read((String)document, expression);
+		}
+		return getJsonPath(expression).read(document);
+	}
 
+	/**
+	 * Parse the response only once, all the node lookups/workflow variable extractions
+	 * for this response work on the same parsed document
+	 */
 	protected Object getInternalObject(TestCaseReport testCaseReport) throws Exception
 	{
-		return testCaseReport.getResponseContent();
+		String content = testCaseReport.getResponseContent();
+		if(content==null || content.trim().isEmpty()) {
+			return content;
+		}
+		try {
+			return Configuration.defaultConfiguration().jsonProvider().parse(content);
+		} catch (Exception e) {
+			//Not a valid json document, node lookups will fail individually
+			return content;
+		}
+	}
+	
+	protected Object getInternalObject(Response response, TestCaseReport testCaseReport) throws Exception
+	{
+		if(response!=null) {
+			if(!response.hasResponseBody()) {
+				return "";
+			}
+			//Parse directly from the received body parts without building the body string
+			try {
+				return Configuration.defaultConfiguration().jsonProvider().parse(response.getResponseBodyAsStream(), "UTF-8");
+			} catch (Exception e) {
+				return response.getResponseBody();
+			}
+		}
+		return getInternalObject(testCaseReport);
 	}
 
 	protected String getNodeValue(Object intObj, String node) throws Exception {
 		String nvalue = null;
 		try {
-			nvalue = JsonPath.read((String)intObj, node).toString();
+			nvalue = read(intObj, node).toString();
 		} catch (Exception e) {
 			//throw new AssertionError("Expected Node " + node + " not found");
 		}
@@ -52,12 +117,12 @@ public class JSONResponseValidator extends ResponseValidator {
 			expression = "$";
 		}
 		
-		List<Map<String, String>> jsonValues = JsonPath.read((String)nodeLst, expression);
+		List<Map<String, String>> jsonValues = read(nodeLst, expression);
 		return jsonValues;
 	}
 
 	protected int getResponseMappedCount(String expression, Object nodeLst) throws Exception {
-		String responseMappedCount = JsonPath.read((String)nodeLst, expression).toString();
+		String responseMappedCount = read(nodeLst, expression).toString();
 		
 		int responseCount = -1;
 		try {
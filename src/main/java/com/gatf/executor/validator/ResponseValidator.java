@@ -15,13 +15,19 @@
 */
 package com.gatf.executor.validator;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
@@ -47,8 +53,43 @@ import com.ning.http.client.cookie.Cookie;
  * Defines contract for response level node validations after test case execution
  */
 public abstract class ResponseValidator {
+	
+	private static final int MAX_CACHED_XPATHS = 1000;
+	
+	//XPath/DocumentBuilder objects are not thread-safe, so the compiled expressions and the 
+	//parsers are held per thread and reused across all the xml/soap responses handled by that thread
+	private static final ThreadLocal<Map<String, XPathExpression>> compiledXpaths = new ThreadLocal<Map<String, XPathExpression>>() {
+		protected Map<String, XPathExpression> initialValue() {
+			return new LinkedHashMap<String, XPathExpression>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+				protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+					return size() > MAX_CACHED_XPATHS;
+				}
+			};
+		}
+	};
+	
+	private static final ThreadLocal<XPath> xpaths = new ThreadLocal<XPath>() {
+		protected XPath initialValue() {
+			return XPathFactory.newInstance().newXPath();
+		}
+	};
+	
+	private static final ThreadLocal<DocumentBuilder> documentBuilders = new ThreadLocal<DocumentBuilder>() {
+		protected DocumentBuilder initialValue() {
+			try {
+				return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+			} catch (ParserConfigurationException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	};
 
 	protected abstract Object getInternalObject(TestCaseReport testCaseReport) throws Exception;
+	
+	protected Object getInternalObject(Response response, TestCaseReport testCaseReport) throws Exception {
+		return getInternalObject(testCaseReport);
+	}
 	protected abstract ResponseType getType();
 	protected abstract String getNodeValue(Object intObj, String node) throws Exception;
 	protected abstract List<Map<String, String>> getResponseMappedValue(String expression, String propNames, Object nodeLst) throws Exception;
@@ -214,19 +255,48 @@ public abstract class ResponseValidator {
 	
 	protected NodeList getNodeByXpath(String xpathStr, Document xmlDocument) throws XPathExpressionException
 	{
-		xpathStr = xpathStr.replaceAll("\\.", "\\/");
+		xpathStr = xpathStr.replace('.', '/');
 		if(xpathStr.charAt(0)!='/')
 			xpathStr = "/" + xpathStr;
-		XPath xPath =  XPathFactory.newInstance().newXPath();
-		NodeList xmlNodeList = (NodeList) xPath.compile(xpathStr).evaluate(xmlDocument, XPathConstants.NODESET);
-		return xmlNodeList;
+		return evaluateXpath(xpathStr, xmlDocument);
+	}
+	
+	/**
+	 * Evaluate the xpath expression on the document, the expression is compiled only once per thread
+	 * @param expression
+	 * @param xmlDocument
+	 * @return
+	 * @throws XPathExpressionException
+	 */
+	public static NodeList evaluateXpath(String expression, Object xmlDocument) throws XPathExpressionException
+	{
+		Map<String, XPathExpression> xpathMap = compiledXpaths.get();
+		XPathExpression xpathExpr = xpathMap.get(expression);
+		if(xpathExpr==null) {
+			xpathExpr = xpaths.get().compile(expression);
+			xpathMap.put(expression, xpathExpr);
+		}
+		return (NodeList) xpathExpr.evaluate(xmlDocument, XPathConstants.NODESET);
+	}
+	
+	/**
+	 * Parse the xml stream using the document builder associated with the current thread
+	 * @param stream
+	 * @return
+	 * @throws Exception
+	 */
+	public static Document parseXml(InputStream stream) throws Exception
+	{
+		DocumentBuilder db = documentBuilders.get();
+		db.reset();
+		return db.parse(stream);
 	}
 	
 	public void validate(Response response, TestCase testCase, TestCaseReport testCaseReport, AcceptanceTestContext context)
 	{
 		try
 		{
-			Object intObj = getInternalObject(testCaseReport);
+			Object intObj = getInternalObject(response, testCaseReport);
 			if(intObj!=null && testCase.getAexpectedNodes()!=null && !testCase.getAexpectedNodes().isEmpty())
 			{
 				for (String node : testCase.getAexpectedNodes()) {
@@ -0,0 +1,200 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.validator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.junit.Assert;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import com.gatf.executor.core.TestCase;
+
+/**
+ * @author Sumeet Chhetri
+ * An immutable, pre-serialized soap request for a wsdl operation, the message is split into static 
+ * byte segments around every element text (the parameter slots) so that a request can be rendered 
+ * without cloning or transforming the soap message document, safe for use by concurrent users
+ */
+public class SOAPRequestTemplate {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private static final String SLOT_MARKER = "__GATF_SOAP_SLOT_";
+	
+	private final Document soapMessage;
+	
+	private final List<byte[]> segments = new ArrayList<byte[]>();
+	
+	private final List<byte[]> defaultValues = new ArrayList<byte[]>();
+	
+	private final Map<Node, Integer> slotsByNode = new IdentityHashMap<Node, Integer>();
+	
+	private final ConcurrentHashMap<String, Integer> slotsByParameter = new ConcurrentHashMap<String, Integer>();
+	
+	/**
+	 * The document is owned by the template after this call and should not be modified by the caller
+	 */
+	public SOAPRequestTemplate(Document soapMessage) throws Exception
+	{
+		this.soapMessage = soapMessage;
+		
+		List<Node> slotNodes = new ArrayList<Node>();
+		findSlots(soapMessage.getDocumentElement(), slotNodes);
+		
+		List<String> originalValues = new ArrayList<String>();
+		for (int i = 0; i < slotNodes.size(); i++) {
+			Node slotNode = slotNodes.get(i);
+			originalValues.add(slotNode.getNodeValue());
+			defaultValues.add(escapeXml(slotNode.getNodeValue()).getBytes(UTF_8));
+			slotsByNode.put(slotNode, i);
+			slotNode.setNodeValue(SLOT_MARKER + i + "__");
+		}
+		
+		Transformer transformer = TransformerFactory.newInstance().newTransformer();
+		transformer.setOutputProperty(OutputKeys.INDENT, "yes");        
+		StringWriter sw = new StringWriter();
+		transformer.transform(new DOMSource(soapMessage), new StreamResult(sw));
+		String serialized = sw.toString();
+		
+		for (int i = 0; i < slotNodes.size(); i++) {
+			slotNodes.get(i).setNodeValue(originalValues.get(i));
+		}
+		
+		int start = 0;
+		for (int i = 0; i < slotNodes.size(); i++) {
+			String marker = SLOT_MARKER + i + "__";
+			int pos = serialized.indexOf(marker, start);
+			Assert.assertTrue("Unable to compile soap request template", pos!=-1);
+			segments.add(serialized.substring(start, pos).getBytes(UTF_8));
+			start = pos + marker.length();
+		}
+		segments.add(serialized.substring(start).getBytes(UTF_8));
+	}
+	
+	/**
+	 * The text node which is the first child of an element is the node whose value is set by a soap parameter
+	 */
+	private static void findSlots(Node node, List<Node> slotNodes)
+	{
+		NodeList children = node.getChildNodes();
+		if(children.getLength()>0 && node.getFirstChild().getNodeType()==Node.TEXT_NODE) {
+			slotNodes.add(node.getFirstChild());
+		}
+		for (int i = 0; i < children.getLength(); i++) {
+			if(children.item(i).getNodeType()==Node.ELEMENT_NODE) {
+				findSlots(children.item(i), slotNodes);
+			}
+		}
+	}
+	
+	/**
+	 * Resolve the slot for a soap parameter, the xpath is evaluated on the template document only 
+	 * the first time a parameter is seen
+	 */
+	private Integer getSlot(String parameter) throws Exception
+	{
+		Integer slot = slotsByParameter.get(parameter);
+		if(slot==null) {
+			synchronized (soapMessage) {
+				Node envelope = SOAPResponseValidator.getNodeByNameCaseInsensitive(soapMessage.getFirstChild(), "envelope");
+				Node body = SOAPResponseValidator.getNodeByNameCaseInsensitive(envelope, "body");
+				Node requestBody = SOAPResponseValidator.getNextElement(body);
+				String expression = SOAPResponseValidator.createXPathExpression(parameter, envelope, body, requestBody);
+				NodeList nodelist = ResponseValidator.evaluateXpath(expression, soapMessage);
+				Assert.assertTrue("Cannot find soap parameter " + parameter, 
+						nodelist!=null && nodelist.getLength()>0 && nodelist.item(0).getFirstChild()!=null);
+				slot = slotsByNode.get(nodelist.item(0).getFirstChild());
+				Assert.assertNotNull("Cannot find soap parameter " + parameter, slot);
+			}
+			slotsByParameter.putIfAbsent(parameter, slot);
+		}
+		return slot;
+	}
+	
+	/**
+	 * Render the soap request with the soap parameter values of the test case
+	 */
+	public byte[] render(TestCase testCase) throws Exception
+	{
+		byte[][] values = defaultValues.toArray(new byte[defaultValues.size()][]);
+		int length = 0;
+		if(testCase.getSoapParameterValues()!=null) {
+			for (Map.Entry<String, String> entry : testCase.getSoapParameterValues().entrySet()) {
+				values[getSlot(entry.getKey())] = escapeXml(entry.getValue()).getBytes(UTF_8);
+			}
+		}
+		for (byte[] segment : segments) {
+			length += segment.length;
+		}
+		for (byte[] value : values) {
+			length += value.length;
+		}
+		
+		ByteArrayOutputStream request = new ByteArrayOutputStream(length);
+		for (int i = 0; i < values.length; i++) {
+			request.write(segments.get(i));
+			request.write(values[i]);
+		}
+		request.write(segments.get(values.length));
+		return request.toByteArray();
+	}
+	
+	private static String escapeXml(String value)
+	{
+		if(value==null) {
+			return "";
+		}
+		StringBuilder build = null;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			String replacement = null;
+			if(c=='&') {
+				replacement = "&amp;";
+			} else if(c=='<') {
+				replacement = "&lt;";
+			} else if(c=='>') {
+				replacement = "&gt;";
+			}
+			if(replacement!=null && build==null) {
+				build = new StringBuilder(value.length() + 16);
+				build.append(value, 0, i);
+			}
+			if(build!=null) {
+				if(replacement!=null) {
+					build.append(replacement);
+				} else {
+					build.append(c);
+				}
+			}
+		}
+		return build!=null?build.toString():value;
+	}
+}
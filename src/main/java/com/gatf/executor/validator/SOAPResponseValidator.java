@@ -19,21 +19,15 @@ import java.io.ByteArrayInputStream;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
-
 import org.junit.Assert;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
-import com.gatf.executor.core.TestCase;
 import com.gatf.executor.core.WorkflowContextHandler;
 import com.gatf.executor.core.WorkflowContextHandler.ResponseType;
 import com.gatf.executor.report.TestCaseReport;
+import com.ning.http.client.Response;
 
 /**
  * @author Sumeet Chhetri
@@ -83,28 +77,21 @@ public class SOAPResponseValidator extends ResponseValidator {
 		return build.toString();
 	}
 	
-	public static void processSOAPRequest(Document soapMessage, TestCase testCase) throws Exception
+	protected Object getInternalObject(TestCaseReport testCaseReport) throws Exception
 	{
-		if(testCase.getSoapParameterValues()==null)return;
-		for (Map.Entry<String, String> entry : testCase.getSoapParameterValues().entrySet()) {
-			Node envelope = getNodeByNameCaseInsensitive(soapMessage.getFirstChild(), "envelope");
-			Node body = getNodeByNameCaseInsensitive(envelope, "body");
-			Node requestBody = getNextElement(body);
-			String expression = createXPathExpression(entry.getKey(), envelope, body, requestBody);
-			XPath xPath = XPathFactory.newInstance().newXPath();
-			NodeList nodelist = (NodeList) xPath.compile(expression).evaluate(soapMessage, XPathConstants.NODESET);
-			Assert.assertNotNull("Cannot find soap parameter " + entry.getKey(), 
-					nodelist!=null && nodelist.getLength()>0);
-			nodelist.item(0).getFirstChild().setNodeValue(entry.getValue());
-		}
+		return parseXml(new ByteArrayInputStream(testCaseReport.getResponseContent().getBytes()));
 	}
 	
-	protected Object getInternalObject(TestCaseReport testCaseReport) throws Exception
+	protected Object getInternalObject(Response response, TestCaseReport testCaseReport) throws Exception
 	{
-		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-		DocumentBuilder db = dbf.newDocumentBuilder();
-		Document xmlDocument = db.parse(new ByteArrayInputStream(testCaseReport.getResponseContent().getBytes()));
-		return xmlDocument;
+		if(response!=null) {
+			//The body may have been discarded as per the retention policy, the report content is not set yet
+			if(!response.hasResponseBody()) {
+				return null;
+			}
+			return parseXml(response.getResponseBodyAsStream());
+		}
+		return getInternalObject(testCaseReport);
 	}
 
 	protected String getNodeValue(Object intObj, String node) throws Exception {
@@ -148,8 +135,7 @@ public class SOAPResponseValidator extends ResponseValidator {
 		else	
 			expression = SOAPResponseValidator.createXPathExpression(expression, envelope, body, requestBody, returnBody);
 		
-		XPath xPath =  XPathFactory.newInstance().newXPath();
-		NodeList xmlNodeList = (NodeList) xPath.compile(expression).evaluate((Document)nodeLst, XPathConstants.NODESET);
+		NodeList xmlNodeList = evaluateXpath(expression, (Document)nodeLst);
 		Assert.assertTrue("Workflow soap variable " + expression +" is null",  
 				xmlNodeList!=null && xmlNodeList.getLength()>0);
 		
@@ -171,8 +157,7 @@ public class SOAPResponseValidator extends ResponseValidator {
 		else	
 			expression = SOAPResponseValidator.createXPathExpression(expression, envelope, body, requestBody, returnBody);
 		
-		XPath xPath =  XPathFactory.newInstance().newXPath();
-		NodeList xmlNodeList = (NodeList) xPath.compile(expression).evaluate((Document)nodeLst, XPathConstants.NODESET);
+		NodeList xmlNodeList = evaluateXpath(expression, (Document)nodeLst);
 		Assert.assertTrue("Workflow soap variable " + expression +" is null",  
 				xmlNodeList!=null && xmlNodeList.getLength()>0);
 
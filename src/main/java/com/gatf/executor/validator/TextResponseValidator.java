@@ -20,6 +20,7 @@ import java.util.Map;
 
 import com.gatf.executor.core.WorkflowContextHandler.ResponseType;
 import com.gatf.executor.report.TestCaseReport;
+import com.ning.http.client.Response;
 
 /**
  * @author Sumeet Chhetri
@@ -30,6 +31,13 @@ public class TextResponseValidator extends ResponseValidator {
 	protected Object getInternalObject(TestCaseReport testCaseReport) throws Exception {
 		return testCaseReport.getResponseContent();
 	}
+	
+	protected Object getInternalObject(Response response, TestCaseReport testCaseReport) throws Exception {
+		if(response!=null) {
+			return response.getResponseBody();
+		}
+		return getInternalObject(testCaseReport);
+	}
 
 	protected ResponseType getType() {
 		return ResponseType.PLAIN;
@@ -19,12 +19,6 @@ import java.io.ByteArrayInputStream;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
-
 import org.junit.Assert;
 import org.w3c.dom.Document;
 import org.w3c.dom.NodeList;
@@ -32,6 +26,7 @@ import org.w3c.dom.NodeList;
 import com.gatf.executor.core.WorkflowContextHandler;
 import com.gatf.executor.core.WorkflowContextHandler.ResponseType;
 import com.gatf.executor.report.TestCaseReport;
+import com.ning.http.client.Response;
 
 /**
  * @author Sumeet Chhetri
@@ -41,10 +36,19 @@ public class XMLResponseValidator extends ResponseValidator {
 
 	protected Object getInternalObject(TestCaseReport testCaseReport) throws Exception
 	{
-		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-		DocumentBuilder db = dbf.newDocumentBuilder();
-		Document xmlDocument = db.parse(new ByteArrayInputStream(testCaseReport.getResponseContent().getBytes()));
-		return xmlDocument;
+		return parseXml(new ByteArrayInputStream(testCaseReport.getResponseContent().getBytes()));
+	}
+	
+	protected Object getInternalObject(Response response, TestCaseReport testCaseReport) throws Exception
+	{
+		if(response!=null) {
+			//The body may have been discarded as per the retention policy, the report content is not set yet
+			if(!response.hasResponseBody()) {
+				return null;
+			}
+			return parseXml(response.getResponseBodyAsStream());
+		}
+		return getInternalObject(testCaseReport);
 	}
 
 	protected String getNodeValue(Object intObj, String node) throws Exception {
@@ -67,7 +71,7 @@ public class XMLResponseValidator extends ResponseValidator {
 	}
 
 	protected List<Map<String, String>> getResponseMappedValue(String expression, String propNames, Object initObj) throws Exception {
-		expression = expression.replaceAll("\\.", "\\/");
+		expression = expression.replace('.', '/');
 		if(expression.equals("")) {
 			expression = "/*";
 		}
@@ -75,8 +79,7 @@ public class XMLResponseValidator extends ResponseValidator {
 		if(expression.charAt(0)!='/')
 			expression = "/" + expression;
 		
-		XPath xPath =  XPathFactory.newInstance().newXPath();
-		NodeList xmlNodeList = (NodeList) xPath.compile(expression).evaluate((Document)initObj, XPathConstants.NODESET);
+		NodeList xmlNodeList = evaluateXpath(expression, (Document)initObj);
 		Assert.assertTrue("Workflow xml variable " + expression +" is null",  
 				xmlNodeList!=null && xmlNodeList.getLength()>0);
 		
@@ -85,12 +88,11 @@ public class XMLResponseValidator extends ResponseValidator {
 	}
 
 	protected int getResponseMappedCount(String expression, Object initObj) throws Exception {
-		expression = expression.replaceAll("\\.", "\\/");
+		expression = expression.replace('.', '/');
 		if(expression.charAt(0)!='/')
 			expression = "/" + expression;
 		
-		XPath xPath =  XPathFactory.newInstance().newXPath();
-		NodeList xmlNodeList = (NodeList) xPath.compile(expression).evaluate((Document)initObj, XPathConstants.NODESET);
+		NodeList xmlNodeList = evaluateXpath(expression, (Document)initObj);
 		Assert.assertTrue("Workflow xml variable " + expression +" is null", 
 				xmlNodeList!=null && xmlNodeList.getLength()>0);
 
@@ -8,9 +8,6 @@ import java.util.Map;
 import org.apache.commons.collections.CollectionUtils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.ning.http.client.AsyncHttpClient;
-import com.ning.http.client.AsyncHttpClientConfig;
-import com.ning.http.client.AsyncHttpClientConfig.Builder;
 import com.ning.http.client.ListenableFuture;
 import com.ning.http.client.RequestBuilder;
 import com.ning.http.client.Response;
@@ -22,6 +19,8 @@ import com.ning.http.client.cookie.Cookie;
  */
 public class CurlPlugin {
 
+    private static final ObjectMapper mapper = new ObjectMapper();
+    
     public static boolean isParameterizeFirstSetParam(String arg, int index) {
         if(index==1) {
             return false;
@@ -34,8 +33,6 @@ public class CurlPlugin {
         String method = args[0].toString();
         String url = args[1].toString();
         
-        Builder builder = new AsyncHttpClientConfig.Builder();
-        AsyncHttpClient client = new AsyncHttpClient(builder.build());
         RequestBuilder rbuilder = new RequestBuilder(method.toUpperCase());
         rbuilder = rbuilder.setUrl(url);
         
@@ -61,7 +58,7 @@ public class CurlPlugin {
             }
         }
 
-        ListenableFuture<Response> responsef = client.executeRequest(rbuilder.build());
+        ListenableFuture<Response> responsef = PluginHttpClient.get().executeRequest(rbuilder.build());
         Response response = responsef.get();
         
         Map<String, List<String>> headers = new HashMap<String, List<String>>();
@@ -81,8 +78,6 @@ public class CurlPlugin {
         resp.put("headers", headers);
         resp.put("cookies", cookies);
         
-        client.close();
-        
-        return new ObjectMapper().writeValueAsString(resp);
+        return mapper.writeValueAsString(resp);
     }
 }
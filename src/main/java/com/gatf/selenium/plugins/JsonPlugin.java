@@ -14,9 +14,11 @@ import com.jayway.jsonpath.JsonPath;
  */
 public class JsonPlugin {
 
+    private static final ObjectMapper mapper = new ObjectMapper();
+
     public static Object read(Object[] args) throws Exception {
         if(args.length>0 && args[0] instanceof String) {
-            return new ObjectMapper().readTree(args[0].toString());
+            return mapper.readTree(args[0].toString());
         }
         return null;
     }
@@ -24,15 +26,15 @@ public class JsonPlugin {
     public static Object write(Object[] args) throws Exception {
         if(args.length==4) {
             if(args[0] instanceof List || args[0] instanceof Set || args[0] instanceof Map) {
-                return new ObjectMapper().writeValueAsString(args[0]);
+                return mapper.writeValueAsString(args[0]);
             } else {
-                return new ObjectMapper().writeValueAsString(args[0]);
+                return mapper.writeValueAsString(args[0]);
             }
         } else if(args.length==5 && args[1] instanceof String) {
             if(args[0] instanceof List || args[0] instanceof Set || args[0] instanceof Map) {
-                new ObjectMapper().writeValue(new File(args[1].toString()), args[0]);
+                mapper.writeValue(new File(args[1].toString()), args[0]);
             } else {
-                new ObjectMapper().writeValue(new File(args[1].toString()), args[0]);
+                mapper.writeValue(new File(args[1].toString()), args[0]);
             }
             return true;
         }
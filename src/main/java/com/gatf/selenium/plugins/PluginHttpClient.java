@@ -0,0 +1,62 @@
+package com.gatf.selenium.plugins;
+
+import com.ning.http.client.AsyncHttpClient;
+import com.ning.http.client.AsyncHttpClientConfig;
+import com.ning.http.client.AsyncHttpClientConfig.Builder;
+
+/**
+ * @author Sumeet Chhetri<br/>
+ * Long-lived pooled http client shared by the selenium plugins, connections are kept alive between plugin 
+ * steps and the client is closed once the last selenium run using it ends, it is kept apart from the client 
+ * shared by the ui so that ending a selenium run never closes connections in use by other executions
+ */
+public class PluginHttpClient {
+
+    private static final int MAX_CONNECTIONS_PER_HOST = 10;
+    
+    private static final int MAX_CONNECTIONS_TOTAL = 100;
+    
+    private static AsyncHttpClient client;
+    
+    private static int runs = 0;
+    
+    public static synchronized AsyncHttpClient get() {
+        if(client==null || client.isClosed()) {
+            Builder builder = new AsyncHttpClientConfig.Builder();
+            builder.setConnectionTimeoutInMs(10000)
+                    .setRequestTimeoutInMs(100000)
+                    .setAllowPoolingConnection(true)
+                    .setMaximumConnectionsPerHost(MAX_CONNECTIONS_PER_HOST)
+                    .setMaximumConnectionsTotal(MAX_CONNECTIONS_TOTAL)
+                    .setCompressionEnabled(false);
+            client = new AsyncHttpClient(builder.build());
+        }
+        return client;
+    }
+    
+    /**
+     * Register a selenium run using the client
+     */
+    public static synchronized void acquire() {
+        runs++;
+    }
+    
+    /**
+     * Unregister a selenium run, the client is closed once no selenium run uses it
+     */
+    public static synchronized void release() {
+        if(runs>0) {
+            runs--;
+        }
+        if(runs==0) {
+            shutdown();
+        }
+    }
+    
+    public static synchronized void shutdown() {
+        if(client!=null) {
+            client.close();
+            client = null;
+        }
+    }
+}
@@ -47,6 +47,7 @@ import com.gatf.executor.core.AcceptanceTestContext;
 import com.gatf.executor.core.GatfExecutorConfig;
 import com.gatf.executor.core.GatfTestCaseExecutorMojo;
 import com.gatf.executor.core.TestCase;
+import com.gatf.executor.executor.TestCaseExecutorUtil;
 import com.gatf.executor.report.ReportHandler;
 import com.gatf.generator.core.GatfConfiguration;
 import com.gatf.generator.core.GatfTestGeneratorMojo;
@@ -123,6 +124,8 @@ public class GatfConfigToolMojo extends AbstractMojo {
         server.getServerConfiguration().addHttpHandler(new GatfPluginExecutionHandler(mojo, project), "/execute");
         
         server.getServerConfiguration().addHttpHandler(new GatfProfileHandler(mojo, project), "/profile");
+        
+        server.getServerConfiguration().addHttpHandler(new GatfLiveMetricsHandler(), "/live-metrics");
 		
 		try {
 		    server.start();
@@ -131,6 +134,7 @@ public class GatfConfigToolMojo extends AbstractMojo {
 		} catch (Exception e) {
 		    System.err.println(e);
 		}
+		TestCaseExecutorUtil.shutdownSharedConnection();
 	}
 
     private void createServerApiAndIssueTrackingApiFilesIfNotExists() {
@@ -0,0 +1,203 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.ui;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang.StringUtils;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.glassfish.grizzly.EmptyCompletionHandler;
+import org.glassfish.grizzly.http.Method;
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http.util.HttpStatus;
+
+import com.gatf.executor.report.LiveMetrics;
+import com.gatf.executor.report.LiveMetrics.Sample;
+
+/**
+ * @author Sumeet Chhetri
+ * Streams the per second live execution metrics as server-sent events, the retained samples after the 
+ * Last-Event-ID header (or the since parameter) are sent first followed by every new sample, the sampler 
+ * thread only queues the samples, they are written to the client on a separate writer thread
+ */
+public class GatfLiveMetricsHandler extends HttpHandler {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+	
+	/**
+	 * A client that lags behind by more samples than this is disconnected, it can reconnect 
+	 * with its Last-Event-ID and resume from the retained samples
+	 */
+	private static final int MAX_PENDING_SAMPLES = LiveMetrics.HISTORY_SECONDS + 60;
+	
+	private static final ExecutorService writerPool = Executors.newCachedThreadPool(new ThreadFactory() {
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "gatf-live-metrics-writer");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	private static class SampleStream implements LiveMetrics.Listener, Runnable
+	{
+		private final Response response;
+		
+		private final Writer writer;
+		
+		private final Queue<Sample> pending = new ConcurrentLinkedQueue<Sample>();
+		
+		private final AtomicInteger pendingCount = new AtomicInteger();
+		
+		private final AtomicBoolean scheduled = new AtomicBoolean(false);
+		
+		private long lastTime;
+		
+		private boolean started = false;
+		
+		private volatile boolean closed = false;
+		
+		private SampleStream(Response response, long lastTime) {
+			this.response = response;
+			this.writer = response.getWriter();
+			this.lastTime = lastTime;
+		}
+		
+		public boolean onSample(Sample sample) {
+			if(closed) {
+				return false;
+			}
+			if(pendingCount.incrementAndGet()>MAX_PENDING_SAMPLES) {
+				close(true);
+				return false;
+			}
+			pending.add(sample);
+			schedule();
+			return true;
+		}
+		
+		private void schedule() {
+			if(scheduled.compareAndSet(false, true)) {
+				try {
+					writerPool.execute(this);
+				} catch (Exception e) {
+					scheduled.set(false);
+					close(true);
+				}
+			}
+		}
+		
+		public void run() {
+			try {
+				if(!started) {
+					writer.write("retry: 1000\n\n");
+					started = true;
+				}
+				Sample sample;
+				while(!closed && (sample = pending.poll())!=null) {
+					pendingCount.decrementAndGet();
+					if(sample.getTime()<=lastTime) {
+						continue;
+					}
+					writer.write("id: " + sample.getTime() + "\n");
+					writer.write("data: " + mapper.writeValueAsString(sample) + "\n\n");
+					lastTime = sample.getTime();
+				}
+				if(!closed) {
+					writer.flush();
+				}
+			} catch (IOException e) {
+				//The client went away
+				close(true);
+			} finally {
+				scheduled.set(false);
+			}
+			if(!closed && !pending.isEmpty()) {
+				schedule();
+			}
+		}
+		
+		/**
+		 * @param resume whether the stream is closed from this side, the suspended response 
+		 * is then resumed, otherwise grizzly has already cancelled it
+		 */
+		private void close(boolean resume) {
+			if(closed) {
+				return;
+			}
+			closed = true;
+			LiveMetrics.removeListener(this);
+			pending.clear();
+			if(resume && response.isSuspended()) {
+				try {
+					response.resume();
+				} catch (Exception e) {
+				}
+			}
+		}
+	}
+	
+	@Override
+	public void service(Request request, Response response) throws Exception {
+		if(!request.getMethod().equals(Method.GET)) {
+			response.setStatus(HttpStatus.METHOD_NOT_ALLOWED_405);
+			return;
+		}
+		
+		long since = 0;
+		String lastEventId = request.getHeader("Last-Event-ID");
+		if(StringUtils.isBlank(lastEventId)) {
+			lastEventId = request.getParameter("since");
+		}
+		if(StringUtils.isNotBlank(lastEventId)) {
+			try {
+				since = Long.parseLong(lastEventId.trim());
+			} catch (NumberFormatException e) {
+			}
+		}
+		
+		response.setHeader("Cache-Control", "no-cache, no-store");
+		response.setContentType("text/event-stream");
+		response.setCharacterEncoding("UTF-8");
+		response.setStatus(HttpStatus.OK_200);
+		
+		final SampleStream stream = new SampleStream(response, since);
+		response.suspend(-1, TimeUnit.MILLISECONDS, new EmptyCompletionHandler<Response>() {
+			@Override
+			public void cancelled() {
+				stream.close(false);
+			}
+			@Override
+			public void failed(Throwable throwable) {
+				stream.close(false);
+			}
+		});
+		
+		//Queues the backlog and registers the stream atomically, the first write also sends the retry interval
+		LiveMetrics.addListener(stream, since);
+		stream.schedule();
+	}
+}
@@ -33,6 +33,7 @@ import com.gatf.GatfPlugin;
 import com.gatf.GatfPluginConfig;
 import com.gatf.executor.core.GatfExecutorConfig;
 import com.gatf.executor.core.GatfTestCaseExecutorMojo;
+import com.gatf.executor.report.LiveMetrics;
 import com.gatf.executor.report.RuntimeReportUtil;
 import com.gatf.generator.core.GatfConfiguration;
 import com.gatf.generator.core.GatfTestGeneratorMojo;
@@ -103,6 +104,7 @@ public class GatfPluginExecutionHandler extends HttpHandler {
 					isStarted.set(true);
 					if(pluginType.equals("executor")) {
 						RuntimeReportUtil.registerConfigUI();
+						LiveMetrics.reset();
 					}
 					final GatfPluginConfig config = gatfConfig;
 					_executorThread = new Thread(new Runnable() {
@@ -39,7 +39,7 @@ import com.gatf.executor.core.GatfExecutorConfig;
 import com.gatf.executor.core.GatfTestCaseExecutorMojo;
 import com.gatf.executor.core.TestCase;
 import com.gatf.executor.executor.TestCaseExecutorUtil;
-import com.gatf.executor.finder.XMLTestCaseFinder;
+import com.gatf.executor.finder.TestCaseRegistry;
 import com.gatf.executor.report.ReportHandler;
 import com.gatf.executor.report.TestCaseReport;
 import com.gatf.executor.report.TestCaseReport.TestStatus;
@@ -56,6 +56,14 @@ public class GatfReportsHandler extends HttpHandler {
 	
 	private ReentrantLock lock = new ReentrantLock();
 	
+	private static final Object AUTH_TESTCASE_LOCK = new Object();
+	
+	private static String authTestCaseKey = null;
+	
+	private static long authTestCaseSignature;
+	
+	private static TestCase cachedAuthTestCase = null;
+	
 	public GatfReportsHandler(GatfConfigToolMojo mojo, MavenProject project) {
 		super();
 		this.mojo = mojo;
@@ -128,13 +136,7 @@ public class GatfReportsHandler extends HttpHandler {
                     throw new RuntimeException("Test case file does not exist");
                 }
                 
-                List<TestCase> tcs = new XMLTestCaseFinder().resolveTestCases(new File(filePath));
-                for (TestCase tc : tcs) {
-                    if(tc.getName().equals(testCaseName)) {
-                        origfound = tc;
-                        break;
-                    }
-                }
+                origfound = TestCaseRegistry.getInstance().getTestCase(new File(filePath), testCaseName);
                 if(origfound==null) {
                     throw new RuntimeException("Testcase does not exist");
                 }
@@ -158,10 +160,9 @@ public class GatfReportsHandler extends HttpHandler {
                 
                 context.setGatfExecutorConfig(gatfConfig);
                 executorMojo.setContext(context);
-                executorMojo.getAllTestCases(context, null, null);
-                authTestCase = executorMojo.getAuthTestCase();
+                authTestCase = getAuthTestCase(executorMojo, context);
                 
-                TestCaseExecutorUtil testCaseExecutorUtil = TestCaseExecutorUtil.getSingleConnection(context);
+                TestCaseExecutorUtil testCaseExecutorUtil = TestCaseExecutorUtil.getSharedConnection(context);
                 
                 boolean isAuthExec = false;
                 
@@ -265,7 +266,7 @@ public class GatfReportsHandler extends HttpHandler {
                     throw new RuntimeException("Please Execute the GATF Suite first..");
                 }
                 
-                TestCaseExecutorUtil testCaseExecutorUtil = TestCaseExecutorUtil.getSingleConnection(context);
+                TestCaseExecutorUtil testCaseExecutorUtil = TestCaseExecutorUtil.getSharedConnection(context);
                 
                 boolean isAuthExec = false;
                 TestCase authTestCaseT = context.getServerLogApi(true);
@@ -310,13 +311,9 @@ public class GatfReportsHandler extends HttpHandler {
                 }
                 
                 TestCase authTestCaseT = null;
-                List<TestCase> tcs = new XMLTestCaseFinder().resolveTestCases(new File(filePath));
-                for (TestCase tc : tcs) {
-                    if(tc.getName().equals(testCaseName)) {
-                        origfound = tc;
-                    } else if(tc.getName().equals("authapi")) {
-                        authTestCaseT = tc;
-                    }
+                origfound = TestCaseRegistry.getInstance().getTestCase(new File(filePath), testCaseName);
+                if(!"authapi".equals(testCaseName)) {
+                    authTestCaseT = TestCaseRegistry.getInstance().getTestCase(new File(filePath), "authapi");
                 }
                 if(origfound==null) {
                     throw new RuntimeException("External API Testcase does not exist");
@@ -333,7 +330,7 @@ public class GatfReportsHandler extends HttpHandler {
                     throw new RuntimeException("Please Execute the GATF Suite first..");
                 }
                 
-                TestCaseExecutorUtil testCaseExecutorUtil = TestCaseExecutorUtil.getSingleConnection(context);
+                TestCaseExecutorUtil testCaseExecutorUtil = TestCaseExecutorUtil.getSharedConnection(context);
                 
                 boolean isAuthExec = false;
                 
@@ -440,13 +437,7 @@ public class GatfReportsHandler extends HttpHandler {
                 }
                 
                 if(!testcaseFileName.toLowerCase().endsWith(".sel")) {
-                    List<TestCase> tcs = new XMLTestCaseFinder().resolveTestCases(new File(filePath));
-                    for (TestCase tc : tcs) {
-                        if(tc.getName().equals(testCaseName)) {
-                            origfound = tc;
-                            break;
-                        }
-                    }
+                    origfound = TestCaseRegistry.getInstance().getTestCase(new File(filePath), testCaseName);
                     if(origfound==null) {
                         throw new RuntimeException("Testcase does not exist");
                     }
@@ -482,10 +473,9 @@ public class GatfReportsHandler extends HttpHandler {
                     
                     context.setGatfExecutorConfig(gatfConfig);
                     executorMojo.setContext(context);
-                    executorMojo.getAllTestCases(context, null, null);
-                    authTestCase = executorMojo.getAuthTestCase();
+                    authTestCase = getAuthTestCase(executorMojo, context);
                     
-                    TestCaseExecutorUtil testCaseExecutorUtil = TestCaseExecutorUtil.getSingleConnection(context);
+                    TestCaseExecutorUtil testCaseExecutorUtil = TestCaseExecutorUtil.getSharedConnection(context);
                     
                     boolean isAuthExec = false;
                     TestCase found = new TestCase(origfound);
@@ -562,4 +552,26 @@ public class GatfReportsHandler extends HttpHandler {
         }
 	    return new Object[]{HttpStatus.NOT_FOUND_404, null, null, null};
 	}
+
+	/**
+	 * Find the auth testcase of the testcase directory, the directory is only parsed again when one of its
+	 * testcase files changes or the auth configuration is modified
+	 */
+	private static TestCase getAuthTestCase(GatfTestCaseExecutorMojo executorMojo, AcceptanceTestContext context) {
+		GatfExecutorConfig gatfConfig = context.getGatfExecutorConfig();
+		File testCaseDirectory = context.getResourceFile(gatfConfig.getTestCaseDir());
+		String key = testCaseDirectory.getAbsolutePath() + "|" + gatfConfig.getAuthUrl() + "|" + gatfConfig.isAuthEnabled()
+				+ "|" + gatfConfig.getSoapAuthWsdlKey() + "|" + gatfConfig.getSoapAuthOperation();
+		long signature = TestCaseRegistry.getInstance().getDirectorySignature(testCaseDirectory);
+		synchronized (AUTH_TESTCASE_LOCK) {
+			if(!key.equals(authTestCaseKey) || signature!=authTestCaseSignature) {
+				executorMojo.getAllTestCases(context, null, null);
+				cachedAuthTestCase = executorMojo.getAuthTestCase();
+				authTestCaseKey = key;
+				authTestCaseSignature = signature;
+			}
+			//Executing the auth testcase renders its headers and content in place, hand out a copy every time
+			return cachedAuthTestCase!=null?new TestCase(cachedAuthTestCase):null;
+		}
+	}
 }
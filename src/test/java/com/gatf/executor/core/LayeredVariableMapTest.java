@@ -0,0 +1,107 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.core;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Sumeet Chhetri
+ *
+ */
+public class LayeredVariableMapTest {
+
+	public static class Accessor {
+		public String getValue() {
+			return "dpa";
+		}
+	}
+	
+	private static Map<String, String> map(String... keyValues) {
+		Map<String, String> map = new HashMap<String, String>();
+		for (int i = 0; i < keyValues.length; i+=2) {
+			map.put(keyValues[i], keyValues[i+1]);
+		}
+		return map;
+	}
+	
+	@Test
+	public void testLaterScopesTakePrecedence() {
+		Map<String, String> global = map("a", "global", "b", "global");
+		Map<String, String> suite = map("b", "suite", "c", "suite");
+		LayeredVariableMap layered = new LayeredVariableMap(global, suite, null);
+		
+		Assert.assertEquals("global", layered.get("a"));
+		Assert.assertEquals("suite", layered.get("b"));
+		Assert.assertEquals("suite", layered.get("c"));
+		Assert.assertNull(layered.get("d"));
+		Assert.assertEquals(3, layered.size());
+	}
+	
+	@Test
+	public void testWritesStayLocal() {
+		Map<String, String> global = map("a", "global");
+		Map<String, String> suite = map("b", "suite");
+		LayeredVariableMap layered = new LayeredVariableMap(global, suite);
+		
+		layered.put("a", "local");
+		layered.put("c", "local");
+		layered.remove("b");
+		
+		Assert.assertEquals("local", layered.get("a"));
+		Assert.assertEquals("local", layered.get("c"));
+		Assert.assertFalse(layered.containsKey("b"));
+		Assert.assertEquals(2, layered.size());
+		
+		Assert.assertEquals(map("a", "global"), global);
+		Assert.assertEquals(map("b", "suite"), suite);
+	}
+	
+	@Test
+	public void testClearHidesAllScopes() {
+		LayeredVariableMap layered = new LayeredVariableMap(map("a", "1"), map("b", "2"));
+		layered.clear();
+		Assert.assertTrue(layered.isEmpty());
+		Assert.assertNull(layered.get("a"));
+	}
+	
+	@Test
+	public void testRenderWithVelocityContext() throws Exception {
+		Map<String, String> global = map("a", "global");
+		Map<String, String> suite = map("b", "suite");
+		LayeredVariableMap layered = new LayeredVariableMap(global, suite);
+		
+		VelocityEngine engine = new VelocityEngine();
+		engine.init();
+		
+		VelocityContext context = WorkflowContextHandler.newVelocityContext(layered);
+		context.put("_DPA_", new Accessor());
+		
+		StringWriter writer = new StringWriter();
+		engine.evaluate(context, writer, "ERROR", "#set($list = [1, 2])#set($a = 'set')$a-$b-$_DPA_.value-$list.size()");
+		Assert.assertEquals("set-suite-dpa-2", writer.toString());
+		
+		Assert.assertEquals("global", layered.get("a"));
+		Assert.assertFalse(layered.containsKey("_DPA_"));
+		Assert.assertEquals(map("a", "global"), global);
+	}
+}
@@ -0,0 +1,126 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.dataprovider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Sumeet Chhetri
+ *
+ */
+public class LiveProviderCacheTest {
+
+	private static class CountingLoader implements Callable<List<Map<String, String>>> {
+		private final AtomicInteger calls = new AtomicInteger();
+		private final String value;
+		private CountingLoader(String value) {
+			this.value = value;
+		}
+		public List<Map<String, String>> call() throws Exception {
+			calls.incrementAndGet();
+			Map<String, String> row = new HashMap<String, String>();
+			row.put("value", value);
+			List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+			rows.add(row);
+			return rows;
+		}
+	}
+	
+	@Test
+	public void testHitsAndMisses() {
+		LiveProviderCache cache = new LiveProviderCache(60000, 10);
+		CountingLoader loader = new CountingLoader("a");
+		
+		Assert.assertEquals("a", cache.get("q1", loader).get(0).get("value"));
+		Assert.assertEquals("a", cache.get("q1", loader).get(0).get("value"));
+		cache.get("q2", loader);
+		
+		Assert.assertEquals(2, loader.calls.get());
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertEquals(2, cache.getMisses());
+		Assert.assertEquals(2, cache.size());
+	}
+	
+	@Test
+	public void testCallersGetCopies() {
+		LiveProviderCache cache = new LiveProviderCache(60000, 10);
+		CountingLoader loader = new CountingLoader("a");
+		
+		List<Map<String, String>> rows = cache.get("q", loader);
+		rows.get(0).put("value", "changed");
+		rows.add(new HashMap<String, String>());
+		
+		List<Map<String, String>> cached = cache.get("q", loader);
+		Assert.assertEquals(1, cached.size());
+		Assert.assertEquals("a", cached.get(0).get("value"));
+		Assert.assertEquals(1, loader.calls.get());
+	}
+	
+	@Test
+	public void testExpiredEntriesAreReloaded() throws Exception {
+		LiveProviderCache cache = new LiveProviderCache(0, 10);
+		CountingLoader loader = new CountingLoader("a");
+		
+		cache.get("q", loader);
+		Thread.sleep(5);
+		cache.get("q", loader);
+		
+		Assert.assertEquals(2, loader.calls.get());
+	}
+	
+	@Test
+	public void testLeastRecentlyUsedEntryIsEvicted() {
+		LiveProviderCache cache = new LiveProviderCache(60000, 2);
+		CountingLoader loader = new CountingLoader("a");
+		
+		cache.get("q1", loader);
+		cache.get("q2", loader);
+		cache.get("q1", loader);
+		cache.get("q3", loader);
+		Assert.assertEquals(2, cache.size());
+		
+		cache.get("q1", loader);
+		Assert.assertEquals(3, loader.calls.get());
+		cache.get("q2", loader);
+		Assert.assertEquals(4, loader.calls.get());
+	}
+	
+	@Test
+	public void testFailuresAreNotCached() {
+		LiveProviderCache cache = new LiveProviderCache(60000, 10);
+		try {
+			cache.get("q", new Callable<List<Map<String, String>>>() {
+				public List<Map<String, String>> call() throws Exception {
+					throw new IllegalStateException("provider down");
+				}
+			});
+			Assert.fail("The provider failure should be rethrown");
+		} catch (IllegalStateException e) {
+		}
+		
+		CountingLoader loader = new CountingLoader("a");
+		Assert.assertEquals("a", cache.get("q", loader).get(0).get("value"));
+		Assert.assertEquals(1, loader.calls.get());
+	}
+}
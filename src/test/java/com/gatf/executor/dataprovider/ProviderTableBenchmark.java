@@ -0,0 +1,85 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.dataprovider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Sumeet Chhetri
+ * Measures the retained heap of provider data held as a List of HashMap rows against the same data held 
+ * in a ProviderTable, the rows are generated like a csv/database provider would (every value a new String, 
+ * a unique id column and low cardinality columns), this is not run as part of the test suite, run it with
+ * java -Xmx1g -cp <test-classpath> com.gatf.executor.dataprovider.ProviderTableBenchmark [rows] [columns]
+ */
+public class ProviderTableBenchmark {
+
+	private static final String[] CITIES = {"london", "paris", "new york", "tokyo", "berlin", "mumbai", "sydney"};
+	
+	private static List<Map<String, String>> generateRows(int numRows, int numColumns) {
+		List<Map<String, String>> rows = new ArrayList<Map<String, String>>(numRows);
+		for (int i = 0; i < numRows; i++) {
+			Map<String, String> row = new HashMap<String, String>();
+			row.put(new String("id"), String.valueOf(i));
+			for (int j = 1; j < numColumns; j++) {
+				String value = (j%2==0)?CITIES[(i+j)%CITIES.length]:String.valueOf((i*31+j)%100);
+				row.put(new String("column"+j), new String(value));
+			}
+			rows.add(row);
+		}
+		return rows;
+	}
+	
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+			}
+			used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+		}
+		return used;
+	}
+	
+	public static void main(String[] args) {
+		int numRows = args.length>0?Integer.parseInt(args[0]):200000;
+		int numColumns = args.length>1?Integer.parseInt(args[1]):8;
+		
+		long base = usedHeap();
+		List<Map<String, String>> rows = generateRows(numRows, numColumns);
+		long mapsHeap = usedHeap() - base;
+		
+		int checksum = rows.get(numRows-1).size();
+		rows = null;
+		
+		base = usedHeap();
+		ProviderTable table = new ProviderTable(generateRows(numRows, numColumns));
+		long tableHeap = usedHeap() - base;
+		
+		checksum += table.get(numRows-1).size();
+		
+		System.out.println("Rows = " + numRows + ", columns = " + numColumns + " (" + checksum + ")");
+		System.out.println("List<HashMap> retained heap = " + mapsHeap/1024 + " KB");
+		System.out.println("ProviderTable retained heap = " + tableHeap/1024 + " KB");
+		System.out.println("Saving = " + (mapsHeap - tableHeap)/1024 + " KB (" 
+				+ Math.round(100d*(mapsHeap - tableHeap)/mapsHeap) + "%)");
+	}
+}
@@ -0,0 +1,125 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.dataprovider;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Sumeet Chhetri
+ *
+ */
+public class ProviderTableTest {
+
+	private static Map<String, String> row(String... keyValues) {
+		Map<String, String> row = new HashMap<String, String>();
+		for (int i = 0; i < keyValues.length; i+=2) {
+			row.put(keyValues[i], keyValues[i+1]);
+		}
+		return row;
+	}
+	
+	private static List<Map<String, String>> rows() {
+		List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+		rows.add(row("id", "1", "name", "a"));
+		rows.add(row("id", "2", "city", "x"));
+		rows.add(row("id", "3", "name", "a", "city", "x"));
+		return rows;
+	}
+	
+	@Test
+	public void testRowsMatchTheSourceRows() {
+		List<Map<String, String>> rows = rows();
+		ProviderTable table = new ProviderTable(rows);
+		
+		Assert.assertEquals(3, table.size());
+		Assert.assertEquals(rows, table);
+		Assert.assertEquals(Arrays.asList("id", "name", "city"), Arrays.asList(table.getColumns()));
+		for (int i = 0; i < rows.size(); i++) {
+			Assert.assertEquals(rows.get(i), table.get(i));
+			Assert.assertEquals(rows.get(i).size(), table.get(i).size());
+		}
+	}
+	
+	@Test
+	public void testAbsentColumns() {
+		ProviderTable table = new ProviderTable(rows());
+		
+		Assert.assertNull(table.get(0).get("city"));
+		Assert.assertFalse(table.get(0).containsKey("city"));
+		Assert.assertFalse(table.get(1).containsKey("name"));
+		Assert.assertFalse(table.get(0).containsKey("unknown"));
+		Assert.assertEquals("x", table.get(1).get("city"));
+	}
+	
+	@Test(expected=UnsupportedOperationException.class)
+	public void testRowsAreReadOnly() {
+		new ProviderTable(rows()).get(0).put("name", "b");
+	}
+	
+	@Test
+	public void testRowsCanOnlyBeAppended() {
+		ProviderTable table = new ProviderTable(rows());
+		table.add(row("id", "4", "zip", "z"));
+		
+		Assert.assertEquals(4, table.size());
+		Assert.assertEquals(row("id", "4", "zip", "z"), table.get(3));
+		Assert.assertFalse(table.get(0).containsKey("zip"));
+		
+		try {
+			table.add(0, row("id", "0"));
+			Assert.fail("Rows can only be appended");
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			table.remove(0);
+			Assert.fail("Rows cannot be removed");
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+	
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testOutOfBounds() {
+		new ProviderTable(rows()).get(3);
+	}
+	
+	@Test
+	public void testSerializedAsPlainRows() throws Exception {
+		ProviderTable table = new ProviderTable(rows());
+		
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bout);
+		out.writeObject(table);
+		out.close();
+		
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()));
+		Object copy = in.readObject();
+		in.close();
+		
+		Assert.assertTrue(copy instanceof ArrayList);
+		Assert.assertEquals(rows(), copy);
+	}
+}
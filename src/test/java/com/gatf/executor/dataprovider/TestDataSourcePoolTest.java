@@ -0,0 +1,146 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.dataprovider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.gatf.executor.core.AcceptanceTestContext;
+
+/**
+ * @author Sumeet Chhetri
+ *
+ */
+public class TestDataSourcePoolTest {
+
+	private static class CountingDataSource extends TestDataSource {
+		private final AtomicInteger created = new AtomicInteger();
+		private final List<Object> closed = new ArrayList<Object>();
+		private volatile boolean valid = true;
+		
+		protected Object createResource() {
+			return "resource-" + created.incrementAndGet();
+		}
+		protected boolean isValidResource(Object object) {
+			return valid;
+		}
+		protected void closeResource(Object object) {
+			closed.add(object);
+		}
+		public List<Map<String, String>> provide(GatfTestDataProvider provider, AcceptanceTestContext context) {
+			return null;
+		}
+		public boolean execute(String queryStr) {
+			return false;
+		}
+	}
+	
+	private static CountingDataSource newDataSource(int poolSize) {
+		CountingDataSource dataSource = new CountingDataSource();
+		dataSource.setDataSourceName("test");
+		dataSource.setPoolSize(poolSize);
+		dataSource.setNewResourceCheckoutTimeMs(50);
+		return dataSource;
+	}
+	
+	@Test
+	public void testReleasedResourcesAreReused() {
+		CountingDataSource dataSource = newDataSource(2);
+		
+		TestDataSource.Resource first = dataSource.checkoutFromPool();
+		Assert.assertEquals(1, dataSource.getActiveCount());
+		dataSource.releaseToPool(first);
+		Assert.assertEquals(0, dataSource.getActiveCount());
+		Assert.assertEquals(1, dataSource.getIdleCount());
+		
+		TestDataSource.Resource second = dataSource.checkoutFromPool();
+		Assert.assertSame(first, second);
+		Assert.assertEquals(1, dataSource.created.get());
+	}
+	
+	@Test
+	public void testPreCreatedResourcesAreUsedFirst() {
+		CountingDataSource dataSource = newDataSource(1);
+		TestDataSource.Resource res = dataSource.addToPool("pre-created");
+		
+		Assert.assertSame(res, dataSource.checkoutFromPool());
+		Assert.assertEquals(0, dataSource.created.get());
+	}
+	
+	@Test
+	public void testCheckoutTimesOutWhenThePoolIsExhausted() {
+		CountingDataSource dataSource = newDataSource(1);
+		dataSource.checkoutFromPool();
+		
+		boolean timedOut = false;
+		try {
+			dataSource.checkoutFromPool();
+		} catch (AssertionError e) {
+			timedOut = true;
+		}
+		Assert.assertTrue(timedOut);
+		Assert.assertEquals(1, dataSource.getCheckoutTimeouts());
+		Assert.assertEquals(0, dataSource.getWaitingCount());
+	}
+	
+	@Test
+	public void testInvalidResourcesAreReplaced() {
+		CountingDataSource dataSource = newDataSource(1);
+		TestDataSource.Resource first = dataSource.checkoutFromPool();
+		dataSource.releaseToPool(first);
+		
+		dataSource.valid = false;
+		TestDataSource.Resource second = dataSource.checkoutFromPool();
+		
+		Assert.assertNotSame(first, second);
+		Assert.assertEquals(2, dataSource.created.get());
+		Assert.assertEquals(1, dataSource.closed.size());
+		Assert.assertFalse(dataSource.pool.contains(first));
+	}
+	
+	@Test
+	public void testIdleResourcesAreEvicted() throws Exception {
+		CountingDataSource dataSource = newDataSource(2);
+		dataSource.setMaxIdleTimeMs(10);
+		
+		TestDataSource.Resource first = dataSource.checkoutFromPool();
+		TestDataSource.Resource second = dataSource.checkoutFromPool();
+		dataSource.releaseToPool(first);
+		Thread.sleep(50);
+		dataSource.releaseToPool(second);
+		
+		Assert.assertEquals(1, dataSource.getIdleCount());
+		Assert.assertEquals(1, dataSource.closed.size());
+		Assert.assertEquals("resource-1", dataSource.closed.get(0));
+	}
+	
+	@Test
+	public void testDestroyClosesAllResources() {
+		CountingDataSource dataSource = newDataSource(2);
+		dataSource.releaseToPool(dataSource.checkoutFromPool());
+		dataSource.checkoutFromPool();
+		dataSource.checkoutFromPool();
+		
+		dataSource.destroy();
+		Assert.assertEquals(2, dataSource.closed.size());
+		Assert.assertEquals(0, dataSource.getIdleCount());
+	}
+}
@@ -0,0 +1,158 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.distributed;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.gatf.executor.distributed.DistributedAcceptanceContext.Command;
+import com.gatf.executor.distributed.DistributedProtocol.Frame;
+import com.gatf.executor.report.TestGroupStats;
+import com.gatf.executor.report.TestSuiteStats;
+
+/**
+ * @author Sumeet Chhetri
+ *
+ */
+public class DistributedProtocolTest {
+
+	private static byte[] header(int magic, int version) throws IOException {
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bout);
+		out.writeInt(magic);
+		out.writeByte(version);
+		out.flush();
+		return bout.toByteArray();
+	}
+	
+	@Test
+	public void testHandshake() throws Exception {
+		ByteArrayOutputStream sent = new ByteArrayOutputStream();
+		DistributedProtocol protocol = new DistributedProtocol(new ByteArrayInputStream(
+				header(DistributedProtocol.MAGIC, DistributedProtocol.VERSION)), sent);
+		protocol.handshake();
+		Assert.assertArrayEquals(header(DistributedProtocol.MAGIC, DistributedProtocol.VERSION), sent.toByteArray());
+	}
+	
+	@Test(expected=IOException.class)
+	public void testHandshakeRejectsOtherVersions() throws Exception {
+		new DistributedProtocol(new ByteArrayInputStream(header(DistributedProtocol.MAGIC, DistributedProtocol.VERSION-1)), 
+				new ByteArrayOutputStream()).handshake();
+	}
+	
+	@Test(expected=IOException.class)
+	public void testHandshakeRejectsInvalidMagic() throws Exception {
+		new DistributedProtocol(new ByteArrayInputStream(header(0, DistributedProtocol.VERSION)), 
+				new ByteArrayOutputStream()).handshake();
+	}
+	
+	@Test
+	public void testFramesRoundTrip() throws Exception {
+		ByteArrayOutputStream sent = new ByteArrayOutputStream();
+		DistributedProtocol writer = new DistributedProtocol(new ByteArrayInputStream(new byte[0]), sent);
+		writer.writeFrame(Command.LOAD_TESTS_RES, new byte[]{1, 2, 3});
+		writer.writeCommand(Command.TESTS_SHARE_REQ);
+		
+		DistributedProtocol reader = new DistributedProtocol(new ByteArrayInputStream(sent.toByteArray()), 
+				new ByteArrayOutputStream());
+		Frame frame = reader.readFrame(Command.LOAD_TESTS_RES);
+		Assert.assertArrayEquals(new byte[]{1, 2, 3}, frame.getPayload());
+		Assert.assertEquals(Command.TESTS_SHARE_REQ, reader.readCommand());
+	}
+	
+	@Test(expected=IOException.class)
+	public void testUnexpectedFrameIsRejected() throws Exception {
+		ByteArrayOutputStream sent = new ByteArrayOutputStream();
+		new DistributedProtocol(new ByteArrayInputStream(new byte[0]), sent).writeCommand(Command.INVALID);
+		
+		new DistributedProtocol(new ByteArrayInputStream(sent.toByteArray()), new ByteArrayOutputStream())
+			.readFrame(Command.TESTS_SHARE_RES);
+	}
+	
+	@Test
+	public void testCompressedBytesRoundTrip() throws Exception {
+		Map<String, String> payload = new HashMap<String, String>();
+		payload.put("key", "value");
+		Assert.assertEquals(payload, DistributedProtocol.fromCompressedBytes(DistributedProtocol.toCompressedBytes(payload)));
+	}
+	
+	@Test
+	public void testTestStatusRoundTrip() throws Exception {
+		TestSuiteStats stats = new TestSuiteStats();
+		stats.setTotalTestCount(10);
+		stats.setFailedTestCount(2);
+		stats.setSkippedTestCount(1);
+		stats.setExecutionTime(1500L);
+		stats.setActualExecutionTime(1200L);
+		stats.setTotalRuns(20);
+		stats.setFailedRuns(3);
+		stats.setTotalSuiteRuns(1);
+		stats.setTotalUserSuiteRuns(5);
+		TestGroupStats group = new TestGroupStats();
+		group.setSourceFile("tests.xml");
+		group.setTotalTestCount(10);
+		group.setFailedTestCount(2);
+		List<TestGroupStats> groups = new ArrayList<TestGroupStats>();
+		groups.add(group);
+		stats.setGroupStats(groups);
+		
+		Histogram histogram = new Histogram(3600000000L, 3);
+		histogram.recordValue(100);
+		histogram.recordValue(2000);
+		Map<String, Histogram> histograms = new HashMap<String, Histogram>();
+		histograms.put("test1", histogram);
+		
+		DistributedTestStatus status = new DistributedTestStatus();
+		status.setNode("node1");
+		status.setIdentifier("DRun-1");
+		status.setSuiteStats(stats);
+		status.setTestPercentileTimes(histograms);
+		status.setRunPercentileTimes(null);
+		
+		DistributedTestStatus decoded = DistributedProtocol.decodeTestStatus(DistributedProtocol.encodeTestStatus(status));
+		
+		Assert.assertEquals("node1", decoded.getNode());
+		Assert.assertEquals("DRun-1", decoded.getIdentifier());
+		Assert.assertNull(decoded.getRunPercentileTimes());
+		Assert.assertEquals(2, decoded.getTestPercentileTimes().get("test1").getTotalCount());
+		Assert.assertEquals(histogram.getMaxValue(), decoded.getTestPercentileTimes().get("test1").getMaxValue());
+		
+		TestSuiteStats dstats = decoded.getSuiteStats();
+		Assert.assertEquals(Integer.valueOf(10), dstats.getTotalTestCount());
+		Assert.assertEquals(Integer.valueOf(2), dstats.getFailedTestCount());
+		Assert.assertEquals(Integer.valueOf(1), dstats.getSkippedTestCount());
+		Assert.assertEquals(Long.valueOf(1500L), dstats.getExecutionTime());
+		Assert.assertEquals(Long.valueOf(1200L), dstats.getActualExecutionTime());
+		Assert.assertEquals(Integer.valueOf(20), dstats.getTotalRuns());
+		Assert.assertEquals(Integer.valueOf(3), dstats.getFailedRuns());
+		Assert.assertEquals(Integer.valueOf(5), dstats.getTotalUserSuiteRuns());
+		Assert.assertEquals(1, dstats.getGroupStats().size());
+		Assert.assertEquals("tests.xml", dstats.getGroupStats().get(0).getSourceFile());
+		Assert.assertNull(dstats.getGroupStats().get(0).getBaseUrl());
+		Assert.assertEquals(Integer.valueOf(2), dstats.getGroupStats().get(0).getFailedTestCount());
+		Assert.assertNull(dstats.getGroupStats().get(0).getTotalRuns());
+	}
+}
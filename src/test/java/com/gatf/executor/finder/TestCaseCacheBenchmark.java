@@ -0,0 +1,144 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.finder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.gatf.executor.core.TestCase;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+
+/**
+ * @author Sumeet Chhetri
+ * Measures the test case loading time at startup without the testcase cache (parse and validate every file, 
+ * then save the cache) against the loading time with a warm cache (load the cache file and de-serialize the 
+ * unchanged files), a few thousand test cases are generated in a temporary directory, this is not run as 
+ * part of the test suite, run it with
+ * java -cp <test-classpath> com.gatf.executor.finder.TestCaseCacheBenchmark [files] [testcasesPerFile] [rounds]
+ */
+public class TestCaseCacheBenchmark {
+
+	private static final String BASE_URL = "http://localhost:8080";
+	
+	private static void generate(File dir, int numFiles, int perFile) throws Exception {
+		XStream xstream = new XStream(new DomDriver("UTF-8"));
+		xstream.processAnnotations(new Class[]{TestCase.class});
+		xstream.alias("TestCases", List.class);
+		
+		for (int i = 0; i < numFiles; i++) {
+			List<TestCase> testCases = new ArrayList<TestCase>();
+			for (int j = 0; j < perFile; j++) {
+				TestCase testCase = new TestCase();
+				testCase.setName("test-" + i + "-" + j);
+				testCase.setUrl("api/resource" + i + "/" + j);
+				testCase.setMethod((j%2==0)?"GET":"POST");
+				testCase.setDescription("Generated testcase " + j + " of file " + i);
+				if(j%2!=0) {
+					Map<String, String> headers = new HashMap<String, String>();
+					headers.put("Content-Type", "application/json");
+					testCase.setHeaders(headers);
+					testCase.setContent("{\"id\": " + j + ", \"name\": \"value" + j + "\"}");
+				}
+				testCase.setExpectedResCode(200);
+				testCase.setExpectedResContentType("application/json");
+				testCases.add(testCase);
+			}
+			Writer writer = new OutputStreamWriter(new FileOutputStream(new File(dir, "tests" + i + ".xml")), "UTF-8");
+			try {
+				xstream.toXML(testCases, writer);
+			} finally {
+				writer.close();
+			}
+		}
+	}
+	
+	private static long loadTestCases(File dir, File cacheFile, int[] hitsMisses) throws Exception {
+		long start = System.nanoTime();
+		TestCaseCache cache = TestCaseCache.load(cacheFile, dir, BASE_URL);
+		
+		TestCaseFinder finder = new XMLTestCaseFinder();
+		finder.setTestCaseCache(cache);
+		Set<String> relativeFileNames = new LinkedHashSet<String>();
+		List<TestCase> testCases = finder.findTestCases(dir, null, false, relativeFileNames);
+		
+		//the same validation and cache update as done on startup
+		Map<String, String> httpHeaders = new HashMap<String, String>();
+		Map<String, List<TestCase>> fileTestCases = new LinkedHashMap<String, List<TestCase>>();
+		for (TestCase testCase : testCases) {
+			if(!testCase.isValidated()) {
+				testCase.validate(httpHeaders, BASE_URL);
+				testCase.setValidated(true);
+			}
+			if(!fileTestCases.containsKey(testCase.getSourcefileName())) {
+				fileTestCases.put(testCase.getSourcefileName(), new ArrayList<TestCase>());
+			}
+			fileTestCases.get(testCase.getSourcefileName()).add(testCase);
+		}
+		for (Map.Entry<String, List<TestCase>> entry : fileTestCases.entrySet()) {
+			cache.put(entry.getKey(), entry.getValue());
+		}
+		cache.save();
+		
+		hitsMisses[0] = cache.getHits();
+		hitsMisses[1] = cache.getMisses();
+		hitsMisses[2] = testCases.size();
+		return System.nanoTime() - start;
+	}
+	
+	public static void main(String[] args) throws Exception {
+		int numFiles = args.length>0?Integer.parseInt(args[0]):100;
+		int perFile = args.length>1?Integer.parseInt(args[1]):40;
+		int rounds = args.length>2?Integer.parseInt(args[2]):3;
+		
+		File dir = Files.createTempDirectory("gatf-testcases").toFile();
+		File cacheFile = new File(dir.getParentFile(), dir.getName() + ".cache");
+		try {
+			generate(dir, numFiles, perFile);
+			
+			int[] hitsMisses = new int[3];
+			for (int round = 1; round <= rounds; round++) {
+				cacheFile.delete();
+				long cold = loadTestCases(dir, cacheFile, hitsMisses);
+				System.out.println("Round " + round + " cold = " + cold/1000000 + " ms (" + hitsMisses[2] 
+						+ " testcases, hits = " + hitsMisses[0] + ", misses = " + hitsMisses[1] + ")");
+				
+				long warm = loadTestCases(dir, cacheFile, hitsMisses);
+				System.out.println("Round " + round + " warm = " + warm/1000000 + " ms (" + hitsMisses[2] 
+						+ " testcases, hits = " + hitsMisses[0] + ", misses = " + hitsMisses[1] + ")");
+			}
+		} finally {
+			cacheFile.delete();
+			File[] files = dir.listFiles();
+			if(files!=null) {
+				for (File file : files) {
+					file.delete();
+				}
+			}
+			dir.delete();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*
+    Copyright 2013-2016, Sumeet Chhetri
+    
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+    
+    http://www.apache.org/licenses/LICENSE-2.0
+    
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+*/
+package com.gatf.executor.finder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.gatf.executor.core.TestCase;
+
+/**
+ * @author Sumeet Chhetri
+ *
+ */
+public class TestCaseCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private static void write(File file, String contents) throws Exception {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(contents.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+	
+	private static List<TestCase> testCases(String... names) {
+		List<TestCase> testCases = new ArrayList<TestCase>();
+		for (String name : names) {
+			TestCase testCase = new TestCase();
+			testCase.setName(name);
+			testCases.add(testCase);
+		}
+		return testCases;
+	}
+	
+	private File cacheFile;
+	
+	private File testFile;
+	
+	private void populate(String fingerprint) throws Exception {
+		testFile = new File(folder.getRoot(), "tests.xml");
+		write(testFile, "<testcases/>");
+		cacheFile = new File(folder.getRoot(), "testcases.cache");
+		
+		TestCaseCache cache = TestCaseCache.load(cacheFile, folder.getRoot(), fingerprint);
+		Assert.assertNull(cache.get("tests.xml", testFile));
+		cache.put("tests.xml", testCases("first", "second"));
+		cache.save();
+		Assert.assertEquals(1, cache.getMisses());
+	}
+	
+	@Test
+	public void testUnchangedFileIsServedFromTheCache() throws Exception {
+		populate("fp");
+		
+		TestCaseCache cache = TestCaseCache.load(cacheFile, folder.getRoot(), "fp");
+		List<TestCase> cached = cache.get("tests.xml", testFile);
+		
+		Assert.assertNotNull(cached);
+		Assert.assertEquals(2, cached.size());
+		Assert.assertEquals("first", cached.get(0).getName());
+		Assert.assertEquals("second", cached.get(1).getName());
+		Assert.assertTrue(cached.get(0).isValidated());
+		Assert.assertEquals(1, cache.getHits());
+	}
+	
+	@Test
+	public void testChangedFileIsNotServed() throws Exception {
+		populate("fp");
+		write(testFile, "<testcases></testcases>");
+		
+		TestCaseCache cache = TestCaseCache.load(cacheFile, folder.getRoot(), "fp");
+		Assert.assertNull(cache.get("tests.xml", testFile));
+		Assert.assertEquals(1, cache.getMisses());
+	}
+	
+	@Test
+	public void testSameContentWithNewTimestampIsServed() throws Exception {
+		populate("fp");
+		Assert.assertTrue(testFile.setLastModified(testFile.lastModified() - 60000));
+		
+		TestCaseCache cache = TestCaseCache.load(cacheFile, folder.getRoot(), "fp");
+		Assert.assertNotNull(cache.get("tests.xml", testFile));
+	}
+	
+	@Test
+	public void testDifferentFingerprintDiscardsTheCache() throws Exception {
+		populate("fp");
+		
+		TestCaseCache cache = TestCaseCache.load(cacheFile, folder.getRoot(), "other");
+		Assert.assertNull(cache.get("tests.xml", testFile));
+	}
+	
+	@Test
+	public void testCorruptCacheIsIgnored() throws Exception {
+		cacheFile = new File(folder.getRoot(), "testcases.cache");
+		write(cacheFile, "not a cache");
+		testFile = new File(folder.getRoot(), "tests.xml");
+		write(testFile, "<testcases/>");
+		
+		TestCaseCache cache = TestCaseCache.load(cacheFile, folder.getRoot(), "fp");
+		Assert.assertNull(cache.get("tests.xml", testFile));
+	}
+}